@@ -0,0 +1,39 @@
+package com.gildong.gildongE.controller;
+
+import com.gildong.gildongE.dto.CohortStatsResponse;
+import com.gildong.gildongE.service.DrivingCohortService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics/cohorts")
+public class CohortController {
+    private final DrivingCohortService cohortService;
+
+    public CohortController(DrivingCohortService cohortService) {
+        this.cohortService = cohortService;
+    }
+
+    /** GET /api/analytics/cohorts/{dimension} : 모델/제조사/연료(model, manufacturer, fuelType)별 운전 점수 통계 */
+    @GetMapping("/{dimension}")
+    public ResponseEntity<List<CohortStatsResponse>> getCohorts(@PathVariable String dimension) {
+        return ResponseEntity.ok(cohortService.getCohorts(dimension));
+    }
+
+    /** GET /api/analytics/cohorts/{dimension}/{value} : 묶음 하나 (예: /manufacturer/Hyundai) */
+    @GetMapping("/{dimension}/{value}")
+    public ResponseEntity<CohortStatsResponse> getCohort(@PathVariable String dimension,
+                                                         @PathVariable String value) {
+        return ResponseEntity.ok(cohortService.getCohort(dimension, value));
+    }
+
+    /** POST /api/analytics/cohorts/refresh : 요약 다시 만들기 요청 (비동기, 202). 리더 노드가 이어서 실행한다 */
+    @PostMapping("/refresh")
+    public ResponseEntity<Void> refresh() {
+        cohortService.requestRefresh();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+}
@@ -1,22 +1,32 @@
 package com.gildong.gildongE.controller;
 
+import com.gildong.gildongE.dto.ConsumableDueResponse;
 import com.gildong.gildongE.dto.ConsumableRequest;
 import com.gildong.gildongE.dto.ConsumableResponse;
 import com.gildong.gildongE.dto.ConsumablesOverviewResponse;
+import com.gildong.gildongE.service.ConsumableDueService;
 import com.gildong.gildongE.service.ConsumableService;
+import com.gildong.gildongE.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/consumables")
 public class ConsumableController {
     private final ConsumableService consumableService;
+    private final ConsumableDueService consumableDueService;
+    private final UserService userService;
 
-    public ConsumableController(ConsumableService consumableService) {
+    public ConsumableController(ConsumableService consumableService,
+                                ConsumableDueService consumableDueService,
+                                UserService userService) {
         this.consumableService = consumableService;
+        this.consumableDueService = consumableDueService;
+        this.userService = userService;
     }
 
     /** POST /api/consumables */
@@ -40,4 +50,18 @@ public class ConsumableController {
             @PathVariable String userId) {
         return ResponseEntity.ok(consumableService.getConsumablesOverview(userId));
     }
+
+    /** GET /api/consumables/user/{userId}/due?days=30 : 사용자별 N일 이내 교체 예정 항목 */
+    @GetMapping("/user/{userId}/due")
+    public ResponseEntity<List<ConsumableDueResponse>> getUserDueSoon(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        // 존재 여부 검증
+        userService.getUserById(userId);
+        LocalDate today = LocalDate.now();
+        return ResponseEntity.ok(consumableDueService.findDueBetweenForUser(
+                userId, today, today.plusDays(days), page, Math.min(size, 500)));
+    }
 }
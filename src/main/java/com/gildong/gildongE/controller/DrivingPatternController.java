@@ -1,18 +1,37 @@
 package com.gildong.gildongE.controller;
 
+import com.gildong.gildongE.dto.BulkIngestResponse;
+import com.gildong.gildongE.dto.DrivingPatternPage;
 import com.gildong.gildongE.dto.DrivingPatternRequest;
 import com.gildong.gildongE.dto.DrivingPatternResponse;
+import com.gildong.gildongE.dto.ScoreBucketResponse;
+import com.gildong.gildongE.dto.ScoreStatsResponse;
+import com.gildong.gildongE.dto.ScoreWindowsResponse;
 import com.gildong.gildongE.dto.WeeklyAverageResponse;
 import com.gildong.gildongE.service.DrivingPatternService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/patterns")
 public class DrivingPatternController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+
     private final DrivingPatternService patternService;
 
     public DrivingPatternController(DrivingPatternService patternService) {
@@ -27,27 +46,133 @@ public class DrivingPatternController {
         return ResponseEntity.status(HttpStatus.CREATED).body(resp);
     }
 
-    /** 사용자별 운전 기록 조회 */
+    /**
+     * 운전 점수 일괄 기록 (JSON 배열, 최대 gildong.patterns.bulk-max-items 건)
+     * 항목별 결과(CREATED/REJECTED)를 요청 순서대로 돌려준다.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkIngestResponse> recordBulk(
+            @RequestBody List<DrivingPatternRequest> reqs) {
+        return ResponseEntity.ok(patternService.recordPatterns(reqs));
+    }
+
+    /** 운전 점수 일괄 기록 (NDJSON 스트림, 건수 제한 없음) */
+    @PostMapping(value = "/bulk", consumes = NDJSON)
+    public ResponseEntity<BulkIngestResponse> recordBulkNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(patternService.recordPatterns(body));
+    }
+
+    /**
+     * 사용자별 운전 기록 조회 (recordedAt 오름차순 페이지)
+     * 다음 페이지가 있으면 X-Next-Cursor 헤더 값을 cursor로 다시 요청한다.
+     */
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<DrivingPatternResponse>> listByUser(
-            @PathVariable String userId) {
-        List<DrivingPatternResponse> list = patternService.listPatterns(userId);
-        return ResponseEntity.ok(list);
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(patternService.listPatterns(userId, from, to, cursor, limit));
     }
-    /** 사용자 이름으로 운전 기록 조회 */
+    /** 사용자 이름으로 운전 기록 조회 (페이지 방식은 /user/{userId}와 같다) */
     @GetMapping("/username/{userName}")
     public ResponseEntity<List<DrivingPatternResponse>> listByUserName(
-            @PathVariable String userName) {
-        List<DrivingPatternResponse> list = patternService.listPatternsByUserName(userName);
-        return ResponseEntity.ok(list);
+            @PathVariable String userName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(patternService.listPatternsByUserName(userName, from, to, cursor, limit));
     }
 
+    /**
+     * 사용자 운전 기록 전체 내보내기 (NDJSON 스트림, recordedAt 오름차순)
+     * gzip=true 이거나 Accept-Encoding에 gzip이 있으면 gzip으로 압축해 보낸다.
+     */
+    @GetMapping(value = "/user/{userId}/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        patternService.checkExport(userId, from, to);
+        boolean compress = gzip || (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip"));
+
+        StreamingResponseBody body = out -> {
+            try {
+                if (compress) {
+                    // syncFlush: 서비스가 flush할 때마다 압축된 데이터도 내보낸다
+                    GZIPOutputStream gz = new GZIPOutputStream(out, 8192, true);
+                    patternService.exportPatterns(userId, from, to, gz);
+                    gz.finish();
+                } else {
+                    patternService.exportPatterns(userId, from, to, out);
+                }
+            } catch (IOException ex) {
+                // 클라이언트가 연결을 끊음: 커서는 이미 닫혔고 더 쓸 곳이 없으므로 여기서 끝낸다
+            }
+        };
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("driving-patterns-" + userId + ".ndjson").build().toString());
+        if (compress) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).body(body);
+    }
 
-    /** 사용자별 일주일 단위 평균 점수 목록 반환 */
+    // 본문은 기존과 같은 배열, 다음 페이지 커서는 헤더로
+    private static ResponseEntity<List<DrivingPatternResponse>> toPageResponse(DrivingPatternPage page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+
+    /** 사용자별 일주일 단위 평균 점수 목록 반환 (from/to: 선택, 해당 날짜가 속한 주 기준) */
     @GetMapping("/user/{userId}/weekly-averages")
     public ResponseEntity<List<WeeklyAverageResponse>> getWeeklyAverages(
-            @PathVariable String userId) {
-        List<WeeklyAverageResponse> result = patternService.getWeeklyAverages(userId);
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<WeeklyAverageResponse> result = patternService.getWeeklyAverages(userId, from, to);
         return ResponseEntity.ok(result);
     }
+
+    /** 사용자별 기간 단위(day/week/month) 점수 통계 (서버 집계) */
+    @GetMapping("/user/{userId}/score-buckets")
+    public ResponseEntity<List<ScoreBucketResponse>> getScoreBuckets(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "week") String unit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(patternService.getScoreBuckets(userId, unit, from, to));
+    }
+
+    /** 사용자별 운전 점수 분포 (p10/p50/p90 + 히스토그램, from/to: 선택, 해당 날짜가 속한 주 기준) */
+    @GetMapping("/user/{userId}/score-stats")
+    public ResponseEntity<ScoreStatsResponse> getScoreStats(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int binWidth) {
+        return ResponseEntity.ok(patternService.getScoreStats(userId, from, to, binWidth));
+    }
+
+    /** 사용자별 여러 창(일/주/월 구간, 이동 평균, EWMA) 점수 통계를 한 번에 (windows: 쉼표 구분) */
+    @GetMapping("/user/{userId}/windows")
+    public ResponseEntity<ScoreWindowsResponse> getScoreWindows(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "week") String windows,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "MONDAY") DayOfWeek weekStart,
+            @RequestParam(defaultValue = "7") int rollingDays,
+            @RequestParam(defaultValue = "0.2") double alpha) {
+        return ResponseEntity.ok(patternService.getScoreWindows(userId, windows, from, to, weekStart, rollingDays, alpha));
+    }
 }
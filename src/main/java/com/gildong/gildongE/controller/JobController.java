@@ -0,0 +1,136 @@
+package com.gildong.gildongE.controller;
+
+import com.gildong.gildongE.dto.JobRangeResponse;
+import com.gildong.gildongE.dto.JobRunResponse;
+import com.gildong.gildongE.service.ConsumableInspectionScheduler;
+import com.gildong.gildongE.service.DrivingPatternArchiver;
+import com.gildong.gildongE.service.DrivingPatternRetentionJob;
+import com.gildong.gildongE.service.DrivingPatternTimeSeriesCopier;
+import com.gildong.gildongE.service.DrivingWeeklySummaryJob;
+import com.gildong.gildongE.service.JobRunService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 스케줄러 작업 실행 기록 조회 및 수동 실행
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+    private final JobRunService jobRunService;
+    private final ConsumableInspectionScheduler inspectionScheduler;
+    private final DrivingWeeklySummaryJob weeklySummaryJob;
+    private final DrivingPatternTimeSeriesCopier timeSeriesCopier;
+    private final DrivingPatternArchiver archiver;
+    private final DrivingPatternRetentionJob retentionJob;
+
+    public JobController(JobRunService jobRunService,
+                         ConsumableInspectionScheduler inspectionScheduler,
+                         DrivingWeeklySummaryJob weeklySummaryJob,
+                         DrivingPatternTimeSeriesCopier timeSeriesCopier,
+                         DrivingPatternArchiver archiver,
+                         DrivingPatternRetentionJob retentionJob) {
+        this.jobRunService = jobRunService;
+        this.inspectionScheduler = inspectionScheduler;
+        this.weeklySummaryJob = weeklySummaryJob;
+        this.timeSeriesCopier = timeSeriesCopier;
+        this.archiver = archiver;
+        this.retentionJob = retentionJob;
+    }
+
+    /** GET /api/jobs/{jobName}/runs?limit=10 : 최근 실행 기록 */
+    @GetMapping("/{jobName}/runs")
+    public ResponseEntity<List<JobRunResponse>> getRuns(
+            @PathVariable String jobName,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(jobRunService.findRecentRuns(jobName, Math.min(Math.max(limit, 1), 100)));
+    }
+
+    /** GET /api/jobs/{jobName}/runs/{runDate}/ranges : 실행 하나의 범위별 진행 상황 */
+    @GetMapping("/{jobName}/runs/{runDate}/ranges")
+    public ResponseEntity<List<JobRangeResponse>> getRanges(
+            @PathVariable String jobName,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate runDate) {
+        return ResponseEntity.ok(jobRunService.findRanges(jobName, runDate));
+    }
+
+    /**
+     * POST /api/jobs/consumable-due-soon/run?date=2025-05-20 : 교체 예정 알림 수동 (재)실행
+     * 완료된 날짜는 다시 실행하지 않고, 남은 범위만 처리한다. 다른 노드들도 주기적으로 남은 범위를 가져간다.
+     */
+    @PostMapping("/" + ConsumableInspectionScheduler.JOB_NAME + "/run")
+    public ResponseEntity<Void> runDueSoon(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate runDate = date != null ? date : LocalDate.now();
+        CompletableFuture.runAsync(() -> inspectionScheduler.runDueSoonJob(runDate));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    /**
+     * POST /api/jobs/driving-weekly-summary/run?weekStart=2025-05-12 : 주간 운전 리포트 수동 (재)실행
+     * weekStart는 그 주의 월요일로 맞춘다. 기본값은 gildong.analytics.zone 기준 지난주.
+     */
+    @PostMapping("/" + DrivingWeeklySummaryJob.JOB_NAME + "/run")
+    public ResponseEntity<Void> runWeeklySummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart) {
+        LocalDate monday = weekStart != null
+                ? weekStart.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : weeklySummaryJob.lastWeekStart();
+        weeklySummaryJob.runWeeklySummary(monday);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    /**
+     * POST /api/jobs/driving-pattern-timeseries-copy/run?date=2025-05-20 : driving_pattern → 시계열 컬렉션 복사
+     * 같은 날짜로 다시 부르면 중단된 곳부터 이어서, 다른 날짜면 이전 복사 이후 새로 들어온 기록만 (겹치는 구간은 _id로 걸러) 복사한다.
+     */
+    @PostMapping("/" + DrivingPatternTimeSeriesCopier.JOB_NAME + "/run")
+    public ResponseEntity<Void> runTimeSeriesCopy(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate runDate = date != null ? date : LocalDate.now();
+        CompletableFuture.runAsync(() -> timeSeriesCopier.copy(runDate));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    /**
+     * POST /api/jobs/driving-pattern-archive/run?date=2025-05-20 : 오래된 운전 기록 보관 수동 (재)실행
+     * date - gildong.archive.age-days 가 속한 달 이전 기록을 세그먼트로 옮긴다.
+     * gildong.archive.enabled=false면 409, 오늘 이후 date는 400 (보관 경계를 앞당길 수 없다)
+     */
+    @PostMapping("/" + DrivingPatternArchiver.JOB_NAME + "/run")
+    public ResponseEntity<Void> runArchive(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (!archiver.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        LocalDate runDate = date != null ? date : LocalDate.now();
+        archiver.checkRunDate(runDate);
+        CompletableFuture.runAsync(() -> archiver.archive(runDate));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    /**
+     * POST /api/jobs/driving-pattern-retention/run?date=2025-06-02 : 보존 작업 수동 실행 (비동기, 202)
+     * date 기준 raw-days 전 기록을 일별 집계로, daily-days 전 일별 집계를 지운다.
+     * gildong.retention.enabled=false면 409, 오늘(분석 시간대) 이후 date는 400 (보존 경계를 앞당길 수 없다)
+     */
+    @PostMapping("/" + DrivingPatternRetentionJob.JOB_NAME + "/run")
+    public ResponseEntity<Void> runRetention(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (!retentionJob.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        LocalDate runDate = date != null ? date : retentionJob.today();
+        retentionJob.checkRunDate(runDate);
+        CompletableFuture.runAsync(() -> retentionJob.run(runDate));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.gildong.gildongE.controller;
+
+import com.gildong.gildongE.dto.LeaderboardEntry;
+import com.gildong.gildongE.dto.UserRankResponse;
+import com.gildong.gildongE.service.DrivingLeaderboard;
+import com.gildong.gildongE.service.UserService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+public class LeaderboardController {
+    private final DrivingLeaderboard leaderboard;
+    private final UserService userService;
+
+    public LeaderboardController(DrivingLeaderboard leaderboard, UserService userService) {
+        this.leaderboard = leaderboard;
+        this.userService = userService;
+    }
+
+    /** GET /api/leaderboard?limit=10 : 평균 운전 점수 상위 사용자 */
+    @GetMapping
+    public ResponseEntity<List<LeaderboardEntry>> top(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboard.top(Math.min(Math.max(limit, 1), 100)));
+    }
+
+    /** GET /api/leaderboard/users/{userId} : 사용자 순위와 상위 몇 % 인지 */
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<UserRankResponse> rankOf(@PathVariable String userId) {
+        // 사용자 존재 여부 확인
+        userService.getUserById(userId);
+        return ResponseEntity.ok(leaderboard.rankOf(userId));
+    }
+}
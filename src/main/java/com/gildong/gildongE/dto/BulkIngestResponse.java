@@ -0,0 +1,36 @@
+package com.gildong.gildongE.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 운전 점수 일괄 기록 결과
+ */
+public class BulkIngestResponse {
+    private int total;
+    private int created;
+    private int rejected;
+    private List<BulkItemResult> items = new ArrayList<>();
+
+    public BulkIngestResponse() {}
+
+    /** 항목 결과를 더하고 건수를 맞춘다 */
+    public void add(BulkItemResult item) {
+        items.add(item);
+        total++;
+        if (BulkItemResult.CREATED.equals(item.getStatus())) created++;
+        else rejected++;
+    }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public List<BulkItemResult> getItems() { return items; }
+    public void setItems(List<BulkItemResult> items) { this.items = items; }
+}
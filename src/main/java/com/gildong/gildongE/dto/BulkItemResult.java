@@ -0,0 +1,44 @@
+package com.gildong.gildongE.dto;
+
+/**
+ * 일괄 기록 요청 항목 하나의 결과 (index는 요청 본문에서의 순번, 0부터)
+ */
+public class BulkItemResult {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+    private String status;
+    private String id;      // CREATED일 때 저장된 기록 ID
+    private String error;   // REJECTED일 때 사유
+
+    public BulkItemResult() {}
+
+    public static BulkItemResult created(int index, String id) {
+        BulkItemResult r = new BulkItemResult();
+        r.index = index;
+        r.status = CREATED;
+        r.id = id;
+        return r;
+    }
+
+    public static BulkItemResult rejected(int index, String error) {
+        BulkItemResult r = new BulkItemResult();
+        r.index = index;
+        r.status = REJECTED;
+        r.error = error;
+        return r;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
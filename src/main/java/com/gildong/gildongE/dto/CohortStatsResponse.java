@@ -0,0 +1,56 @@
+package com.gildong.gildongE.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 차량 묶음(모델/제조사/연료)별 운전 점수 통계. 주기적으로 만든 요약에서 읽은 값이며 refreshedAt 시점 기준이다.
+ * 사용자가 차를 여러 대 가지면 각 묶음에 한 번씩 들어간다.
+ */
+public class CohortStatsResponse {
+    private String dimension;
+    private String value;
+    private long users;
+    private long count;
+    private Double averageScore;
+    private Double p10;
+    private Double p50;
+    private Double p90;
+    private Float minScore;
+    private Float maxScore;
+    private LocalDateTime refreshedAt;
+
+    public CohortStatsResponse() {}
+
+    public String getDimension() {return dimension;}
+    public void setDimension(String dimension) {this.dimension = dimension;}
+
+    public String getValue() {return value;}
+    public void setValue(String value) {this.value = value;}
+
+    public long getUsers() {return users;}
+    public void setUsers(long users) {this.users = users;}
+
+    public long getCount() {return count;}
+    public void setCount(long count) {this.count = count;}
+
+    public Double getAverageScore() {return averageScore;}
+    public void setAverageScore(Double averageScore) {this.averageScore = averageScore;}
+
+    public Double getP10() {return p10;}
+    public void setP10(Double p10) {this.p10 = p10;}
+
+    public Double getP50() {return p50;}
+    public void setP50(Double p50) {this.p50 = p50;}
+
+    public Double getP90() {return p90;}
+    public void setP90(Double p90) {this.p90 = p90;}
+
+    public Float getMinScore() {return minScore;}
+    public void setMinScore(Float minScore) {this.minScore = minScore;}
+
+    public Float getMaxScore() {return maxScore;}
+    public void setMaxScore(Float maxScore) {this.maxScore = maxScore;}
+
+    public LocalDateTime getRefreshedAt() {return refreshedAt;}
+    public void setRefreshedAt(LocalDateTime refreshedAt) {this.refreshedAt = refreshedAt;}
+}
@@ -0,0 +1,64 @@
+package com.gildong.gildongE.dto;
+
+import java.time.LocalDate;
+
+public class ConsumableDueResponse {
+    private String consumableId;
+    private String userId;
+    private String carModel;
+    private String carNumber;
+    private String part;        // 예) ENGINE_OIL
+    private String partName;    // 예) 엔진 오일
+    private LocalDate dueDate;
+
+    public ConsumableDueResponse() {}
+
+    public String getConsumableId() {
+        return consumableId;
+    }
+    public void setConsumableId(String consumableId) {
+        this.consumableId = consumableId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getCarModel() {
+        return carModel;
+    }
+    public void setCarModel(String carModel) {
+        this.carModel = carModel;
+    }
+
+    public String getCarNumber() {
+        return carNumber;
+    }
+    public void setCarNumber(String carNumber) {
+        this.carNumber = carNumber;
+    }
+
+    public String getPart() {
+        return part;
+    }
+    public void setPart(String part) {
+        this.part = part;
+    }
+
+    public String getPartName() {
+        return partName;
+    }
+    public void setPartName(String partName) {
+        this.partName = partName;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+}
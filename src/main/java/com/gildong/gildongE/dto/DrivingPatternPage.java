@@ -0,0 +1,22 @@
+package com.gildong.gildongE.dto;
+
+import java.util.List;
+
+/** 운전 기록 한 페이지 (recordedAt, id 순). nextCursor가 null이면 마지막 페이지 */
+public class DrivingPatternPage {
+    private List<DrivingPatternResponse> items;
+    private String nextCursor;
+
+    public DrivingPatternPage() {}
+
+    public DrivingPatternPage(List<DrivingPatternResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<DrivingPatternResponse> getItems() {return items;}
+    public void setItems(List<DrivingPatternResponse> items) {this.items = items;}
+
+    public String getNextCursor() {return nextCursor;}
+    public void setNextCursor(String nextCursor) {this.nextCursor = nextCursor;}
+}
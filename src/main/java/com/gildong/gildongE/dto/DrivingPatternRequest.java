@@ -1,12 +1,18 @@
 package com.gildong.gildongE.dto;
 
+import java.time.LocalDateTime;
+
 public class DrivingPatternRequest {
     private String userId;
     private float drivingScore;
+    private LocalDateTime recordedAt;   // 선택: 기기에 쌓아 둔 기록을 나중에 올릴 때의 실제 기록 시각 (없으면 서버 수신 시각)
 
     public String getUserId() {return userId;}
     public void setUserId(String userId) {this.userId = userId;}
 
     public float getDrivingScore() {return drivingScore;}
     public void setDrivingScore(float drivingScore) {this.drivingScore = drivingScore;}
+
+    public LocalDateTime getRecordedAt() {return recordedAt;}
+    public void setRecordedAt(LocalDateTime recordedAt) {this.recordedAt = recordedAt;}
 }
@@ -0,0 +1,53 @@
+package com.gildong.gildongE.dto;
+
+import java.util.Date;
+
+public class JobRangeResponse {
+    private int rangeIndex;
+    private int bucketFrom;
+    private int bucketTo;
+    private String status;
+    private String checkpoint;
+    private long processed;
+    private int attempts;
+    private String owner;
+    private Date leaseExpiresAt;
+    private Date startedAt;
+    private Date completedAt;
+
+    public JobRangeResponse() {}
+
+    // Getters & Setters
+    public int getRangeIndex() { return rangeIndex; }
+    public void setRangeIndex(int rangeIndex) { this.rangeIndex = rangeIndex; }
+
+    public int getBucketFrom() { return bucketFrom; }
+    public void setBucketFrom(int bucketFrom) { this.bucketFrom = bucketFrom; }
+
+    public int getBucketTo() { return bucketTo; }
+    public void setBucketTo(int bucketTo) { this.bucketTo = bucketTo; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getCheckpoint() { return checkpoint; }
+    public void setCheckpoint(String checkpoint) { this.checkpoint = checkpoint; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public Date getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(Date leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+
+    public Date getStartedAt() { return startedAt; }
+    public void setStartedAt(Date startedAt) { this.startedAt = startedAt; }
+
+    public Date getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,42 @@
+package com.gildong.gildongE.dto;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+public class JobRunResponse {
+    private String jobName;
+    private LocalDate runDate;
+    private String status;
+    private int rangeCount;
+    private long processed;
+    private Date startedAt;
+    private Date updatedAt;
+    private Date completedAt;
+
+    public JobRunResponse() {}
+
+    // Getters & Setters
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getRangeCount() { return rangeCount; }
+    public void setRangeCount(int rangeCount) { this.rangeCount = rangeCount; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public Date getStartedAt() { return startedAt; }
+    public void setStartedAt(Date startedAt) { this.startedAt = startedAt; }
+
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+
+    public Date getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+}
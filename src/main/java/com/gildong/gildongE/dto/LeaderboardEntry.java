@@ -0,0 +1,30 @@
+package com.gildong.gildongE.dto;
+
+/** 리더보드 한 줄 (같은 점수는 같은 순위) */
+public class LeaderboardEntry {
+    private long rank;
+    private String userId;
+    private String userName;
+    private float avgDrivingScore;
+
+    public LeaderboardEntry() {}
+
+    public LeaderboardEntry(long rank, String userId, String userName, float avgDrivingScore) {
+        this.rank = rank;
+        this.userId = userId;
+        this.userName = userName;
+        this.avgDrivingScore = avgDrivingScore;
+    }
+
+    public long getRank() {return rank;}
+    public void setRank(long rank) {this.rank = rank;}
+
+    public String getUserId() {return userId;}
+    public void setUserId(String userId) {this.userId = userId;}
+
+    public String getUserName() {return userName;}
+    public void setUserName(String userName) {this.userName = userName;}
+
+    public float getAvgDrivingScore() {return avgDrivingScore;}
+    public void setAvgDrivingScore(float avgDrivingScore) {this.avgDrivingScore = avgDrivingScore;}
+}
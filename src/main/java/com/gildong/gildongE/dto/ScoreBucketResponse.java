@@ -0,0 +1,51 @@
+package com.gildong.gildongE.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 기간 단위(일/주/월) 운전 점수 통계. bucketStart는 분석 시간대 기준 구간 시작일 (주는 월요일).
+ */
+public class ScoreBucketResponse {
+    private LocalDate bucketStart;
+    private double averageScore;
+    private long count;
+    private float minScore;
+    private float maxScore;
+
+    public ScoreBucketResponse() {}
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+    public void setAverageScore(double averageScore) {
+        this.averageScore = averageScore;
+    }
+
+    public long getCount() {
+        return count;
+    }
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public float getMinScore() {
+        return minScore;
+    }
+    public void setMinScore(float minScore) {
+        this.minScore = minScore;
+    }
+
+    public float getMaxScore() {
+        return maxScore;
+    }
+    public void setMaxScore(float maxScore) {
+        this.maxScore = maxScore;
+    }
+}
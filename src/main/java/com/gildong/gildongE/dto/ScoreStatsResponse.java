@@ -0,0 +1,49 @@
+package com.gildong.gildongE.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 운전 점수 분포 (백분위 + 히스토그램). 백분위는 1점 간격 히스토그램에서 구한 값이라 오차가 1점 이내다.
+ * histogram[i]는 [i*binWidth, (i+1)*binWidth) 점수 건수이며 100점은 마지막 구간에 들어간다.
+ */
+public class ScoreStatsResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private long count;
+    private Double averageScore;
+    private Double p10;
+    private Double p50;
+    private Double p90;
+    private int binWidth;
+    private List<Long> histogram;
+
+    public ScoreStatsResponse() {}
+
+    public LocalDate getFrom() {return from;}
+    public void setFrom(LocalDate from) {this.from = from;}
+
+    public LocalDate getTo() {return to;}
+    public void setTo(LocalDate to) {this.to = to;}
+
+    public long getCount() {return count;}
+    public void setCount(long count) {this.count = count;}
+
+    public Double getAverageScore() {return averageScore;}
+    public void setAverageScore(Double averageScore) {this.averageScore = averageScore;}
+
+    public Double getP10() {return p10;}
+    public void setP10(Double p10) {this.p10 = p10;}
+
+    public Double getP50() {return p50;}
+    public void setP50(Double p50) {this.p50 = p50;}
+
+    public Double getP90() {return p90;}
+    public void setP90(Double p90) {this.p90 = p90;}
+
+    public int getBinWidth() {return binWidth;}
+    public void setBinWidth(int binWidth) {this.binWidth = binWidth;}
+
+    public List<Long> getHistogram() {return histogram;}
+    public void setHistogram(List<Long> histogram) {this.histogram = histogram;}
+}
@@ -0,0 +1,30 @@
+package com.gildong.gildongE.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 날짜별 추세 값 (이동 평균 / EWMA). day는 분석 시간대 기준 날짜로, 기록이 있는 날만 나온다.
+ * count는 이동 평균이면 창 안의 기록 수, EWMA면 그날 기록 수다.
+ */
+public class ScoreTrendPoint {
+    private LocalDate day;
+    private double value;
+    private long count;
+
+    public ScoreTrendPoint() {}
+
+    public ScoreTrendPoint(LocalDate day, double value, long count) {
+        this.day = day;
+        this.value = value;
+        this.count = count;
+    }
+
+    public LocalDate getDay() {return day;}
+    public void setDay(LocalDate day) {this.day = day;}
+
+    public double getValue() {return value;}
+    public void setValue(double value) {this.value = value;}
+
+    public long getCount() {return count;}
+    public void setCount(long count) {this.count = count;}
+}
@@ -0,0 +1,58 @@
+package com.gildong.gildongE.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 여러 창으로 본 운전 점수 (한 번의 계산). 요청하지 않은 창은 null이다.
+ * daily/weekly/monthly는 구간 통계, rolling은 최근 rollingDays일 이동 평균, ewma는 지수 가중 평균이다.
+ */
+public class ScoreWindowsResponse {
+    private String userId;
+    private LocalDate from;
+    private LocalDate to;
+    private DayOfWeek weekStart;
+    private Integer rollingDays;
+    private Double alpha;
+    private List<ScoreBucketResponse> daily;
+    private List<ScoreBucketResponse> weekly;
+    private List<ScoreBucketResponse> monthly;
+    private List<ScoreTrendPoint> rolling;
+    private List<ScoreTrendPoint> ewma;
+
+    public ScoreWindowsResponse() {}
+
+    public String getUserId() {return userId;}
+    public void setUserId(String userId) {this.userId = userId;}
+
+    public LocalDate getFrom() {return from;}
+    public void setFrom(LocalDate from) {this.from = from;}
+
+    public LocalDate getTo() {return to;}
+    public void setTo(LocalDate to) {this.to = to;}
+
+    public DayOfWeek getWeekStart() {return weekStart;}
+    public void setWeekStart(DayOfWeek weekStart) {this.weekStart = weekStart;}
+
+    public Integer getRollingDays() {return rollingDays;}
+    public void setRollingDays(Integer rollingDays) {this.rollingDays = rollingDays;}
+
+    public Double getAlpha() {return alpha;}
+    public void setAlpha(Double alpha) {this.alpha = alpha;}
+
+    public List<ScoreBucketResponse> getDaily() {return daily;}
+    public void setDaily(List<ScoreBucketResponse> daily) {this.daily = daily;}
+
+    public List<ScoreBucketResponse> getWeekly() {return weekly;}
+    public void setWeekly(List<ScoreBucketResponse> weekly) {this.weekly = weekly;}
+
+    public List<ScoreBucketResponse> getMonthly() {return monthly;}
+    public void setMonthly(List<ScoreBucketResponse> monthly) {this.monthly = monthly;}
+
+    public List<ScoreTrendPoint> getRolling() {return rolling;}
+    public void setRolling(List<ScoreTrendPoint> rolling) {this.rolling = rolling;}
+
+    public List<ScoreTrendPoint> getEwma() {return ewma;}
+    public void setEwma(List<ScoreTrendPoint> ewma) {this.ewma = ewma;}
+}
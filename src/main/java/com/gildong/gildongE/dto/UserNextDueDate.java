@@ -0,0 +1,27 @@
+package com.gildong.gildongE.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 사용자별 가장 가까운 교체 예정일 (자정 스케줄러 집계 결과)
+ */
+public class UserNextDueDate {
+    private String userId;
+    private LocalDate nextDueDate;
+
+    public UserNextDueDate() {}
+
+    public String getUserId() {
+        return userId;
+    }
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getNextDueDate() {
+        return nextDueDate;
+    }
+    public void setNextDueDate(LocalDate nextDueDate) {
+        this.nextDueDate = nextDueDate;
+    }
+}
@@ -0,0 +1,39 @@
+package com.gildong.gildongE.dto;
+
+/**
+ * 사용자 순위. 기록이 gildong.leaderboard.min-count 건 미만이면 ranked=false이고 순위 값은 비어 있다.
+ *  - topPercent: 상위 몇 %인지 (rank / total × 100)
+ *  - percentile: 나보다 점수가 낮은 사용자 비율 (%)
+ */
+public class UserRankResponse {
+    private String userId;
+    private boolean ranked;
+    private Float avgDrivingScore;
+    private Long rank;
+    private long total;
+    private Double topPercent;
+    private Double percentile;
+
+    public UserRankResponse() {}
+
+    public String getUserId() {return userId;}
+    public void setUserId(String userId) {this.userId = userId;}
+
+    public boolean isRanked() {return ranked;}
+    public void setRanked(boolean ranked) {this.ranked = ranked;}
+
+    public Float getAvgDrivingScore() {return avgDrivingScore;}
+    public void setAvgDrivingScore(Float avgDrivingScore) {this.avgDrivingScore = avgDrivingScore;}
+
+    public Long getRank() {return rank;}
+    public void setRank(Long rank) {this.rank = rank;}
+
+    public long getTotal() {return total;}
+    public void setTotal(long total) {this.total = total;}
+
+    public Double getTopPercent() {return topPercent;}
+    public void setTopPercent(Double topPercent) {this.topPercent = topPercent;}
+
+    public Double getPercentile() {return percentile;}
+    public void setPercentile(Double percentile) {this.percentile = percentile;}
+}
@@ -12,6 +12,7 @@ public class UserResponse {
     private LocalDateTime createdAt;
 
     private AuthProvider provider;
+    private Integer reminderHour;
 
     public UserResponse() {}
 
@@ -34,4 +35,7 @@ public class UserResponse {
     public AuthProvider getProvider() { return provider; }
     public void setProvider(AuthProvider provider) { this.provider = provider; }
 
+    public Integer getReminderHour() { return reminderHour; }
+    public void setReminderHour(Integer reminderHour) { this.reminderHour = reminderHour; }
+
 }
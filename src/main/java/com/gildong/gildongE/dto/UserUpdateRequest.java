@@ -3,6 +3,7 @@ package com.gildong.gildongE.dto;
 public class UserUpdateRequest {
     private String userName;
     private String password;
+    private Integer reminderHour;
 
     public UserUpdateRequest() {}
 
@@ -14,4 +15,6 @@ public class UserUpdateRequest {
     }
     public String getPassword() {return password;}
     public void setPassword(String password) {this.password = password;}
+    public Integer getReminderHour() {return reminderHour;}
+    public void setReminderHour(Integer reminderHour) {this.reminderHour = reminderHour;}
 }
@@ -0,0 +1,47 @@
+package com.gildong.gildongE.dto;
+
+/**
+ * 사용자별 지난주 평균 운전 점수와 전주 평균 (주간 리포트 집계 결과)
+ */
+public class UserWeeklyScore {
+    private String userId;
+    private double average;
+    private int count;
+    private Double previousAverage;
+
+    public UserWeeklyScore() {}
+
+    public String getUserId() {
+        return userId;
+    }
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+    public void setAverage(double average) {
+        this.average = average;
+    }
+
+    public int getCount() {
+        return count;
+    }
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /** 전주 기록이 없으면 null */
+    public Double getPreviousAverage() {
+        return previousAverage;
+    }
+    public void setPreviousAverage(Double previousAverage) {
+        this.previousAverage = previousAverage;
+    }
+
+    /** 전주 대비 변화량 (전주 기록이 없으면 null) */
+    public Double getDelta() {
+        return previousAverage == null ? null : average - previousAverage;
+    }
+}
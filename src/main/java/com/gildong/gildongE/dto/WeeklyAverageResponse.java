@@ -5,6 +5,9 @@ import java.time.LocalDate;
 public class WeeklyAverageResponse {
     private LocalDate weekStart;
     private double averageScore;
+    private long count;
+    private float minScore;
+    private float maxScore;
 
     public WeeklyAverageResponse() {}
 
@@ -26,4 +29,25 @@ public class WeeklyAverageResponse {
     public void setAverageScore(double averageScore) {
         this.averageScore = averageScore;
     }
+
+    public long getCount() {
+        return count;
+    }
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public float getMinScore() {
+        return minScore;
+    }
+    public void setMinScore(float minScore) {
+        this.minScore = minScore;
+    }
+
+    public float getMaxScore() {
+        return maxScore;
+    }
+    public void setMaxScore(float maxScore) {
+        this.maxScore = maxScore;
+    }
 }
@@ -0,0 +1,26 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * 모든 노드에 알림을 전달하기 위한 방송 문서 (id = 알림 ID).
+ * 알림을 만든 노드가 넣고, 각 노드는 Change Stream으로 받아 자기에게 연결된 SSE emitter로 보낸다.
+ * 알림 기록은 notifications에 따로 저장되므로 1시간 후 TTL로 삭제.
+ */
+@Data
+@Document(collection = "alert_broadcasts")
+public class AlertBroadcast {
+    @Id
+    private String id;
+    private String userId;
+    private String type;
+    private String title;
+    private String message;
+    @Indexed(expireAfter = "1h")
+    private Instant createdAt;
+}
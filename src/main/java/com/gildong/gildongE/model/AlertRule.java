@@ -0,0 +1,38 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change Stream 이벤트에 적용되는 선언형 알림 규칙.
+ *
+ *  - collection, operations: 어떤 컬렉션의 어떤 이벤트(insert, update...)에 적용할지
+ *  - triggerFields: 이 필드들 중 하나가 변경되었을 때만 평가 (비어 있으면 모든 이벤트)
+ *                   변경된 필드마다 알림이 하나씩 만들어진다.
+ *  - condition: 조건 트리 (없으면 항상 참)
+ *  - messageTemplate: {필드명}, {필드명|md}, {필드명|float}, {$field}, {$value|md} 치환
+ */
+@Data
+@Document(collection = "alert_rules")
+public class AlertRule {
+    @Id
+    private String id;
+    private boolean enabled = true;
+    private String collection;
+    private List<String> operations;
+    private List<String> triggerFields;
+    private AlertRuleCondition condition;
+
+    // 생성할 알림
+    private String type;
+    private String title;
+    private String messageTemplate;
+    private String userIdField = "userId";
+
+    // triggerFields → 사용자에게 보여줄 이름 (예: engineOilChangedDate → 엔진 오일)
+    private Map<String, String> fieldLabels;
+}
@@ -0,0 +1,22 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 알림 규칙의 조건 트리 노드.
+ *
+ *  - 논리 연산: and, or, not  → conditions 사용
+ *  - 비교 연산: eq, ne, lt, lte, gt, gte, exists → field, value 사용
+ *
+ * field에는 문서 필드 경로(예: drivingScore, car.model) 외에
+ * $field(변경된 필드 이름), $value(변경된 필드 값)를 쓸 수 있다.
+ */
+@Data
+public class AlertRuleCondition {
+    private String op;
+    private String field;
+    private Object value;
+    private List<AlertRuleCondition> conditions;
+}
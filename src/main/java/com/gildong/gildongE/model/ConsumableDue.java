@@ -0,0 +1,38 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * consumables의 교체 예정일 투영(projection). 차량(Consumable) × 소모품 종류당 한 건.
+ * 예정일을 날짜 타입으로 저장하고 색인하여 기간 조회를 색인 범위 스캔으로 처리한다.
+ * Consumable이 저장될 때 ConsumableDueService가 갱신한다.
+ * userBucket으로 스케줄러 작업을 여러 노드가 버킷 범위별로 나눠 처리한다.
+ */
+@Data
+@Document(collection = "consumable_due")
+@CompoundIndexes({
+        @CompoundIndex(name = "dueDate_userId", def = "{'dueDate': 1, 'userId': 1}"),
+        @CompoundIndex(name = "userId_dueDate", def = "{'userId': 1, 'dueDate': 1}"),
+        @CompoundIndex(name = "userBucket_dueDate", def = "{'userBucket': 1, 'dueDate': 1}")
+})
+public class ConsumableDue {
+    @Id
+    private String id;              // consumableId:part
+    @Indexed
+    private String consumableId;
+    private String userId;
+    private int userBucket;         // userId 해시 버킷 (작업을 범위로 나눌 때 사용)
+    private String carModel;
+    private String carNumber;
+    private ConsumablePart part;
+    private LocalDate dueDate;
+    private LocalDateTime updatedAt;
+}
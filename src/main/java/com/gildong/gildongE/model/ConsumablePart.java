@@ -0,0 +1,39 @@
+package com.gildong.gildongE.model;
+
+import java.util.function.Function;
+
+/**
+ * 교체 예정일을 관리하는 차량 소모품 종류
+ */
+public enum ConsumablePart {
+    ENGINE_OIL("엔진 오일", "engineOilDate", Consumable::getEngineOilDate),
+    BATTERY("배터리", "batteryDate", Consumable::getBatteryDate),
+    COOLANT("부동액", "coolantDate", Consumable::getCoolantDate),
+    TRANSMISSION_OIL("변속기 오일", "transmissionOilDate", Consumable::getTransmissionOilDate),
+    BRAKE_OIL("브레이크 오일", "brakeOilDate", Consumable::getBrakeOilDate),
+    AIRCON_FILTER("에어컨 필터", "airconFilterDate", Consumable::getAirconFilterDate);
+
+    private final String label;
+    private final String dueDateField;
+    private final Function<Consumable, String> dueDateGetter;
+
+    ConsumablePart(String label, String dueDateField, Function<Consumable, String> dueDateGetter) {
+        this.label = label;
+        this.dueDateField = dueDateField;
+        this.dueDateGetter = dueDateGetter;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /** consumables 문서에서 예정일이 저장된 필드 이름 (예: engineOilDate) */
+    public String getDueDateField() {
+        return dueDateField;
+    }
+
+    /** 해당 소모품의 교체 예정일 (YYYYMMDD 문자열, 없으면 null) */
+    public String dueDateOf(Consumable consumable) {
+        return dueDateGetter.apply(consumable);
+    }
+}
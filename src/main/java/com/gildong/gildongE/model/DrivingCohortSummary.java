@@ -0,0 +1,28 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 차량 묶음(모델/제조사/연료)별 운전 점수 요약. DrivingCohortService가 주기적으로 다시 만든다.
+ * 사용자 히스토그램(driving_score_histogram)을 합친 값이라 백분위는 hist에서 구한다.
+ */
+@Data
+@Document(collection = "driving_cohort_summary")
+public class DrivingCohortSummary {
+    @Id
+    private String id;              // dimension:value
+    private String dimension;       // model | manufacturer | fuelType
+    private String value;
+    private long users;             // 묶음에 속한 (기록이 있는) 사용자 수
+    private long count;
+    private double sum;
+    private float min;
+    private float max;
+    private Map<String, Long> hist; // 점수 칸(0~100) → 건수 (ScoreHistogram)
+    private LocalDateTime refreshedAt;
+}
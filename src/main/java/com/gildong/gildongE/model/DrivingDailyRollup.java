@@ -0,0 +1,29 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 사용자 × 일별 운전 점수 집계. 보존 기간(gildong.retention.raw-days)이 지난 원본 기록을 압축한 결과다.
+ * (DrivingPatternRetentionJob이 만들고, daily-days가 지나면 지운다 → 그 뒤로는 주간 집계만 남는다)
+ */
+@Data
+@Document(collection = "driving_daily_rollup")
+@CompoundIndex(name = "userId_day", def = "{'userId': 1, 'day': 1}", unique = true)
+public class DrivingDailyRollup {
+    @Id
+    private String id;              // userId:day
+    private String userId;
+    private LocalDate day;          // gildong.analytics.zone 기준 날짜
+    private double sum;
+    private long count;
+    private float min;
+    private float max;
+    private String lastRun;         // 마지막으로 더한 보존 작업 실행 (중단 후 재시도에서 두 번 더하지 않게)
+    private LocalDateTime updatedAt;
+}
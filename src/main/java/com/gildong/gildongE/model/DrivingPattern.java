@@ -2,17 +2,23 @@ package com.gildong.gildongE.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.gildong.gildongE.model.AuthProvider;
 import java.time.LocalDateTime;
 
 @Data
-@Document(collection = "driving_pattern")
+// 저장 방식(일반/시계열)에 따라 컬렉션이 바뀐다: DrivingPatternStorage
+@Document(collection = "#{@drivingPatternStorage.collectionName}")
+// 사용자별 기간 조회/집계 + (recordedAt, _id) 커서 페이지 조회
+@CompoundIndex(name = "userId_recordedAt_id", def = "{'userId': 1, 'recordedAt': 1, '_id': 1}")
 public class DrivingPattern {
     @Id
     private String id;
     private String userId;
     private float drivingScore;
+    @Indexed  // 주간 리포트 집계의 기간 조회
     private LocalDateTime recordedAt;
 }
\ No newline at end of file
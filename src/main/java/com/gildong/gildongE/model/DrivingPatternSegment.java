@@ -0,0 +1,26 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 보관된 운전 기록 세그먼트 (사용자 × 월). 오래된 driving_pattern 기록을 열 단위로 압축해 한 문서에 담는다.
+ * data 형식은 PatternSegmentCodec 참고. 기록 조회/내보내기/기간 통계는 세그먼트와 원본 컬렉션을 합쳐 읽는다.
+ */
+@Data
+@Document(collection = "driving_pattern_archive")
+@CompoundIndex(name = "userId_from", def = "{'userId': 1, 'from': 1}")
+public class DrivingPatternSegment {
+    @Id
+    private String id;              // userId:yyyy-MM (recordedAt 기준 월)
+    private String userId;
+    private LocalDateTime from;     // 세그먼트 첫 기록 시각
+    private LocalDateTime to;       // 세그먼트 마지막 기록 시각
+    private int count;
+    private byte[] data;
+    private LocalDateTime updatedAt;
+}
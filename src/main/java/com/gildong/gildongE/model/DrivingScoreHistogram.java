@@ -0,0 +1,25 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 사용자 전체 기간 운전 점수 히스토그램 (ScoreHistogram 저장 형식). 기록할 때 $inc "hist.<칸>"으로 갱신된다.
+ * 전체 기간 백분위는 이 문서 하나만 읽는다. (기간을 정하면 주간 집계의 hist를 합친다)
+ */
+@Data
+@Document(collection = "driving_score_histogram")
+public class DrivingScoreHistogram {
+    @Id
+    private String id;              // userId
+    private Map<String, Long> hist; // 점수 칸(0~100) → 건수
+    private long count;
+    private double sum;
+    private float min;
+    private float max;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 사용자 × 주(월요일 시작)별 운전 점수 집계. driving_pattern이 기록될 때 $inc/$min/$max로 갱신된다.
+ * hist는 점수 분포(1점 간격 칸별 건수)로, 여러 주를 더해 기간 백분위를 구한다.
+ * 주간 평균 조회는 이 컬렉션의 색인 범위 조회만으로 끝난다.
+ */
+@Data
+@Document(collection = "driving_weekly_rollup")
+@CompoundIndex(name = "userId_weekStart", def = "{'userId': 1, 'weekStart': 1}", unique = true)
+public class DrivingWeeklyRollup {
+    @Id
+    private String id;              // userId:weekStart
+    private String userId;
+    private LocalDate weekStart;    // gildong.analytics.zone 기준 월요일
+    private double sum;
+    private long count;
+    private float min;
+    private float max;
+    private Map<String, Long> hist; // 점수 칸(0~100) → 건수 (ScoreHistogram)
+    private LocalDateTime updatedAt;
+}
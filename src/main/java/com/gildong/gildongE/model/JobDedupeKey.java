@@ -0,0 +1,21 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * 작업별 사용자 처리 표시 (id = userId:jobName:runDate).
+ * _id 유일성으로 같은 날 같은 작업이 같은 사용자를 두 번 처리하지 않게 한다. 30일 후 TTL로 삭제.
+ */
+@Data
+@Document(collection = "job_dedupe")
+public class JobDedupeKey {
+    @Id
+    private String id;
+    @Indexed(expireAfter = "30d")
+    private Date createdAt;
+}
@@ -0,0 +1,42 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * 작업 실행 하나를 userId 해시 버킷 범위로 나눈 조각 (id = jobName:runDate:rangeIndex).
+ * 노드는 리스(leaseExpiresAt)를 잡고 범위를 처리하며, 리스가 끝난 범위는 다른 노드가 가져간다.
+ * leaseToken은 잡을 때마다 1씩 증가하여, 빼앗긴 노드의 늦은 갱신을 막는다.
+ */
+@Data
+@Document(collection = "job_ranges")
+@CompoundIndex(name = "job_runDate_range", def = "{'jobName': 1, 'runDate': 1, 'rangeIndex': 1}")
+public class JobRange {
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";    // gildong.jobs.max-attempts번 잡고도 끝나지 않음
+
+    @Id
+    private String id;
+    private String jobName;
+    private LocalDate runDate;
+    private int rangeIndex;
+    private int bucketFrom;         // 포함
+    private int bucketTo;           // 제외
+    private String status;
+    private String checkpoint;      // 범위 안에서 빠짐없이 처리가 끝난 마지막 userId
+    private long processed;
+    private int attempts;
+    private String owner;
+    private long leaseToken;
+    private Date leaseExpiresAt;
+    private Date startedAt;
+    private Date updatedAt;
+    private Date completedAt;
+}
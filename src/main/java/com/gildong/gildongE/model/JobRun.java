@@ -0,0 +1,31 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * 스케줄러 작업 실행 기록. 작업 × 실행 날짜당 한 건 (id = jobName:runDate).
+ * 실제 처리와 checkpoint는 범위(JobRange) 단위이며, 모든 범위가 끝나면 COMPLETED가 된다.
+ */
+@Data
+@Document(collection = "job_runs")
+public class JobRun {
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";    // 범위 중 하나 이상이 FAILED
+
+    @Id
+    private String id;
+    private String jobName;
+    private LocalDate runDate;
+    private String status;
+    private int rangeCount;
+    private long processed;
+    private Date startedAt;
+    private Date updatedAt;
+    private Date completedAt;
+}
@@ -0,0 +1,23 @@
+package com.gildong.gildongE.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * 리더 선출용 리스(lease) 문서.
+ * id는 리스 이름이며, owner 노드가 expiresAt 이전까지 주기적으로 갱신한다.
+ * fencingToken은 리더가 바뀔 때마다 1씩 증가하므로 문서를 TTL로 지우지 않는다.
+ */
+@Data
+@Document(collection = "leader_leases")
+public class LeaderLease {
+    @Id
+    private String id;
+    private String owner;
+    private long fencingToken;
+    private Date expiresAt;
+    private Date renewedAt;
+}
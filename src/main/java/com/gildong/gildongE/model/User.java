@@ -90,4 +90,47 @@ public class User {
         this.email = email;
     }
 
+    // 교체 예정 알림을 받을 시각 (0~23시, 없으면 기본값 사용)
+    private Integer reminderHour;
+
+    public Integer getReminderHour() {
+        return reminderHour;
+    }
+
+    public void setReminderHour(Integer reminderHour) {
+        this.reminderHour = reminderHour;
+    }
+
+    // 운전 점수 누적 합계/건수 (기록마다 $inc로 갱신, avgDrivingScore = scoreSum / scoreCount)
+    // 도입 전 사용자는 null이며, 백필 또는 첫 기록 시 전체 이력으로 채운다
+    private Double scoreSum;
+    private Long scoreCount;
+
+    public Double getScoreSum() {
+        return scoreSum;
+    }
+
+    public void setScoreSum(Double scoreSum) {
+        this.scoreSum = scoreSum;
+    }
+
+    public Long getScoreCount() {
+        return scoreCount;
+    }
+
+    public void setScoreCount(Long scoreCount) {
+        this.scoreCount = scoreCount;
+    }
+
+    // 첫 기록 시 전체 이력으로 채운 경우, 그 집계에 포함된 마지막 driving_pattern _id (이하 기록은 다시 더하지 않는다)
+    private String scoreTotalsThrough;
+
+    public String getScoreTotalsThrough() {
+        return scoreTotalsThrough;
+    }
+
+    public void setScoreTotalsThrough(String scoreTotalsThrough) {
+        this.scoreTotalsThrough = scoreTotalsThrough;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.gildong.gildongE.repository;
+
+import com.gildong.gildongE.model.AlertRule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface AlertRuleRepository extends MongoRepository<AlertRule, String> {
+    List<AlertRule> findByEnabledTrue();
+}
@@ -0,0 +1,18 @@
+package com.gildong.gildongE.repository;
+
+import com.gildong.gildongE.model.ConsumableDue;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ConsumableDueRepository extends MongoRepository<ConsumableDue, String> {
+    // 사용자별 예정일 기간 조회 (양 끝 포함)
+    @Query("{ 'userId': ?0, 'dueDate': { $gte: ?1, $lte: ?2 } }")
+    List<ConsumableDue> findDueBetweenForUser(String userId, LocalDate from, LocalDate to, Pageable pageable);
+
+    // 특정 날짜가 예정일인 항목 (알림 타이밍 휠 적재용)
+    List<ConsumableDue> findByDueDate(LocalDate dueDate);
+}
@@ -1,12 +1,18 @@
 package com.gildong.gildongE.repository;
 
 import com.gildong.gildongE.model.DrivingPattern;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface DrivingPatternRepository extends MongoRepository<DrivingPattern, String> {
     List<DrivingPattern> findByUserId(String userId);
     // 기록일 기준 오름차순 조회
     List<DrivingPattern> findByUserIdOrderByRecordedAtAsc(String userId);
+    // 특정 시각 이전의 최근 기록 N개 (감지기 상태 복원용)
+    List<DrivingPattern> findByUserIdAndRecordedAtBeforeOrderByRecordedAtDesc(String userId,
+                                                                              LocalDateTime before,
+                                                                              Pageable pageable);
 }
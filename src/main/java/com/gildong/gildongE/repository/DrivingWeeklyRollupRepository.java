@@ -0,0 +1,10 @@
+package com.gildong.gildongE.repository;
+
+import com.gildong.gildongE.model.DrivingWeeklyRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface DrivingWeeklyRollupRepository extends MongoRepository<DrivingWeeklyRollup, String> {
+    List<DrivingWeeklyRollup> findByUserIdOrderByWeekStartAsc(String userId);
+}
@@ -0,0 +1,122 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.AlertDto;
+import com.gildong.gildongE.model.AlertBroadcast;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 노드에서 alert_broadcasts insert를 구독해, 이 노드에 연결된 사용자에게 알림을 전달한다.
+ * (알림은 리더 노드의 Change Stream 리스너나 작업을 맡은 노드에서 만들어지지만, 사용자의 SSE 연결은 아무 노드에나 있다)
+ *
+ * 알림 기록은 만든 노드가 이미 저장했으므로 여기서는 전송만 한다. 이 노드가 꺼져 있던 동안의 방송은
+ * 그 사이 이 노드에 연결된 사용자가 없으므로 이어 받지 않고 지금부터 구독한다.
+ */
+@Component
+public class AlertBroadcastListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertBroadcastListener.class);
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final long REOPEN_DELAY_MILLIS = 1000L;
+
+    private final AlertService alertService;
+    private final ChangeStreamMetrics metrics;
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean stopped;
+
+    public AlertBroadcastListener(AlertService alertService,
+                                  ChangeStreamMetrics metrics,
+                                  MongoTemplate mongoTemplate) {
+        this.alertService = alertService;
+        this.metrics = metrics;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Thread t = new Thread(this::watchBroadcasts, "alert-broadcasts");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+    }
+
+    private void watchBroadcasts() {
+        String collection = mongoTemplate.getCollectionName(AlertBroadcast.class);
+        BsonDocument resumeToken = null;
+
+        while (!stopped) {
+            ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collection)
+                    .watch(List.of(Aggregates.match(Filters.eq("operationType", "insert"))))
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            if (resumeToken != null) stream = stream.resumeAfter(resumeToken);
+
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                logger.info("Change stream opened: collection={}, resumed={}", collection, resumeToken != null);
+                metrics.register(collection);
+
+                while (!stopped) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (cursor.getResumeToken() != null) resumeToken = cursor.getResumeToken();
+                    if (change == null || change.getFullDocument() == null) continue;
+                    long start = System.nanoTime();
+                    try {
+                        alertService.deliver(toAlert(mongoTemplate.getConverter()
+                                .read(AlertBroadcast.class, change.getFullDocument())));
+                        metrics.recordEvent(collection, change, start);
+                    } catch (RuntimeException e) {
+                        metrics.recordError(collection, "handler");
+                        logger.error("Failed to deliver alert broadcast: {}", change.getDocumentKey(), e);
+                    }
+                }
+            } catch (MongoException e) {
+                metrics.recordError(collection, "stream");
+                if (e instanceof MongoCommandException
+                        && ((MongoCommandException) e).getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    logger.error("Change stream history lost, restarting from now: collection={}", collection, e);
+                    resumeToken = null;
+                } else {
+                    logger.warn("Change stream interrupted, reopening: collection={}", collection, e);
+                }
+                try {
+                    Thread.sleep(REOPEN_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static AlertDto toAlert(AlertBroadcast b) {
+        AlertDto alert = new AlertDto();
+        alert.setId(b.getId());
+        alert.setUserId(b.getUserId());
+        alert.setType(b.getType());
+        alert.setTitle(b.getTitle());
+        alert.setMessage(b.getMessage());
+        alert.setCreatedAt(b.getCreatedAt());
+        return alert;
+    }
+}
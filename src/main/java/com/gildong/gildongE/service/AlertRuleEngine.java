@@ -0,0 +1,211 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.AlertDto;
+import com.gildong.gildongE.model.AlertRule;
+import com.gildong.gildongE.model.AlertRuleCondition;
+import com.gildong.gildongE.repository.AlertRuleRepository;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Change Stream 이벤트를 선언형 알림 규칙(alert_rules)으로 평가한다.
+ *
+ *  - 규칙은 컴파일되어 (컬렉션, 이벤트 종류, 변경 필드) 기준으로 색인된다.
+ *    이벤트 하나는 변경된 필드에 걸린 후보 규칙만 평가한다.
+ *  - 규칙은 주기적으로 다시 읽어 색인을 통째로 교체하므로
+ *    리스너의 커서를 다시 열 필요가 없다.
+ *  - alert_rules 컬렉션이 비어 있으면 기본 규칙(기존 하드코딩 로직과 동일)을 넣는다.
+ */
+@Service
+public class AlertRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertRuleEngine.class);
+
+    private final AlertRuleRepository ruleRepo;
+
+    // 평가 중에는 잠금 없이 읽고, reload 시 새 색인으로 교체한다.
+    private volatile RuleIndex index;
+
+    public AlertRuleEngine(AlertRuleRepository ruleRepo) {
+        this.ruleRepo = ruleRepo;
+        this.index = RuleIndex.build(defaultRules());
+    }
+
+    /**
+     * 규칙을 다시 읽어 색인을 교체한다. (핫 리로드)
+     */
+    @Scheduled(fixedDelayString = "${gildong.alert-rules.reload-interval-ms:30000}")
+    public void reload() {
+        try {
+            if (ruleRepo.count() == 0) {
+                seedDefaultRules();
+            }
+            index = RuleIndex.build(ruleRepo.findByEnabledTrue());
+        } catch (DataAccessException e) {
+            logger.warn("Failed to reload alert rules, keeping previous rules: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 이벤트에 해당하는 알림 목록을 반환한다. (없으면 빈 리스트)
+     * @param collection 이벤트가 발생한 컬렉션 이름
+     */
+    public List<AlertDto> evaluate(String collection, ChangeStreamDocument<Document> change) {
+        Document fullDoc = change.getFullDocument();
+        OperationType opType = change.getOperationType();
+        if (fullDoc == null || opType == null) return Collections.emptyList();
+
+        String key = RuleIndex.key(collection, opType.getValue());
+        RuleIndex current = index;
+        List<AlertDto> alerts = null;
+
+        for (CompiledAlertRule rule : current.anyField.getOrDefault(key, Collections.emptyList())) {
+            AlertDto alert = rule.evaluate(fullDoc, null);
+            if (alert != null) {
+                if (alerts == null) alerts = new ArrayList<>();
+                alerts.add(alert);
+            }
+        }
+
+        Map<String, List<CompiledAlertRule>> byField = current.byField.get(key);
+        if (byField != null) {
+            for (String field : changedFields(opType, change, fullDoc)) {
+                List<CompiledAlertRule> candidates = byField.get(field);
+                if (candidates == null) continue;
+                for (CompiledAlertRule rule : candidates) {
+                    AlertDto alert = rule.evaluate(fullDoc, field);
+                    if (alert != null) {
+                        if (alerts == null) alerts = new ArrayList<>();
+                        alerts.add(alert);
+                    }
+                }
+            }
+        }
+        return alerts != null ? alerts : Collections.emptyList();
+    }
+
+    // update는 updatedFields, insert/replace는 문서 전체 필드를 "변경된 필드"로 본다.
+    private Set<String> changedFields(OperationType opType, ChangeStreamDocument<Document> change, Document fullDoc) {
+        if (opType == OperationType.UPDATE) {
+            UpdateDescription updDesc = change.getUpdateDescription();
+            if (updDesc == null || updDesc.getUpdatedFields() == null) return Collections.emptySet();
+            return updDesc.getUpdatedFields().keySet();
+        }
+        return fullDoc.keySet();
+    }
+
+    private void seedDefaultRules() {
+        for (AlertRule rule : defaultRules()) {
+            try {
+                ruleRepo.insert(rule);
+            } catch (DuplicateKeyException e) {
+                // 다른 노드가 먼저 넣은 경우
+            }
+        }
+        logger.info("Seeded default alert rules");
+    }
+
+    /**
+     * 기본 규칙: 낮은 운전 점수, 소모품 교체 완료
+     */
+    static List<AlertRule> defaultRules() {
+        AlertRuleCondition lowScore = new AlertRuleCondition();
+        lowScore.setOp("lte");
+        lowScore.setField("drivingScore");
+        lowScore.setValue(50.0);
+
+        AlertRule drivingScoreLow = new AlertRule();
+        drivingScoreLow.setId("driving-score-low");
+        drivingScoreLow.setCollection("driving_pattern");
+        drivingScoreLow.setOperations(List.of("insert"));
+        drivingScoreLow.setCondition(lowScore);
+        drivingScoreLow.setType("DRIVING_SCORE_LOW");
+        drivingScoreLow.setTitle("안전");
+        drivingScoreLow.setMessageTemplate(
+                "최근 운전 점수가 {drivingScore|float}점으로 낮게 나왔습니다. 부드러운 운전으로 점수를 올려볼까요?");
+
+        // (이전 값이 null 이었든 아니었든, “날짜가 바뀐” 시점이라고 간주)
+        AlertRuleCondition hasNewDate = new AlertRuleCondition();
+        hasNewDate.setOp("exists");
+        hasNewDate.setField("$value");
+
+        Map<String, String> labels = new LinkedHashMap<>();
+        labels.put("engineOilChangedDate", "엔진 오일");
+        labels.put("batteryChangedDate", "배터리");
+        labels.put("coolantChangedDate", "부동액");
+        labels.put("transmissionOilChangedDate", "변속기 오일");
+        labels.put("brakeOilChangedDate", "브레이크 오일");
+        labels.put("airconFilterChangedDate", "에어컨 필터");
+
+        AlertRule consumableReplaced = new AlertRule();
+        consumableReplaced.setId("consumable-replaced");
+        consumableReplaced.setCollection("consumables");
+        consumableReplaced.setOperations(List.of("update"));
+        consumableReplaced.setTriggerFields(new ArrayList<>(labels.keySet()));
+        consumableReplaced.setFieldLabels(labels);
+        consumableReplaced.setCondition(hasNewDate);
+        consumableReplaced.setType("CONSUMABLE_REPLACED");
+        consumableReplaced.setTitle("차량 소모품");
+        consumableReplaced.setMessageTemplate("[{carModel} / {carNumber}]\n{$field} 교체 완료: {$value|md}");
+
+        return List.of(drivingScoreLow, consumableReplaced);
+    }
+
+    /**
+     * 컴파일된 규칙의 색인. 한 번 만들면 변경하지 않는다.
+     */
+    private static final class RuleIndex {
+        // key(collection:operation) → triggerFields가 없는 규칙
+        final Map<String, List<CompiledAlertRule>> anyField = new HashMap<>();
+        // key(collection:operation) → 변경 필드 → 규칙
+        final Map<String, Map<String, List<CompiledAlertRule>>> byField = new HashMap<>();
+
+        static String key(String collection, String operation) {
+            return collection + ":" + operation;
+        }
+
+        static RuleIndex build(List<AlertRule> rules) {
+            RuleIndex idx = new RuleIndex();
+            for (AlertRule rule : rules) {
+                if (!rule.isEnabled() || rule.getCollection() == null || rule.getOperations() == null) continue;
+
+                CompiledAlertRule compiled;
+                try {
+                    compiled = CompiledAlertRule.compile(rule);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping invalid alert rule id={}: {}", rule.getId(), e.getMessage());
+                    continue;
+                }
+
+                for (String op : rule.getOperations()) {
+                    String key = key(rule.getCollection(), op);
+                    if (rule.getTriggerFields() == null || rule.getTriggerFields().isEmpty()) {
+                        idx.anyField.computeIfAbsent(key, k -> new ArrayList<>()).add(compiled);
+                    } else {
+                        Map<String, List<CompiledAlertRule>> fields = idx.byField.computeIfAbsent(key, k -> new HashMap<>());
+                        for (String field : rule.getTriggerFields()) {
+                            fields.computeIfAbsent(field, k -> new ArrayList<>()).add(compiled);
+                        }
+                    }
+                }
+            }
+            return idx;
+        }
+    }
+}
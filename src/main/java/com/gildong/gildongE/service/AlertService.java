@@ -3,12 +3,16 @@ package com.gildong.gildongE.service;
 import com.gildong.gildongE.dto.AlertDto;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
+
 /**
  * AlertService는 SSE(SERVER-SENT EVENTS) 기반으로
  * 특정 사용자(userId)에게 실시간 알림을 전송하기 위한 인터페이스입니다.
  *
  * - subscribe(userId): 클라이언트가 SSE 연결을 맺을 때 호출합니다.
  * - pushAlert(alert): 서버 로직(스케줄러, Change Stream 등)에서 알림이 발생하면 호출합니다.
+ * - pushAlerts(alerts): 대량 발송 시 알림 기록을 묶어서 저장합니다.
+ * - deliver(alert): 다른 노드에서 방송된 알림을 이 노드에 연결된 사용자에게 전송합니다.
  */
 public interface AlertService {
 
@@ -21,10 +25,23 @@ public interface AlertService {
 
     /**
      * 알림을 생성하고 특정 사용자에게 전송합니다.
+     * 알림 기록은 연결 여부와 관계없이 저장되고, 전송은 사용자가 연결된 노드에서 이루어집니다.
      * @param alert AlertDto 객체 (id, userId, type, title, message, createdAt 등 포함)
      */
     void pushAlert(AlertDto alert);
 
+    /**
+     * 여러 알림을 전송하고, 알림 기록은 한 번에 저장합니다. (주간 리포트 등 대량 발송용)
+     * @param alerts 보낼 알림들
+     */
+    void pushAlerts(List<AlertDto> alerts);
+
+    /**
+     * 이 노드에 연결된 emitter로만 알림을 전송합니다. (저장하지 않음, 연결이 없으면 무시)
+     * @param alert 방송으로 받은 알림
+     */
+    void deliver(AlertDto alert);
+
     /**
      * (선택) 운영 중 특정 사용자의 연결을 강제로 종료할 때 호출할 수 있습니다.
      * 예: 로그아웃 시, 또는 타임아웃 후 수동으로 제거할 때 등
@@ -2,13 +2,16 @@ package com.gildong.gildongE.service;
 
 import com.gildong.gildongE.dto.AlertDto;
 import com.gildong.gildongE.dto.NotificationRequest;
+import com.gildong.gildongE.model.AlertBroadcast;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
@@ -18,8 +21,11 @@ import java.util.concurrent.*;
  * 내부적으로 ConcurrentHashMap을 사용해 사용자별(Single or Multiple) SseEmitter를 관리합니다.
  *
  *  - subscribe(userId): 새로운 SseEmitter를 생성한 뒤 userId 키로 맵에 저장
- *  - pushAlert(alert): userId에 매핑된 emitter 리스트를 찾아 event를 전송
+ *  - pushAlert(alert): 알림 기록을 저장하고 alert_broadcasts에 넣어 모든 노드에 알린다
+ *  - deliver(alert): (AlertBroadcastListener가 호출) 이 노드에 연결된 emitter로 event를 전송
  *  - unsubscribe(userId): 해당 userId의 모든 emitter를 제거(선택)
+ *
+ * 사용자의 SSE 연결은 어느 노드에 있을지 모르므로, 알림을 만든 노드가 직접 보내지 않고 방송을 거친다.
  */
 @Service
 public class AlertServiceImpl implements AlertService {
@@ -35,9 +41,11 @@ public class AlertServiceImpl implements AlertService {
      */
     private final Map<String, CopyOnWriteArrayList<SseEmitter>> emitters = new ConcurrentHashMap<>();
     private final NotificationService notificationService;
+    private final MongoTemplate mongoTemplate;
 
-    public AlertServiceImpl(NotificationService notificationService) {
+    public AlertServiceImpl(NotificationService notificationService, MongoTemplate mongoTemplate) {
         this.notificationService = notificationService;
+        this.mongoTemplate = mongoTemplate;
     }
 
     /**
@@ -94,9 +102,8 @@ public class AlertServiceImpl implements AlertService {
 
     /**
      * 특정 사용자(userId)에게 알림을 보낸다.
-     * 1) emitters 맵에서 userId 키로 등록된 모든 SseEmitter를 꺼낸다.
-     * 2) 각 emitter로 event 전송을 시도한다.
-     * 3) 전송 중 IOException 발생 시 해당 emitter를 맵에서 제거한다.
+     * 1) 연결 여부와 관계없이 알림 기록(notifications)을 저장한다. (없는 사용자는 건너뛴다)
+     * 2) alert_broadcasts에 넣으면 각 노드가 받아 자기에게 연결된 emitter로 보낸다. (deliver)
      *
      * @param alert AlertDto 객체 (id, userId, type, title, message, createdAt 등)
      */
@@ -104,6 +111,38 @@ public class AlertServiceImpl implements AlertService {
     public void pushAlert(AlertDto alert) {
         logger.info("AlertService: 알림 전송 시도 -> {}", alert);
 
+        // DB 저장 호출
+        notificationService.createAll(List.of(toNotificationRequest(alert)));
+        mongoTemplate.insert(toBroadcast(alert));
+    }
+
+    /**
+     * 여러 알림을 보낸다. 알림 기록 저장은 notificationService.createAll 한 번, 방송은 insert 한 번으로 묶는다.
+     *
+     * @param alerts 보낼 알림들
+     */
+    @Override
+    public void pushAlerts(List<AlertDto> alerts) {
+        if (alerts.isEmpty()) return;
+        List<NotificationRequest> reqs = new ArrayList<>(alerts.size());
+        List<AlertBroadcast> broadcasts = new ArrayList<>(alerts.size());
+        for (AlertDto alert : alerts) {
+            reqs.add(toNotificationRequest(alert));
+            broadcasts.add(toBroadcast(alert));
+        }
+        int saved = notificationService.createAll(reqs);
+        mongoTemplate.insert(broadcasts, AlertBroadcast.class);
+        logger.info("AlertService: {}건 방송, {}건 저장", alerts.size(), saved);
+    }
+
+    /**
+     * 이 노드에 연결된 userId의 모든 emitter로 전송한다. 연결이 없으면 건너뛴다.
+     * 1) emitters 맵에서 userId 키로 등록된 모든 SseEmitter를 꺼낸다.
+     * 2) 각 emitter로 event 전송을 시도한다.
+     * 3) 전송 중 IOException 발생 시 해당 emitter를 맵에서 제거한다.
+     */
+    @Override
+    public void deliver(AlertDto alert) {
         String userId = alert.getUserId();
         List<SseEmitter> userEmitters = emitters.get(userId);
 
@@ -131,13 +170,25 @@ public class AlertServiceImpl implements AlertService {
         // 서버 로그에도 남겨둔다.
         logger.info("[ALERT][PUSHED] userId={} type={} title={} message={}",
                 userId, alert.getType(), alert.getTitle(), alert.getMessage());
+    }
 
-        // DB 저장 호출
+    private static AlertBroadcast toBroadcast(AlertDto alert) {
+        AlertBroadcast b = new AlertBroadcast();
+        b.setId(alert.getId());
+        b.setUserId(alert.getUserId());
+        b.setType(alert.getType());
+        b.setTitle(alert.getTitle());
+        b.setMessage(alert.getMessage());
+        b.setCreatedAt(alert.getCreatedAt() != null ? alert.getCreatedAt() : Instant.now());
+        return b;
+    }
+
+    private NotificationRequest toNotificationRequest(AlertDto alert) {
         NotificationRequest req = new NotificationRequest();
         req.setUserId(alert.getUserId());
         req.setTitle(categoryFromType(alert.getType()));
         req.setMessage(alert.getMessage());
-        notificationService.create(req);
+        return req;
     }
 
     /**
@@ -175,7 +226,7 @@ public class AlertServiceImpl implements AlertService {
     // 알림 type 기반으로 카테고리 문자열 반환
     private String categoryFromType(String type) {
         return switch (type) {
-            case "DRIVING_SCORE_LOW", "DRIVING_SCORE_WEEKLY_AVG" -> "안전";
+            case "DRIVING_SCORE_LOW", "DRIVING_SCORE_TREND", "DRIVING_SCORE_WEEKLY_AVG" -> "안전";
             case "CONSUMABLE_REPLACED" -> "차량 소모품";
             case "CONSUMABLE_DUE_SOON" -> "차량 점검";
             default -> "기타";
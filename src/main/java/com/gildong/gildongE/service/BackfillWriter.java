@@ -0,0 +1,63 @@
+package com.gildong.gildongE.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 백필 작업의 묶음 upsert. batchSize마다 UNORDERED bulk로 보낸다.
+ *
+ * 조건("migrations"에 작업 이름이 없는 문서)이 맞지 않는 upsert는 삽입을 시도하다 중복 키로 끝난다.
+ * 이미 반영한 문서이거나, 그 사이 기록 쪽 $inc가 문서를 먼저 만든 경우다. 후자를 놓치지 않도록
+ * 중복 키로 끝난 항목은 한 번 더 개별로 시도한다 (이제 문서가 있으므로 합쳐지고, 이미 반영했으면 다시 중복 키로 끝난다).
+ */
+final class BackfillWriter {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<?> entityClass;
+    private final int batchSize;
+    private final List<Pair<Query, Update>> pending = new ArrayList<>();
+
+    BackfillWriter(MongoTemplate mongoTemplate, Class<?> entityClass, int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityClass = entityClass;
+        this.batchSize = batchSize;
+    }
+
+    void upsert(Query query, Update update) {
+        pending.add(Pair.of(query, update));
+        if (pending.size() >= batchSize) flush();
+    }
+
+    void flush() {
+        if (pending.isEmpty()) return;
+        List<Pair<Query, Update>> batch = new ArrayList<>(pending);
+        pending.clear();
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+        batch.forEach(op -> bulk.upsert(op.getFirst(), op.getSecond()));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) throw e;
+            for (BulkWriteError error : e.getErrors()) {
+                Pair<Query, Update> op = batch.get(error.getIndex());
+                try {
+                    mongoTemplate.upsert(op.getFirst(), op.getSecond(), entityClass);
+                } catch (DuplicateKeyException ignored) {
+                    // 이미 반영한 문서
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.gildong.gildongE.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDateTime;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change Stream 리스너 계측.
+ *
+ *  - gildong.changestream.events        : 컬렉션/이벤트 종류별 처리 건수 (rate)
+ *  - gildong.changestream.lag           : 이벤트 발생 시각(wallTime, 없으면 clusterTime) → 처리 완료까지 지연
+ *  - gildong.changestream.handler       : 핸들러 실행 시간 히스토그램
+ *  - gildong.changestream.idle          : 마지막 이벤트 이후 경과 시간(초)
+ *  - gildong.changestream.errors        : 컬렉션/종류별 오류 건수 (handler: 이벤트 처리 실패, stream: 커서 끊김)
+ *
+ * 이벤트마다 Meter를 새로 조회하지 않도록 컬렉션/이벤트 종류별로 캐시한다.
+ */
+@Component
+public class ChangeStreamMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter> eventCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, CollectionMeters> collectionMeters = new ConcurrentHashMap<>();
+
+    public ChangeStreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 이벤트 하나의 처리가 끝났을 때 호출한다.
+     * @param handlerStartNanos 핸들러 시작 시점의 System.nanoTime()
+     */
+    public void recordEvent(String collection, ChangeStreamDocument<Document> change, long handlerStartNanos) {
+        long nowMillis = System.currentTimeMillis();
+        CollectionMeters meters = metersFor(collection);
+
+        meters.handlerTimer.record(System.nanoTime() - handlerStartNanos, TimeUnit.NANOSECONDS);
+        meters.lastEventMillis.set(nowMillis);
+
+        String operation = change.getOperationType() != null ? change.getOperationType().getValue() : "unknown";
+        eventCounters.computeIfAbsent(collection + ":" + operation, key -> Counter.builder("gildong.changestream.events")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .register(registry)).increment();
+
+        long eventMillis = eventTimeMillis(change);
+        if (eventMillis > 0) {
+            meters.lagTimer.record(Math.max(0, nowMillis - eventMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 이벤트 처리나 커서에서 난 오류를 센다.
+     * @param kind "handler"(이벤트 하나 처리 실패, 다음 이벤트로 넘어감) 또는 "stream"(커서를 다시 엶)
+     */
+    public void recordError(String collection, String kind) {
+        errorCounters.computeIfAbsent(collection + ":" + kind, key -> Counter.builder("gildong.changestream.errors")
+                .tag("collection", collection)
+                .tag("kind", kind)
+                .register(registry)).increment();
+    }
+
+    /**
+     * 리스너가 커서를 연 직후 호출해 idle 게이지를 미리 노출한다.
+     */
+    public void register(String collection) {
+        metersFor(collection);
+    }
+
+    private CollectionMeters metersFor(String collection) {
+        return collectionMeters.computeIfAbsent(collection, c -> new CollectionMeters(registry, c));
+    }
+
+    // wallTime(ms 정밀도, MongoDB 6.0+)이 있으면 사용하고, 없으면 clusterTime(초 단위)을 사용한다.
+    private static long eventTimeMillis(ChangeStreamDocument<Document> change) {
+        BsonDateTime wallTime = change.getWallTime();
+        if (wallTime != null) return wallTime.getValue();
+        BsonTimestamp clusterTime = change.getClusterTime();
+        if (clusterTime != null) return clusterTime.getTime() * 1000L;
+        return -1L;
+    }
+
+    private static final class CollectionMeters {
+        final Timer handlerTimer;
+        final Timer lagTimer;
+        final AtomicLong lastEventMillis = new AtomicLong(System.currentTimeMillis());
+
+        CollectionMeters(MeterRegistry registry, String collection) {
+            this.handlerTimer = Timer.builder("gildong.changestream.handler")
+                    .tag("collection", collection)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.lagTimer = Timer.builder("gildong.changestream.lag")
+                    .tag("collection", collection)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            Gauge.builder("gildong.changestream.idle", lastEventMillis,
+                            last -> (System.currentTimeMillis() - last.get()) / 1000.0)
+                    .tag("collection", collection)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.gildong.gildongE.service;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * 리더만 구독하는 Change Stream의 마지막 resume token 저장소 (change_stream_tokens, _id = 스트림 이름).
+ *
+ * 새 리더는 이전 리더가 저장한 token부터 다시 열어, 리더가 바뀌는 동안(리스 만료 + 갱신 주기) 생긴 이벤트를 놓치지 않는다.
+ * 저장은 SAVE_INTERVAL_MILLIS마다 한 번이라 리더가 갑자기 멈추면 그 사이 이벤트는 새 리더가 한 번 더 처리할 수 있다.
+ * 토큰과 함께 fencingToken을 저장하고, 더 큰 fencingToken으로 저장된 token은 덮어쓰지 않는다 (늦게 깨어난 이전 리더가 되돌리지 않도록).
+ */
+@Component
+public class ChangeStreamTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamTokenStore.class);
+    static final String COLLECTION = "change_stream_tokens";
+    static final long SAVE_INTERVAL_MILLIS = 1000L;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ChangeStreamTokenStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** 저장된 token (없거나 읽지 못하면 null → 지금부터) */
+    public BsonDocument load(String stream) {
+        try {
+            Document doc = mongoTemplate.findById(stream, Document.class, COLLECTION);
+            Object token = doc != null ? doc.get("token") : null;
+            return token instanceof Document ? BsonDocument.parse(((Document) token).toJson()) : null;
+        } catch (DataAccessException e) {
+            logger.warn("Failed to load resume token: stream={}, {}", stream, e.getMessage());
+            return null;
+        }
+    }
+
+    /** token 저장. 더 큰 fencingToken으로 이미 저장되어 있으면 아무것도 하지 않는다 */
+    public void save(String stream, BsonDocument token, long fencingToken) {
+        Query query = new Query(Criteria.where("_id").is(stream).and("fencingToken").lte(fencingToken));
+        Update update = new Update()
+                .set("token", Document.parse(token.toJson()))
+                .set("fencingToken", fencingToken)
+                .set("savedAt", new Date());
+        try {
+            mongoTemplate.upsert(query, update, COLLECTION);
+        } catch (DuplicateKeyException e) {
+            // 새 리더가 이미 더 큰 fencingToken으로 저장했다 (upsert가 같은 _id로 충돌)
+        } catch (DataAccessException e) {
+            logger.warn("Failed to save resume token: stream={}, {}", stream, e.getMessage());
+        }
+    }
+
+    /** token이 oplog에서 밀려나 쓸 수 없을 때 지운다 (다음 리더도 지금부터 연다) */
+    public void clear(String stream, long fencingToken) {
+        try {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(stream).and("fencingToken").lte(fencingToken)),
+                    COLLECTION);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to clear resume token: stream={}, {}", stream, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.gildong.gildongE.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 스케줄러 작업용 청크 병렬 실행기.
+ *
+ *  - 커서(Iterator)에서 chunk-size 개씩 읽어 작업 스레드(parallelism 개)에 넘긴다
+ *  - 동시에 대기/처리 중인 청크 수를 parallelism * 2 로 제한 → 전체 건수와 무관하게 메모리 일정
+ *  - 청크별 처리 시간은 gildong.job.chunk 타이머와 debug 로그로, 실행 요약은 info 로그로 남긴다
+ *  - 청크는 순서와 무관하게 끝나므로, 앞에서부터 빠짐없이 끝난 구간이 늘어날 때만 onCommitted를 호출한다
+ *    (실패한 청크가 있으면 그 뒤로는 호출하지 않는다 → 이어하기는 실패한 청크부터)
+ */
+@Component
+public class ChunkedJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedJobRunner.class);
+
+    private final MeterRegistry registry;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public ChunkedJobRunner(MeterRegistry registry,
+                            @Value("${gildong.jobs.parallelism:4}") int parallelism,
+                            @Value("${gildong.jobs.chunk-size:500}") int chunkSize) {
+        this.registry = registry;
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * source를 끝까지(또는 keepGoing이 false가 될 때까지) 청크 단위로 처리한다.
+     * @param handler   청크 하나를 처리하고 성공 건수를 반환
+     * @param keepGoing 청크를 넘기기 전마다 확인 (예: 리더 유지 여부)
+     */
+    public <T> JobSummary run(String jobName, Iterator<T> source,
+                              ToIntFunction<List<T>> handler, BooleanSupplier keepGoing) {
+        return run(jobName, source, handler, keepGoing, (last, processed) -> { });
+    }
+
+    /**
+     * @param onCommitted 앞에서부터 연속으로 끝난 청크 구간의 마지막 항목과, 그 구간에서 새로 처리된 건수
+     */
+    public <T> JobSummary run(String jobName, Iterator<T> source,
+                              ToIntFunction<List<T>> handler, BooleanSupplier keepGoing,
+                              BiConsumer<T, Integer> onCommitted) {
+        Timer chunkTimer = Timer.builder("gildong.job.chunk")
+                .tag("job", jobName)
+                .register(registry);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, jobName + "-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        CommitTracker<T> commits = new CommitTracker<>(onCommitted);
+
+        long startedAt = System.currentTimeMillis();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+        AtomicLong maxChunkMillis = new AtomicLong();
+        int chunks = 0;
+        long items = 0;
+        boolean aborted = false;
+
+        try {
+            while (source.hasNext()) {
+                if (!keepGoing.getAsBoolean()) {
+                    aborted = true;
+                    break;
+                }
+                List<T> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && source.hasNext()) {
+                    chunk.add(source.next());
+                }
+                int chunkNo = ++chunks;
+                items += chunk.size();
+
+                inFlight.acquireUninterruptibly();
+                workers.execute(() -> {
+                    long chunkStart = System.nanoTime();
+                    try {
+                        int done = handler.applyAsInt(chunk);
+                        processed.addAndGet(done);
+                        commits.completed(chunkNo, chunk.get(chunk.size() - 1), done);
+                    } catch (RuntimeException e) {
+                        commits.failed();
+                        failedChunks.incrementAndGet();
+                        logger.error("Job {} chunk #{} failed", jobName, chunkNo, e);
+                    } finally {
+                        long elapsed = System.nanoTime() - chunkStart;
+                        chunkTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                        maxChunkMillis.accumulateAndGet(TimeUnit.NANOSECONDS.toMillis(elapsed), Math::max);
+                        logger.debug("Job {} chunk #{}: size={}, elapsedMs={}",
+                                jobName, chunkNo, chunk.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(1, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        JobSummary summary = new JobSummary(jobName, chunks, items, processed.get(), failedChunks.get(),
+                maxChunkMillis.get(), System.currentTimeMillis() - startedAt, aborted);
+        logger.info("Job {} finished: chunks={}, items={}, processed={}, failedChunks={}, maxChunkMs={}, " +
+                        "elapsedMs={}, aborted={}", jobName, summary.chunks(), summary.items(), summary.processed(),
+                summary.failedChunks(), summary.maxChunkMillis(), summary.elapsedMillis(), summary.aborted());
+        return summary;
+    }
+
+    // 청크 완료를 번호 순으로 모아, 연속 구간이 늘어날 때마다 한 번씩 (직렬로) 알린다
+    static final class CommitTracker<T> {
+        private final BiConsumer<T, Integer> onCommitted;
+        private final Map<Integer, Done<T>> pending = new HashMap<>();
+        private int nextChunk = 1;
+        private boolean blocked;
+
+        CommitTracker(BiConsumer<T, Integer> onCommitted) {
+            this.onCommitted = onCommitted;
+        }
+
+        synchronized void completed(int chunkNo, T last, int processed) {
+            if (blocked) return;
+            pending.put(chunkNo, new Done<>(last, processed));
+            T committed = null;
+            int delta = 0;
+            while (pending.containsKey(nextChunk)) {
+                Done<T> done = pending.remove(nextChunk++);
+                committed = done.last();
+                delta += done.processed();
+            }
+            if (committed != null) onCommitted.accept(committed, delta);
+        }
+
+        synchronized void failed() {
+            blocked = true;
+            pending.clear();
+        }
+
+        private record Done<T>(T last, int processed) {
+        }
+    }
+
+    /**
+     * 실행 요약
+     */
+    public record JobSummary(String jobName, int chunks, long items, int processed, int failedChunks,
+                             long maxChunkMillis, long elapsedMillis, boolean aborted) {
+    }
+}
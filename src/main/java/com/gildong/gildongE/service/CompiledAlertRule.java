@@ -0,0 +1,240 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.AlertDto;
+import com.gildong.gildongE.model.AlertRule;
+import com.gildong.gildongE.model.AlertRuleCondition;
+import org.bson.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * AlertRule을 이벤트마다 다시 해석하지 않도록 미리 컴파일한 형태.
+ *  - 조건 트리 → Predicate 트리 (임계값, 필드 경로는 컴파일 시 한 번만 파싱)
+ *  - 메시지 템플릿 → 고정 문자열/치환 조각 리스트
+ */
+final class CompiledAlertRule {
+
+    private final AlertRule rule;
+    private final Predicate<Context> predicate;
+    private final List<Function<Context, String>> messageParts;
+    private final Map<String, String> fieldLabels;
+
+    private CompiledAlertRule(AlertRule rule) {
+        this.rule = rule;
+        this.fieldLabels = rule.getFieldLabels() != null ? rule.getFieldLabels() : Collections.emptyMap();
+        this.predicate = compileCondition(rule.getCondition());
+        this.messageParts = compileTemplate(rule.getMessageTemplate() != null ? rule.getMessageTemplate() : "");
+    }
+
+    static CompiledAlertRule compile(AlertRule rule) {
+        return new CompiledAlertRule(rule);
+    }
+
+    AlertRule getRule() {
+        return rule;
+    }
+
+    /**
+     * 조건이 맞으면 알림을 만들어 반환하고, 아니면 null을 반환한다.
+     * @param fullDoc 이벤트의 fullDocument
+     * @param changedField 트리거된 필드 (triggerFields가 없는 규칙은 null)
+     */
+    AlertDto evaluate(Document fullDoc, String changedField) {
+        Context ctx = new Context(fullDoc, changedField,
+                changedField != null ? fullDoc.get(changedField) : null,
+                changedField != null ? fieldLabels.getOrDefault(changedField, changedField) : null);
+        if (!predicate.test(ctx)) return null;
+
+        StringBuilder message = new StringBuilder();
+        for (Function<Context, String> part : messageParts) {
+            message.append(part.apply(ctx));
+        }
+
+        AlertDto alert = new AlertDto();
+        alert.setId(UUID.randomUUID().toString());
+        alert.setUserId(fullDoc.getString(rule.getUserIdField()));
+        alert.setType(rule.getType());
+        alert.setTitle(rule.getTitle());
+        alert.setMessage(message.toString());
+        alert.setCreatedAt(Instant.now());
+        return alert;
+    }
+
+    // --- 조건 컴파일 ---
+
+    private static Predicate<Context> compileCondition(AlertRuleCondition c) {
+        if (c == null || c.getOp() == null) return ctx -> true;
+
+        String op = c.getOp().toLowerCase(Locale.ROOT);
+        switch (op) {
+            case "and": {
+                List<Predicate<Context>> children = compileChildren(c);
+                @SuppressWarnings("unchecked")
+                Predicate<Context>[] preds = children.toArray(new Predicate[0]);
+                return ctx -> {
+                    for (Predicate<Context> p : preds) {
+                        if (!p.test(ctx)) return false;
+                    }
+                    return true;
+                };
+            }
+            case "or": {
+                List<Predicate<Context>> children = compileChildren(c);
+                @SuppressWarnings("unchecked")
+                Predicate<Context>[] preds = children.toArray(new Predicate[0]);
+                return ctx -> {
+                    for (Predicate<Context> p : preds) {
+                        if (p.test(ctx)) return true;
+                    }
+                    return false;
+                };
+            }
+            case "not": {
+                List<Predicate<Context>> children = compileChildren(c);
+                if (children.size() != 1) {
+                    throw new IllegalArgumentException("'not' condition requires exactly one child");
+                }
+                return children.get(0).negate();
+            }
+            case "exists": {
+                Function<Context, Object> accessor = accessor(c.getField());
+                return ctx -> accessor.apply(ctx) != null;
+            }
+            case "eq":
+            case "ne": {
+                Function<Context, Object> accessor = accessor(c.getField());
+                Object expected = c.getValue();
+                boolean negate = op.equals("ne");
+                if (expected instanceof Number) {
+                    double threshold = ((Number) expected).doubleValue();
+                    return ctx -> {
+                        Object v = accessor.apply(ctx);
+                        boolean eq = v instanceof Number && ((Number) v).doubleValue() == threshold;
+                        return eq != negate;
+                    };
+                }
+                return ctx -> Objects.equals(accessor.apply(ctx), expected) != negate;
+            }
+            case "lt":
+            case "lte":
+            case "gt":
+            case "gte": {
+                Function<Context, Object> accessor = accessor(c.getField());
+                if (!(c.getValue() instanceof Number)) {
+                    throw new IllegalArgumentException("'" + op + "' condition requires a numeric value");
+                }
+                double threshold = ((Number) c.getValue()).doubleValue();
+                return switch (op) {
+                    case "lt" -> ctx -> accessor.apply(ctx) instanceof Number v && v.doubleValue() < threshold;
+                    case "lte" -> ctx -> accessor.apply(ctx) instanceof Number v && v.doubleValue() <= threshold;
+                    case "gt" -> ctx -> accessor.apply(ctx) instanceof Number v && v.doubleValue() > threshold;
+                    default -> ctx -> accessor.apply(ctx) instanceof Number v && v.doubleValue() >= threshold;
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown alert rule operator: " + c.getOp());
+        }
+    }
+
+    private static List<Predicate<Context>> compileChildren(AlertRuleCondition c) {
+        List<Predicate<Context>> children = new ArrayList<>();
+        if (c.getConditions() != null) {
+            for (AlertRuleCondition child : c.getConditions()) {
+                children.add(compileCondition(child));
+            }
+        }
+        return children;
+    }
+
+    private static Function<Context, Object> accessor(String field) {
+        if (field == null) {
+            throw new IllegalArgumentException("Alert rule condition requires a field");
+        }
+        if (field.equals("$field")) return ctx -> ctx.changedField;
+        if (field.equals("$value")) return ctx -> ctx.changedValue;
+        if (field.indexOf('.') < 0) return ctx -> ctx.doc.get(field);
+
+        List<String> path = Arrays.asList(field.split("\\."));
+        return ctx -> ctx.doc.getEmbedded(path, Object.class);
+    }
+
+    // --- 템플릿 컴파일 ---
+
+    private static List<Function<Context, String>> compileTemplate(String template) {
+        List<Function<Context, String>> parts = new ArrayList<>();
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf('{', pos);
+            int close = open < 0 ? -1 : template.indexOf('}', open);
+            if (open < 0 || close < 0) {
+                String literal = template.substring(pos);
+                parts.add(ctx -> literal);
+                break;
+            }
+            if (open > pos) {
+                String literal = template.substring(pos, open);
+                parts.add(ctx -> literal);
+            }
+            parts.add(compilePlaceholder(template.substring(open + 1, close)));
+            pos = close + 1;
+        }
+        return parts;
+    }
+
+    private static Function<Context, String> compilePlaceholder(String placeholder) {
+        int bar = placeholder.indexOf('|');
+        String name = bar < 0 ? placeholder.trim() : placeholder.substring(0, bar).trim();
+        String format = bar < 0 ? "" : placeholder.substring(bar + 1).trim();
+
+        Function<Context, Object> accessor = name.equals("$field")
+                ? ctx -> ctx.changedFieldLabel
+                : accessor(name);
+
+        return switch (format) {
+            case "md" -> ctx -> formatMonthDay(accessor.apply(ctx));
+            case "float" -> ctx -> {
+                Object v = accessor.apply(ctx);
+                return v instanceof Number ? Float.toString(((Number) v).floatValue()) : String.valueOf(v);
+            };
+            case "" -> ctx -> String.valueOf(accessor.apply(ctx));
+            default -> throw new IllegalArgumentException("Unknown template format: " + format);
+        };
+    }
+
+    /**
+     * YYYYMMDD 형식의 문자열을 “MM월 DD일” 형태로 바꿔줍니다.
+     * 예) "20250510" → "05월 10일"
+     */
+    private static String formatMonthDay(Object value) {
+        String yyyymmdd = value != null ? value.toString() : null;
+        if (yyyymmdd == null || yyyymmdd.length() != 8) return yyyymmdd;
+        return yyyymmdd.substring(4, 6) + "월 " + yyyymmdd.substring(6, 8) + "일";
+    }
+
+    /**
+     * 규칙 평가에 필요한 이벤트 정보
+     */
+    private static final class Context {
+        final Document doc;
+        final String changedField;
+        final Object changedValue;
+        final String changedFieldLabel;
+
+        Context(Document doc, String changedField, Object changedValue, String changedFieldLabel) {
+            this.doc = doc;
+            this.changedField = changedField;
+            this.changedValue = changedValue;
+            this.changedFieldLabel = changedFieldLabel;
+        }
+    }
+}
@@ -1,134 +1,181 @@
 package com.gildong.gildongE.service;
 
 import com.gildong.gildongE.dto.AlertDto;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.changestream.ChangeStreamDocument;
 import com.mongodb.client.model.changestream.FullDocument;
-import com.mongodb.client.model.changestream.UpdateDescription;
+import com.mongodb.client.model.changestream.OperationType;
 import org.bson.BsonDocument;
+import org.bson.BsonValue;
 import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PostConstruct;
-import java.time.Instant;
 import java.util.Arrays;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class ConsumableChangeStreamListener {
 
+    private static final Logger logger = LoggerFactory.getLogger(ConsumableChangeStreamListener.class);
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final long REOPEN_DELAY_MILLIS = 1000L;
+
     private final AlertService alertService;
+    private final AlertRuleEngine ruleEngine;
+    private final ChangeStreamMetrics metrics;
+    private final ConsumableDueService consumableDueService;
+    private final DueReminderWheel dueReminderWheel;
     private final MongoClient mongoClient;
+    private final ChangeStreamTokenStore tokenStore;
+
+    // 리더가 바뀔 때마다 증가. 자신의 세대가 아니게 된 감시 루프는 스스로 종료한다.
+    private final AtomicLong watchGeneration = new AtomicLong();
 
     public ConsumableChangeStreamListener(AlertService alertService,
-                                          MongoClient mongoClient) {
+                                          AlertRuleEngine ruleEngine,
+                                          ChangeStreamMetrics metrics,
+                                          ConsumableDueService consumableDueService,
+                                          DueReminderWheel dueReminderWheel,
+                                          MongoClient mongoClient,
+                                          ChangeStreamTokenStore tokenStore) {
         this.alertService = alertService;
+        this.ruleEngine = ruleEngine;
+        this.metrics = metrics;
+        this.consumableDueService = consumableDueService;
+        this.dueReminderWheel = dueReminderWheel;
         this.mongoClient = mongoClient;
+        this.tokenStore = tokenStore;
     }
 
     /**
-     * 애플리케이션 시작 직후 Change Stream 구독
+     * 리더가 된 노드에서만 Change Stream을 구독한다. 리더를 잃으면 구독을 멈춘다.
      */
-    @PostConstruct
-    public void init() {
-        System.out.println("▶ ChangeStreamListener 초기화, 구독을 시작합니다…");
+    @EventListener
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        long generation = watchGeneration.incrementAndGet();
+        if (!event.isLeader()) return;
+
         CompletableFuture.runAsync(() -> {
             MongoDatabase database = mongoClient.getDatabase("gildongE_db");  // DB 이름
-            watchConsumables(database);
+            watchConsumables(database, generation, event.getFencingToken());
         });
     }
 
-    private void watchConsumables(MongoDatabase database) {
+    /**
+     * 이벤트 하나의 처리 실패(규칙 평가, 투영 갱신, 정시 알림 등록)는 기록하고 다음 이벤트로 넘어간다.
+     * 커서가 끊기면 마지막 resume token부터 다시 연다 (token이 oplog에서 밀려났으면 지금부터).
+     * token은 ChangeStreamTokenStore에 저장해 다음 리더가 이어서 연다.
+     */
+    private void watchConsumables(MongoDatabase database, long generation, long fencingToken) {
         MongoCollection<Document> consumablesColl = database.getCollection("consumables");
-        System.out.println("Consumables 컬렉션 감시를 위해 ChangeStream 커서를 엽니다.");
-
-        MongoCursor<ChangeStreamDocument<Document>> cursor =
-                consumablesColl.watch(
-                        Arrays.asList(
-                                Aggregates.match(
-                                        Filters.in("operationType", Arrays.asList("insert", "update"))
-                                )
-                        )
-                )
-                        .fullDocument(FullDocument.UPDATE_LOOKUP)
-                        .iterator();
-
-        System.out.println("ChangeStream 커서가 정상 생성되었습니다. 이제 이벤트를 기다립니다.");
-
-        while (cursor.hasNext()) {
-            System.out.println("ChangeStream: 이벤트 대기 중...");
-            ChangeStreamDocument<Document> change = cursor.next();
-            System.out.println("ChangeStream: 이벤트 감지됨 -> operationType=" + change.getOperationType());
-            
-            // fullDocument가 null이 아니도록 fullDocument.UPDATE_LOOKED_UP 옵션을 걸었음
-            Document fullDoc = change.getFullDocument();
-            if (fullDoc == null) continue;
-
-            UpdateDescription updDesc = change.getUpdateDescription();
-            if (updDesc == null) continue;
-
-            BsonDocument updatedFields = updDesc.getUpdatedFields();
-            if (updatedFields == null || updatedFields.isEmpty()) continue;
-
-            // “교체 완료” 알림을 트리거할 수 있는 모든 필드 이름 배열
-            String[] consumableFields = {
-                    "engineOilChangedDate", "batteryChangedDate", "coolantChangedDate",
-                    "transmissionOilChangedDate", "brakeOilChangedDate", "airconFilterChangedDate"
-            };
-
-            for (String fieldName : consumableFields) {
-                if (updatedFields.containsKey(fieldName)) {
-                    // 해당 필드가 업데이트된 상태라면 → 교체 완료 알림
-                    // (이전 값이 null 이었든 아니었든, “날짜가 바뀐” 시점이라고 간주)
-                    Object newValueObj = fullDoc.get(fieldName);
-                    if (newValueObj != null) {
-                        String newDateStr = newValueObj.toString();
-                        AlertDto alert = new AlertDto();
-                        alert.setId(UUID.randomUUID().toString());
-                        alert.setUserId(fullDoc.getString("userId"));
-                        alert.setType("CONSUMABLE_REPLACED");
-                        alert.setTitle("차량 소모품");
-                        alert.setMessage(
-                                "[" + fullDoc.getString("carModel") + " / " + fullDoc.getString("carNumber") + "]\n" +
-                                        toKoreanFieldName(fieldName) + " 교체 완료: " + formatDateString(newDateStr)
-                        );
-                        alert.setCreatedAt(Instant.now());
-                        alertService.pushAlert(alert);
+        // 이전 리더가 마지막으로 저장한 위치부터 (없으면 지금부터)
+        BsonDocument resumeToken = tokenStore.load("consumables");
+        BsonDocument savedToken = resumeToken;
+        long savedAt = System.currentTimeMillis();
+
+        while (watchGeneration.get() == generation) {
+            ChangeStreamIterable<Document> stream = consumablesColl.watch(
+                            Arrays.asList(
+                                    Aggregates.match(
+                                            Filters.in("operationType", Arrays.asList("insert", "update", "replace", "delete"))
+                                    )
+                            )
+                    )
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            if (resumeToken != null) stream = stream.resumeAfter(resumeToken);
+
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                logger.info("Change stream opened: collection=consumables, resumed={}", resumeToken != null);
+                metrics.register("consumables");
+
+                while (watchGeneration.get() == generation) {
+                    // 이벤트가 없으면 최대 1초 후 null이 반환되어 리더 여부를 다시 확인한다
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        try {
+                            onChange(change);
+                        } catch (RuntimeException e) {
+                            metrics.recordError("consumables", "handler");
+                            logger.error("Failed to handle consumable change: {}", change.getDocumentKey(), e);
+                        }
+                    }
+                    // 처리를 마친 뒤 token을 옮긴다 (이벤트가 없어도 커서의 token은 앞으로 간다)
+                    if (cursor.getResumeToken() != null) resumeToken = cursor.getResumeToken();
+                    if (resumeToken != savedToken
+                            && System.currentTimeMillis() - savedAt >= ChangeStreamTokenStore.SAVE_INTERVAL_MILLIS) {
+                        tokenStore.save("consumables", resumeToken, fencingToken);
+                        savedToken = resumeToken;
+                        savedAt = System.currentTimeMillis();
                     }
                 }
+            } catch (MongoException e) {
+                metrics.recordError("consumables", "stream");
+                if (e instanceof MongoCommandException
+                        && ((MongoCommandException) e).getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    logger.error("Change stream history lost, restarting from now: collection=consumables", e);
+                    resumeToken = null;
+                    tokenStore.clear("consumables", fencingToken);
+                } else {
+                    logger.warn("Change stream interrupted, reopening: collection=consumables", e);
+                }
+                try {
+                    Thread.sleep(REOPEN_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
         }
     }
 
     /**
-     * 필드명을 한글 사용자 메시지로 바꿔줍니다.
+     * 이벤트 하나를 처리하고 계측한다. (리플레이 하네스도 같은 경로를 사용)
      */
-    private String toKoreanFieldName(String fieldName) {
-        return switch (fieldName) {
-            case "engineOilChangedDate" -> "엔진 오일";
-            case "batteryChangedDate" -> "배터리";
-            case "coolantChangedDate" -> "부동액";
-            case "transmissionOilChangedDate" -> "변속기 오일";
-            case "brakeOilChangedDate" -> "브레이크 오일";
-            case "airconFilterChangedDate" -> "에어컨 필터";
-            default -> fieldName;
-        };
+    void onChange(ChangeStreamDocument<Document> change) {
+        long start = System.nanoTime();
+        handleChange(change);
+        metrics.recordEvent("consumables", change, start);
     }
 
-    /**
-     * YYYYMMDD 형식의 문자열을 “MM월 DD일” 형태로 바꿔줍니다.
-     * 예) "20250510" → "05월 10일"
-     */
-    private String formatDateString(String yyyymmdd) {
-        if (yyyymmdd == null || yyyymmdd.length() != 8) return yyyymmdd;
-        String month = yyyymmdd.substring(4, 6);
-        String day   = yyyymmdd.substring(6, 8);
-        return month + "월 " + day + "일";
+    private void handleChange(ChangeStreamDocument<Document> change) {
+        // 앱 밖의 쓰기까지 모든 변경을 교체 예정일 투영(consumable_due)에 반영한다.
+        // (saveConsumable이 이미 반영한 변경이면 같은 값을 다시 쓸 뿐이다) 정시 알림이 이 투영을 확인하므로 먼저 한다
+        if (change.getOperationType() == OperationType.DELETE) {
+            String consumableId = idOf(change.getDocumentKey());
+            if (consumableId != null) consumableDueService.removeFor(consumableId);
+            return;
+        }
+        if (change.getFullDocument() != null) {
+            consumableDueService.refresh(change.getFullDocument());
+        }
+
+        // “교체 완료” 알림을 트리거할 필드와 메시지는 alert_rules의 규칙으로 정의된다
+        for (AlertDto alert : ruleEngine.evaluate("consumables", change)) {
+            alertService.pushAlert(alert);
+        }
+        // 교체 예정일이 바뀌었을 수 있으므로 정시 알림 타이머를 다시 등록
+        dueReminderWheel.onConsumableChanged(change.getFullDocument());
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) return null;
+        if (id.isObjectId()) return id.asObjectId().getValue().toHexString();
+        if (id.isString()) return id.asString().getValue();
+        return id.toString();
     }
 }
@@ -0,0 +1,61 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.ConsumableDue;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * userBucket 필드가 생기기 전에 만들어진 consumable_due 행에 버킷을 채운다. (최초 1회)
+ */
+@Component
+public class ConsumableDueBucketMigration implements DataMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ConsumableDueBucketMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return "consumable-due-user-bucket-v1";
+    }
+
+    @Override
+    public void migrate(Date deployedAt) {
+        Query missing = new Query(Criteria.where("userBucket").exists(false));
+        missing.fields().include("userId");
+
+        BulkOperations bulk = newBulk();
+        int pending = 0;
+        try (Stream<ConsumableDue> rows = mongoTemplate.stream(missing, ConsumableDue.class)) {
+            Iterator<ConsumableDue> it = rows.iterator();
+            while (it.hasNext()) {
+                ConsumableDue row = it.next();
+                if (row.getUserId() == null) continue;
+                bulk.updateOne(new Query(Criteria.where("_id").is(row.getId())),
+                        new Update().set("userBucket", UserBuckets.bucketOf(row.getUserId())));
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = newBulk();
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) bulk.execute();
+    }
+
+    private BulkOperations newBulk() {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ConsumableDue.class);
+    }
+}
@@ -0,0 +1,161 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.ConsumableDueResponse;
+import com.gildong.gildongE.dto.UserNextDueDate;
+import com.gildong.gildongE.model.Consumable;
+import com.gildong.gildongE.model.ConsumableDue;
+import com.gildong.gildongE.model.ConsumablePart;
+import com.gildong.gildongE.repository.ConsumableDueRepository;
+import org.bson.Document;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 교체 예정일 투영(consumable_due) 관리 및 기간 조회.
+ *
+ *  - refresh(consumable): 저장된 Consumable의 6개 예정일을 소모품별 행으로 반영
+ *    (saveConsumable이 바로 부르고, 앱 밖의 쓰기를 포함한 모든 변경은 Change Stream 리스너가 다시 반영한다)
+ *  - 기간 조회/자정 스캔: dueDate 색인 범위 스캔
+ *  - 최초 1회 기존 consumables 전체를 백필 (DataMigration)
+ */
+@Service
+public class ConsumableDueService implements DataMigration {
+
+    private final ConsumableDueRepository dueRepo;
+    private final MongoTemplate mongoTemplate;
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    public ConsumableDueService(ConsumableDueRepository dueRepo,
+                                MongoTemplate mongoTemplate) {
+        this.dueRepo = dueRepo;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** Consumable 저장 후 호출하여 예정일 행을 갱신한다. */
+    public void refresh(Consumable c) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ConsumableDue> rows = new ArrayList<>();
+        List<ConsumablePart> present = new ArrayList<>();
+
+        for (ConsumablePart part : ConsumablePart.values()) {
+            LocalDate dueDate = parseDueDate(part.dueDateOf(c));
+            if (dueDate == null) continue;
+
+            ConsumableDue row = new ConsumableDue();
+            row.setId(c.getId() + ":" + part.name());
+            row.setConsumableId(c.getId());
+            row.setUserId(c.getUserId());
+            row.setUserBucket(UserBuckets.bucketOf(c.getUserId()));
+            row.setCarModel(c.getCarModel());
+            row.setCarNumber(c.getCarNumber());
+            row.setPart(part);
+            row.setDueDate(dueDate);
+            row.setUpdatedAt(now);
+            rows.add(row);
+            present.add(part);
+        }
+
+        // 예정일이 지워진 소모품 행 제거 후, 나머지는 id 기준 upsert
+        mongoTemplate.remove(new Query(Criteria.where("consumableId").is(c.getId())
+                .and("part").nin(present)), ConsumableDue.class);
+        dueRepo.saveAll(rows);
+    }
+
+    /** Change Stream의 consumables 문서(fullDocument)로 예정일 행을 갱신한다. */
+    public void refresh(Document consumable) {
+        refresh(mongoTemplate.getConverter().read(Consumable.class, consumable));
+    }
+
+    /** 삭제된 Consumable의 예정일 행을 모두 지운다. */
+    public void removeFor(String consumableId) {
+        mongoTemplate.remove(new Query(Criteria.where("consumableId").is(consumableId)), ConsumableDue.class);
+    }
+
+    /** 사용자별 기간 내 예정 항목 (예정일 오름차순, 페이지 단위). 기간이 거꾸로이거나 페이지 값이 음수면 IllegalArgumentException */
+    public List<ConsumableDueResponse> findDueBetweenForUser(String userId, LocalDate from, LocalDate to,
+                                                             int page, int size) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("days는 0 이상이어야 합니다.");
+        }
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page는 0 이상, size는 1 이상이어야 합니다.");
+        }
+        return dueRepo.findDueBetweenForUser(userId, from, to, PageRequest.of(page, size, Sort.by("dueDate", "id")))
+                .stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 예정일이 [from, to] 사이에 있는 사용자별 가장 가까운 예정일 (userId 오름차순).
+     * userBucket이 [bucketFrom, bucketTo) 인 사용자만, (userBucket, dueDate) 색인 범위 스캔 후 사용자별로 묶는다.
+     * 호출 측에서 스트림을 close 해야 한다.
+     * @param afterUserId 이 userId 다음부터 (이어하기용, null이면 처음부터)
+     */
+    public Stream<UserNextDueDate> streamNextDueDates(LocalDate from, LocalDate to,
+                                                      int bucketFrom, int bucketTo, String afterUserId) {
+        Criteria range = Criteria.where("userBucket").gte(bucketFrom).lt(bucketTo)
+                .and("dueDate").gte(from).lte(to);
+        if (afterUserId != null) range = range.and("userId").gt(afterUserId);
+
+        TypedAggregation<ConsumableDue> aggregation = Aggregation.newAggregation(ConsumableDue.class,
+                Aggregation.match(range),
+                Aggregation.group("userId").min("dueDate").as("nextDueDate"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                Aggregation.project("nextDueDate").and("userId").previousOperation()
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(1000).build());
+        return mongoTemplate.aggregateStream(aggregation, UserNextDueDate.class);
+    }
+
+    @Override
+    public String getName() {
+        return "consumable-due-backfill-v1";
+    }
+
+    /** 기존 consumables 전체를 스트리밍하며 투영을 채운다. */
+    @Override
+    public void migrate(Date deployedAt) {
+        try (Stream<Consumable> all = mongoTemplate.stream(new Query(), Consumable.class)) {
+            all.forEach(this::refresh);
+        }
+    }
+
+    /** YYYYMMDD 문자열 → 날짜 (비었거나 형식이 틀리면 null) */
+    static LocalDate parseDueDate(String yyyymmdd) {
+        if (yyyymmdd == null || yyyymmdd.length() != 8) return null;
+        try {
+            return LocalDate.parse(yyyymmdd, FMT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private ConsumableDueResponse toResponse(ConsumableDue e) {
+        ConsumableDueResponse dto = new ConsumableDueResponse();
+        dto.setConsumableId(e.getConsumableId());
+        dto.setUserId(e.getUserId());
+        dto.setCarModel(e.getCarModel());
+        dto.setCarNumber(e.getCarNumber());
+        dto.setPart(e.getPart().name());
+        dto.setPartName(e.getPart().getLabel());
+        dto.setDueDate(e.getDueDate());
+        return dto;
+    }
+}
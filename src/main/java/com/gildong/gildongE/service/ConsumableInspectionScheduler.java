@@ -1,87 +1,201 @@
 package com.gildong.gildongE.service;
 
 import com.gildong.gildongE.dto.AlertDto;
-import com.gildong.gildongE.dto.ConsumablesOverviewResponse;
+import com.gildong.gildongE.dto.UserNextDueDate;
+import com.gildong.gildongE.model.JobRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Component
 public class ConsumableInspectionScheduler {
 
-    private final ConsumableService consumableService;
-    private final UserService userService;
+    private static final Logger logger = LoggerFactory.getLogger(ConsumableInspectionScheduler.class);
+    public static final String JOB_NAME = "consumable-due-soon";
+
+    private final ConsumableDueService consumableDueService;
     private final AlertService alertService;
+    private final DueReminderWheel dueReminderWheel;
+    private final ChunkedJobRunner jobRunner;
+    private final JobRunService jobRunService;
+    private final int rangeCount;
 
-    // YYYYMMDD 파싱/포맷용
-    private final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyyMMdd");
+    // 같은 노드에서 자정 실행/이어받기/수동 실행이 겹치지 않게 한다
+    private final AtomicBoolean running = new AtomicBoolean();
 
-    public ConsumableInspectionScheduler(ConsumableService consumableService,
-                                         UserService userService,
-                                         AlertService alertService) {
-        this.consumableService = consumableService;
-        this.userService       = userService;
-        this.alertService      = alertService;
+    public ConsumableInspectionScheduler(ConsumableDueService consumableDueService,
+                                         AlertService alertService,
+                                         DueReminderWheel dueReminderWheel,
+                                         ChunkedJobRunner jobRunner,
+                                         JobRunService jobRunService,
+                                         @Value("${gildong.jobs.ranges:16}") int rangeCount) {
+        this.consumableDueService = consumableDueService;
+        this.alertService         = alertService;
+        this.dueReminderWheel     = dueReminderWheel;
+        this.jobRunner            = jobRunner;
+        this.jobRunService        = jobRunService;
+        this.rangeCount           = Math.max(1, Math.min(rangeCount, 1024));
     }
 
     /**
      * 매일 자정(KST)에 실행하여,
      * 각 사용자별로 “가장 가까운 교체 예정일(nextDueDate)”가
      * 오늘부터 7일 이내라면 알림을 발송한다.
+     *
+     * 모든 노드에서 실행된다. 사용자를 userId 해시 버킷 범위(job_ranges)로 나누고,
+     * 각 노드가 리스로 범위를 하나씩 잡아 처리하므로 N대면 약 1/N 시간에 끝난다.
+     * 범위 안에서는 consumable_due의 (userBucket, dueDate) 색인 범위 스캔으로
+     * 알림 대상(userId, nextDueDate)만 userId순으로 스트리밍하고, 청크로 나눠 작업 스레드 여러 개에서 발송한다.
+     * 청크마다 알림 기록 저장과 방송을 pushAlerts 한 번으로 묶는다. (사용자가 이 노드에 연결되어 있지 않아도 기록은 남는다)
+     * 타이밍 휠 알림(DueReminderWheel)이 켜져 있으면 그쪽이 정시에 보내므로 건너뛴다.
      */
     @Scheduled(cron = "0 0 0 * * *", zone = "Asia/Seoul")
     public void pushUpcomingConsumableAlerts() {
-        LocalDate today = LocalDate.now();
-        LocalDate inSevenDays = today.plusDays(7);
-
-        // 1) 모든 사용자 ID를 가져옴
-        List<String> userIds = userService.getAllUserIds();
+        if (dueReminderWheel.isEnabled()) return;
+        runDueSoonJob(LocalDate.now());
+    }
 
-        for (String userId : userIds) {
-            // 2) 해당 사용자의 ConsumablesOverviewResponse 얻기
-            ConsumablesOverviewResponse overview =
-                    consumableService.getConsumablesOverview(userId);
+    /**
+     * 끝나지 않은 실행이 있으면 남은 범위를 가져와 처리한다.
+     * 멈춘(리스가 만료된) 노드의 범위도 여기서 다른 노드가 checkpoint 다음부터 이어받는다.
+     */
+    @Scheduled(fixedDelayString = "${gildong.jobs.steal-interval-ms:30000}")
+    public void helpUnfinishedRuns() {
+        if (dueReminderWheel.isEnabled()) return;
+        for (LocalDate runDate : jobRunService.findOpenRunDates(JOB_NAME)) {
+            if (!running.compareAndSet(false, true)) return;
+            try {
+                workRanges(runDate);
+            } finally {
+                running.set(false);
+            }
+        }
+    }
 
-            String nextDueDateStr = overview.getNextDueDate();
-            if (nextDueDateStr == null) {
-                // 미래 예정일이 하나도 없으면 건너뛰기
-                continue;
+    /**
+     * runDate 기준 실행. 이미 완료된 실행이면 아무것도 하지 않고, 남은 범위가 있으면 이어서 처리한다.
+     * @return 이 노드가 실제로 범위를 처리했으면 true
+     */
+    public boolean runDueSoonJob(LocalDate runDate) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Job {} already running on this node", JOB_NAME);
+            return false;
+        }
+        try {
+            if (!jobRunService.open(JOB_NAME, runDate, rangeCount)) {
+                logger.info("Job {} for {} already completed", JOB_NAME, runDate);
+                return false;
             }
+            return workRanges(runDate) > 0;
+        } finally {
+            running.set(false);
+        }
+    }
 
-            // 3) “YYYYMMDD” → LocalDate 로 파싱
-            LocalDate nextDueDate;
-            try {
-                nextDueDate = LocalDate.parse(nextDueDateStr, fmt);
-            } catch (Exception ex) {
-                // 파싱 불가(형식 에러 등)이면 무시하고 넘어감
-                continue;
+    // 잡을 수 있는 범위가 없을 때까지 하나씩 잡아 처리한다
+    private int workRanges(LocalDate runDate) {
+        int worked = 0;
+        JobRange range;
+        while ((range = jobRunService.claimRange(JOB_NAME, runDate)) != null) {
+            logger.info("Job {} {} range #{} [{}, {}) claimed (attempt {}, checkpoint={})", JOB_NAME, runDate,
+                    range.getRangeIndex(), range.getBucketFrom(), range.getBucketTo(),
+                    range.getAttempts(), range.getCheckpoint());
+            boolean done = processRange(range, runDate);
+            jobRunService.finishRange(range, done);
+            worked++;
+            // 실패한 범위는 바로 다시 잡지 않고, 다음 주기(helpUnfinishedRuns)에 어느 노드든 이어받는다
+            if (!done) break;
+        }
+        return worked;
+    }
+
+    private boolean processRange(JobRange range, LocalDate runDate) {
+        AtomicBoolean lost = new AtomicBoolean();
+        AtomicLong lastRenewed = new AtomicLong(System.currentTimeMillis());
+
+        // 1) runDate ~ 7일 이내 예정일이 있는 범위 내 사용자와 그 중 가장 가까운 날짜 (userId순 커서, checkpoint 다음부터)
+        ChunkedJobRunner.JobSummary summary;
+        try (Stream<UserNextDueDate> dueUsers = consumableDueService.streamNextDueDates(
+                runDate, runDate.plusDays(7), range.getBucketFrom(), range.getBucketTo(), range.getCheckpoint())) {
+            // 2) 청크 단위로 작업 스레드에서 알림 생성 및 발송, 앞에서부터 끝난 구간까지 checkpoint (리스 연장 포함)
+            summary = jobRunner.run(JOB_NAME, dueUsers.iterator(),
+                    chunk -> pushDueSoonAlerts(chunk, runDate, lost),
+                    () -> keepLease(range, lost, lastRenewed),
+                    (last, processed) -> {
+                        if (!jobRunService.checkpointRange(range, last.getUserId(), processed)) lost.set(true);
+                    });
+        }
+        if (lost.get()) {
+            logger.warn("Job {} {} range #{} was taken over by another node", JOB_NAME, runDate, range.getRangeIndex());
+        }
+        return !lost.get() && !summary.aborted() && summary.failedChunks() == 0;
+    }
+
+    // 청크를 넘기기 전마다 호출: 리스 기간의 1/3이 지났으면 연장, 빼앗겼으면 중단
+    private boolean keepLease(JobRange range, AtomicBoolean lost, AtomicLong lastRenewed) {
+        if (lost.get()) return false;
+        long now = System.currentTimeMillis();
+        if (now - lastRenewed.get() > jobRunService.getRangeLeaseMillis() / 3) {
+            if (!jobRunService.renewRange(range)) {
+                lost.set(true);
+                return false;
             }
+            lastRenewed.set(now);
+        }
+        return true;
+    }
 
-            // 4) 오늘 ~ 7일 이내라면 알림 생성
-            if (!nextDueDate.isBefore(today) && !nextDueDate.isAfter(inSevenDays)) {
-                // 예) today = 2025-05-20, nextDueDate = 2025-05-25 (5일 후) → 알림
-                AlertDto alert = new AlertDto();
-                alert.setId(UUID.randomUUID().toString());
-                alert.setUserId(userId);
-                alert.setType("CONSUMABLE_DUE_SOON");
-                alert.setTitle("차량 점검");
-                alert.setMessage(
-                        "가장 가까운 교체 예정일: " +
-                                // “20250525” → “05월 25일”
-                                (nextDueDate.getMonthValue() < 10 ? "0" + nextDueDate.getMonthValue() : nextDueDate.getMonthValue())
-                                + "월 " +
-                                (nextDueDate.getDayOfMonth() < 10 ? "0" + nextDueDate.getDayOfMonth() : nextDueDate.getDayOfMonth())
-                                + "일"
-                );
-                alert.setCreatedAt(Instant.now());
-                alertService.pushAlert(alert);
+    private int pushDueSoonAlerts(List<UserNextDueDate> chunk, LocalDate runDate, AtomicBoolean lost) {
+        List<String> claimed = new ArrayList<>(chunk.size());
+        List<AlertDto> alerts = new ArrayList<>(chunk.size());
+        try {
+            for (UserNextDueDate due : chunk) {
+                if (lost.get()) {
+                    // 처리하지 못한 사용자가 checkpoint로 넘어가지 않도록 청크를 실패로 끝낸다
+                    throw new IllegalStateException("Job range lease lost");
+                }
+                // 같은 날 이미 보낸 사용자는 건너뛴다 (이어받기/수동 재실행)
+                if (!jobRunService.claim(due.getUserId(), JOB_NAME, runDate)) continue;
+                claimed.add(due.getUserId());
+                alerts.add(dueSoonAlert(due.getUserId(), due.getNextDueDate()));
             }
+            // 삭제된 사용자는 pushAlerts가 기록을 건너뛴다
+            alertService.pushAlerts(alerts);
+        } catch (RuntimeException ex) {
+            // 이 청크에서 표시한 사용자는 모두 다음 실행에서 다시 보내도록 지운다
+            claimed.forEach(userId -> jobRunService.release(userId, JOB_NAME, runDate));
+            throw ex;
         }
+        return alerts.size();
+    }
+
+    private AlertDto dueSoonAlert(String userId, LocalDate nextDueDate) {
+        // 예) today = 2025-05-20, nextDueDate = 2025-05-25 (5일 후) → 알림
+        AlertDto alert = new AlertDto();
+        alert.setId(UUID.randomUUID().toString());
+        alert.setUserId(userId);
+        alert.setType("CONSUMABLE_DUE_SOON");
+        alert.setTitle("차량 점검");
+        alert.setMessage(
+                "가장 가까운 교체 예정일: " +
+                        // “20250525” → “05월 25일”
+                        (nextDueDate.getMonthValue() < 10 ? "0" + nextDueDate.getMonthValue() : nextDueDate.getMonthValue())
+                        + "월 " +
+                        (nextDueDate.getDayOfMonth() < 10 ? "0" + nextDueDate.getDayOfMonth() : nextDueDate.getDayOfMonth())
+                        + "일"
+        );
+        alert.setCreatedAt(Instant.now());
+        return alert;
     }
 }
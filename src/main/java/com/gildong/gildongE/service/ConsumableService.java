@@ -22,11 +22,14 @@ import java.util.stream.Stream;
 public class ConsumableService {
     private final ConsumableRepository consumableRepo;
     private final UserService userService;
+    private final ConsumableDueService consumableDueService;
 
     public ConsumableService(ConsumableRepository consumableRepo,
-                             UserService userService) {
+                             UserService userService,
+                             ConsumableDueService consumableDueService) {
         this.consumableRepo = consumableRepo;
         this.userService    = userService;
+        this.consumableDueService = consumableDueService;
     }
 
     /** 소모품(차량 교체 날짜) 정보 저장 */
@@ -57,6 +60,9 @@ public class ConsumableService {
         e.setUpdatedAt(LocalDateTime.now());
 
         Consumable saved = consumableRepo.save(e);
+
+        // 교체 예정일 투영(consumable_due) 갱신: 저장 직후 조회에도 보이도록 바로 한다 (다른 쓰기는 Change Stream 리스너가 반영)
+        consumableDueService.refresh(saved);
         return toResponse(saved);
     }
 
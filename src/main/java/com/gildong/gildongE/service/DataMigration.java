@@ -0,0 +1,26 @@
+package com.gildong.gildongE.service;
+
+import org.bson.types.ObjectId;
+
+import java.util.Date;
+
+/**
+ * 한 번만 실행하면 되는 데이터 백필/이관 작업.
+ * DataMigrationRunner가 리더 노드에서 실행하고 완료 여부를 data_migrations에 기록한다.
+ */
+public interface DataMigration {
+
+    /** 완료 기록에 쓰이는 고유 이름 (로직이 바뀌면 버전을 올린다) */
+    String getName();
+
+    /**
+     * @param deployedAt 이 작업이 들어간 버전의 노드가 처음 시작된 시각.
+     *                   그 뒤의 기록은 새 코드가 직접 반영하므로, 같은 값을 기록마다 더하는 백필은 이 시각 전 기록만 다룬다.
+     */
+    void migrate(Date deployedAt);
+
+    /** deployedAt이 속한 초의 가장 작은 ObjectId. 이보다 작은 _id가 배포 전에 저장된 기록이다 */
+    static ObjectId boundaryOf(Date deployedAt) {
+        return new ObjectId(String.format("%08x0000000000000000", deployedAt.getTime() / 1000));
+    }
+}
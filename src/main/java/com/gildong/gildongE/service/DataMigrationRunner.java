@@ -0,0 +1,86 @@
+package com.gildong.gildongE.service;
+
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 리더가 되면 아직 완료되지 않은 DataMigration을 순서대로 실행한다.
+ * 완료된 작업은 data_migrations 컬렉션에 기록되어(completedAt) 다시 실행되지 않는다.
+ * 각 노드는 시작할 때 작업별로 처음 시작된 시각(deployedAt)을 남기고, 실행할 때 그 값을 넘긴다.
+ */
+@Component
+public class DataMigrationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataMigrationRunner.class);
+    private static final String COLLECTION = "data_migrations";
+
+    private final List<DataMigration> migrations;
+    private final MongoTemplate mongoTemplate;
+    private final LeaderElectionService leaderElection;
+
+    public DataMigrationRunner(List<DataMigration> migrations,
+                               MongoTemplate mongoTemplate,
+                               LeaderElectionService leaderElection) {
+        this.migrations = migrations;
+        this.mongoTemplate = mongoTemplate;
+        this.leaderElection = leaderElection;
+    }
+
+    /** 요청을 받기 전에 deployedAt을 남긴다. 여러 노드가 남겨도 가장 이른 시각이 유지된다 ($min) */
+    @PostConstruct
+    public void recordDeployment() {
+        Date now = new Date();
+        for (DataMigration migration : migrations) {
+            try {
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(migration.getName())),
+                        new Update().min("deployedAt", now), COLLECTION);
+            } catch (DuplicateKeyException e) {
+                // 다른 노드가 동시에 처음 만든 경우 (그 노드의 시각이 남는다)
+            }
+        }
+    }
+
+    @EventListener
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        if (!event.isLeader()) return;
+        // 스케줄러 스레드(리스 갱신)를 막지 않도록 별도 스레드에서 실행
+        CompletableFuture.runAsync(() -> runPending(event.getFencingToken()));
+    }
+
+    private void runPending(long fencingToken) {
+        for (DataMigration migration : migrations) {
+            // 로컬 판단(holdsToken)이 아니라 리스 문서로 확인한다 (멈췄던 이전 리더가 이어 실행하지 않도록)
+            if (!leaderElection.confirmToken(fencingToken)) return;
+
+            String name = migration.getName();
+            Document state = mongoTemplate.findById(name, Document.class, COLLECTION);
+            if (state != null && state.get("completedAt") != null) continue;
+            Date deployedAt = state != null && state.getDate("deployedAt") != null ? state.getDate("deployedAt") : new Date();
+
+            long startedAt = System.currentTimeMillis();
+            logger.info("Data migration started: {}", name);
+            try {
+                migration.migrate(deployedAt);
+            } catch (RuntimeException e) {
+                logger.error("Data migration failed: {}", name, e);
+                continue;
+            }
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(name)),
+                    new Update().set("completedAt", new Date()), COLLECTION);
+            logger.info("Data migration finished: {}, elapsedMs={}", name, System.currentTimeMillis() - startedAt);
+        }
+    }
+}
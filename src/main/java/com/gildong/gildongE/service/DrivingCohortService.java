@@ -0,0 +1,320 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.CohortStatsResponse;
+import com.gildong.gildongE.exception.ResourceNotFoundException;
+import com.gildong.gildongE.model.Car;
+import com.gildong.gildongE.model.CarModel;
+import com.gildong.gildongE.model.DrivingCohortSummary;
+import com.gildong.gildongE.model.DrivingScoreHistogram;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * 차량 묶음(모델/제조사/연료)별 운전 점수 통계.
+ *
+ *  - 리더 노드가 gildong.cohort.refresh-ms마다 cars → car_models/driving_score_histogram $lookup 한 번으로
+ *    사용자별 히스토그램을 묶음별로 합쳐 driving_cohort_summary에 다시 쓴다 (driving_pattern은 읽지 않는다)
+ *  - 모든 노드는 요약을 메모리에 올려 두고 (gildong.cohort.cache-ms마다 다시 읽기) 조회는 메모리에서 답한다
+ *
+ * 사용자는 가진 차의 묶음마다 한 번씩 들어가고 (같은 제조사 차 두 대면 한 번), 모델명이 같은 car_models가
+ * 여럿이면 첫 문서의 제조사/연료를 쓴다. 사용자가 gildong.cohort.min-users 명 미만인 묶음은 보여주지 않는다.
+ *
+ * 다시 만들기는 리더 노드에서만 실행한다. 수동 요청은 어느 노드에서나 받아 driving_cohort_refresh_requests에
+ * 남기고 (seq $inc), 리더가 gildong.cohort.request-poll-ms마다 확인해 전용 스레드에서 실행한 뒤
+ * 그동안 새 요청이 없었으면(seq가 그대로면) 지운다. 리더가 바뀌어도 요청은 새 리더가 이어서 처리한다.
+ * 쓰기 전에 리스 문서로 리더 토큰을 확인하고, 지울 요약은 이번 실행에서 나오지 않은 묶음 ID로 고른다 (노드 시계와 무관).
+ */
+@Service
+public class DrivingCohortService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingCohortService.class);
+    private static final List<String> DIMENSIONS = List.of("model", "manufacturer", "fuelType");
+    private static final String REQUESTS_COLLECTION = "driving_cohort_refresh_requests";
+    private static final String REQUEST_ID = "refresh";
+
+    private final MongoTemplate mongoTemplate;
+    private final LeaderElectionService leaderElection;
+    private final long minUsers;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // 수동 요청을 스케줄러 스레드 밖에서 처리한다 (공용 풀을 쓰지 않는다)
+    private final ExecutorService refreshWorker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cohort-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    // 요약 캐시: dimension → 평균 점수 내림차순 목록, "dimension:value" → 통계
+    private volatile Map<String, List<CohortStatsResponse>> byDimension = Map.of();
+    private volatile Map<String, CohortStatsResponse> byId = Map.of();
+
+    public DrivingCohortService(MongoTemplate mongoTemplate,
+                                LeaderElectionService leaderElection,
+                                @Value("${gildong.cohort.min-users:5}") long minUsers) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaderElection = leaderElection;
+        this.minUsers = Math.max(1, minUsers);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reloadCache();
+    }
+
+    @Scheduled(initialDelayString = "${gildong.cohort.refresh-ms:3600000}",
+               fixedDelayString = "${gildong.cohort.refresh-ms:3600000}")
+    public void refreshSummaries() {
+        if (leaderElection.isLeader()) refresh(leaderElection.getFencingToken());
+    }
+
+    /**
+     * 수동 실행 요청을 남긴다. 어느 노드에서 불러도 되고, 리더가 다음 확인 때 실행한다.
+     * 실행 전에 여러 번 요청하면 한 번으로 합쳐진다.
+     */
+    public void requestRefresh() {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(REQUEST_ID)),
+                new Update().inc("seq", 1).currentDate("requestedAt"), REQUESTS_COLLECTION);
+    }
+
+    /** 리더: 남은 수동 요청이 있으면 전용 스레드에서 다시 만든다 */
+    @Scheduled(fixedDelayString = "${gildong.cohort.request-poll-ms:5000}")
+    public void pollRefreshRequests() {
+        if (!leaderElection.isLeader() || refreshing.get()) return;
+        Document request = mongoTemplate.findById(REQUEST_ID, Document.class, REQUESTS_COLLECTION);
+        if (request == null) return;
+        Object seq = request.get("seq");
+        long fencingToken = leaderElection.getFencingToken();
+        refreshWorker.execute(() -> {
+            try {
+                // 실행 중에 들어온 요청은 seq가 달라 남고, 다음 확인 때 한 번 더 실행된다
+                if (refresh(fencingToken)) {
+                    mongoTemplate.remove(new Query(Criteria.where("_id").is(REQUEST_ID).and("seq").is(seq)),
+                            REQUESTS_COLLECTION);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Cohort summary refresh failed", e);
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${gildong.cohort.cache-ms:60000}",
+               fixedDelayString = "${gildong.cohort.cache-ms:60000}")
+    public void reloadCache() {
+        Map<String, List<CohortStatsResponse>> dimensions = new HashMap<>();
+        Map<String, CohortStatsResponse> ids = new HashMap<>();
+        for (DrivingCohortSummary s : mongoTemplate.findAll(DrivingCohortSummary.class)) {
+            if (s.getUsers() < minUsers) continue;
+            CohortStatsResponse dto = toResponse(s);
+            dimensions.computeIfAbsent(s.getDimension(), key -> new ArrayList<>()).add(dto);
+            ids.put(s.getId(), dto);
+        }
+        Comparator<CohortStatsResponse> byAverage = Comparator.comparing(CohortStatsResponse::getAverageScore,
+                Comparator.nullsLast(Comparator.reverseOrder()));
+        dimensions.replaceAll((key, list) -> {
+            list.sort(byAverage);
+            return List.copyOf(list);
+        });
+        byDimension = dimensions;
+        byId = ids;
+    }
+
+    /** 묶음 기준(model/manufacturer/fuelType)별 통계, 평균 점수 높은 순 */
+    public List<CohortStatsResponse> getCohorts(String dimension) {
+        checkDimension(dimension);
+        return byDimension.getOrDefault(dimension, List.of());
+    }
+
+    public CohortStatsResponse getCohort(String dimension, String value) {
+        checkDimension(dimension);
+        CohortStatsResponse dto = byId.get(dimension + ":" + value);
+        if (dto == null) {
+            throw new ResourceNotFoundException("Cohort", dimension + ":" + value);
+        }
+        return dto;
+    }
+
+    /**
+     * 요약을 다시 만든다. 이 노드에서 이미 만드는 중이거나, 집계 후 fencingToken의 리스가 더는 이 노드 것이 아니면 false.
+     * 이번에 나오지 않은 묶음(차가 모두 지워진 모델 등)의 요약은 지운다.
+     */
+    boolean refresh(long fencingToken) {
+        if (!refreshing.compareAndSet(false, true)) return false;
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime refreshedAt = LocalDateTime.now();
+            Map<String, Cohort> cohorts = aggregate();
+            // 집계하는 동안 리더가 바뀌었으면 새 리더의 결과를 덮어쓰지 않는다
+            if (!leaderElection.confirmToken(fencingToken)) {
+                logger.info("Cohort summary refresh skipped: leadership lost (token {})", fencingToken);
+                return false;
+            }
+            for (Cohort cohort : cohorts.values()) {
+                mongoTemplate.save(cohort.toSummary(refreshedAt));
+            }
+            mongoTemplate.remove(new Query(Criteria.where("_id").nin(cohorts.keySet())), DrivingCohortSummary.class);
+            reloadCache();
+            logger.info("Cohort summaries refreshed: {} cohorts in {} ms",
+                    cohorts.size(), System.currentTimeMillis() - start);
+            return true;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /** (사용자, 모델명)마다 모델 정보와 사용자 히스토그램을 붙여 userId 순으로 받아 묶음별로 합친다 */
+    private Map<String, Cohort> aggregate() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").ne(null).and("modelName").ne(null)),
+                context -> new Document("$group", new Document("_id",
+                        new Document("userId", "$userId").append("modelName", "$modelName"))),
+                context -> new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(CarModel.class))
+                        .append("localField", "_id.modelName")
+                        .append("foreignField", "modelName")
+                        .append("as", "model")),
+                context -> new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(DrivingScoreHistogram.class))
+                        .append("localField", "_id.userId")
+                        .append("foreignField", "_id")
+                        .append("as", "scores")),
+                // 기록이 없는 사용자는 빠진다
+                context -> new Document("$unwind", "$scores"),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("userId", "$_id.userId")
+                        .append("modelName", "$_id.modelName")
+                        .append("manufacturer", new Document("$arrayElemAt", List.of("$model.manufacturer", 0)))
+                        .append("fuelType", new Document("$arrayElemAt", List.of("$model.fuelType", 0)))
+                        .append("hist", "$scores.hist")
+                        .append("count", "$scores.count")
+                        .append("sum", "$scores.sum")
+                        .append("min", "$scores.min")
+                        .append("max", "$scores.max")),
+                context -> new Document("$sort", new Document("userId", 1))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(1000).build());
+
+        Map<String, Cohort> cohorts = new HashMap<>();
+        String currentUser = null;
+        Set<String> seen = new HashSet<>();
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(aggregation,
+                mongoTemplate.getCollectionName(Car.class), Document.class)) {
+            Iterator<Document> it = rows.iterator();
+            while (it.hasNext()) {
+                Document row = it.next();
+                Number count = row.get("count", Number.class);
+                if (count == null || count.longValue() == 0) continue;
+                String userId = String.valueOf(row.get("userId"));
+                if (!userId.equals(currentUser)) {
+                    currentUser = userId;
+                    seen.clear();
+                }
+                for (String dimension : DIMENSIONS) {
+                    Object value = row.get(dimension.equals("model") ? "modelName" : dimension);
+                    if (value == null) continue;
+                    String id = dimension + ":" + value;
+                    // 같은 묶음에 차가 여러 대여도 사용자는 한 번만
+                    if (!seen.add(id)) continue;
+                    cohorts.computeIfAbsent(id, key -> new Cohort(dimension, String.valueOf(value))).add(row);
+                }
+            }
+        }
+        return cohorts;
+    }
+
+    private CohortStatsResponse toResponse(DrivingCohortSummary s) {
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.merge(s.getHist());
+        hist.mergeTotals(s.getSum(), s.getMin(), s.getMax());
+
+        CohortStatsResponse dto = new CohortStatsResponse();
+        dto.setDimension(s.getDimension());
+        dto.setValue(s.getValue());
+        dto.setUsers(s.getUsers());
+        dto.setCount(s.getCount());
+        if (s.getCount() > 0) {
+            dto.setAverageScore(s.getSum() / s.getCount());
+            dto.setMinScore(s.getMin());
+            dto.setMaxScore(s.getMax());
+        }
+        dto.setP10(hist.percentile(0.10));
+        dto.setP50(hist.percentile(0.50));
+        dto.setP90(hist.percentile(0.90));
+        dto.setRefreshedAt(s.getRefreshedAt());
+        return dto;
+    }
+
+    private static void checkDimension(String dimension) {
+        if (!DIMENSIONS.contains(dimension)) {
+            throw new IllegalArgumentException("dimension은 " + DIMENSIONS + " 중 하나여야 합니다.");
+        }
+    }
+
+    /** 묶음 하나의 합계 (사용자 히스토그램을 더한다) */
+    private static final class Cohort {
+        private final String dimension;
+        private final String value;
+        private final ScoreHistogram hist = new ScoreHistogram();
+        private long users;
+        private long count;
+
+        Cohort(String dimension, String value) {
+            this.dimension = dimension;
+            this.value = value;
+        }
+
+        void add(Document row) {
+            users++;
+            count += row.get("count", Number.class).longValue();
+            Object stored = row.get("hist");
+            if (stored instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, ? extends Number> bins = (Map<String, ? extends Number>) stored;
+                hist.merge(bins);
+            }
+            hist.mergeTotals(toDouble(row.get("sum"), 0),
+                    (float) toDouble(row.get("min"), Double.POSITIVE_INFINITY),
+                    (float) toDouble(row.get("max"), Double.NEGATIVE_INFINITY));
+        }
+
+        DrivingCohortSummary toSummary(LocalDateTime refreshedAt) {
+            DrivingCohortSummary s = new DrivingCohortSummary();
+            s.setId(dimension + ":" + value);
+            s.setDimension(dimension);
+            s.setValue(value);
+            s.setUsers(users);
+            s.setCount(count);
+            s.setSum(hist.getSum());
+            s.setMin(hist.getMin());
+            s.setMax(hist.getMax());
+            s.setHist(hist.toMap());
+            s.setRefreshedAt(refreshedAt);
+            return s;
+        }
+
+        private static double toDouble(Object value, double orElse) {
+            return value instanceof Number ? ((Number) value).doubleValue() : orElse;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.LeaderboardEntry;
+import com.gildong.gildongE.dto.UserRankResponse;
+import com.gildong.gildongE.model.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 평균 운전 점수 리더보드 (노드별 메모리 순위 색인, ScoreRankIndex).
+ *
+ *  - 시작 시 users에서 (id, 평균, 기록 수)만 읽어 색인을 만들고, 이후에는 UserScoreChangedEvent로 갱신한다
+ *  - 다른 노드에서 들어온 기록은 이 노드에 이벤트가 오지 않으므로 gildong.leaderboard.refresh-ms마다 다시 읽어 맞춘다
+ *  - 상위 K명, 사용자 순위/백분위를 users 정렬 없이 O(log n)에 답한다
+ *
+ * 기록이 gildong.leaderboard.min-count 건 미만인 사용자는 순위에 넣지 않는다. (한두 번 기록으로 1등이 되지 않게)
+ */
+@Service
+public class DrivingLeaderboard {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingLeaderboard.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final long minCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ScoreRankIndex index = new ScoreRankIndex();
+    // 다시 만드는 동안 들어온 변경 (새 색인에 다시 반영한다), 다시 만드는 중이 아니면 null
+    private List<UserScoreChangedEvent> pending;
+
+    public DrivingLeaderboard(MongoTemplate mongoTemplate,
+                              @Value("${gildong.leaderboard.min-count:5}") long minCount) {
+        this.mongoTemplate = mongoTemplate;
+        this.minCount = Math.max(1, minCount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${gildong.leaderboard.refresh-ms:300000}",
+               fixedDelayString = "${gildong.leaderboard.refresh-ms:300000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onScoreChanged(UserScoreChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(index, event);
+            if (pending != null) pending.add(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** users 전체로 색인을 새로 만들어 바꾼다. 만드는 동안에도 기존 색인으로 조회/갱신된다 */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) return;    // 이미 다시 만드는 중
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ScoreRankIndex fresh = new ScoreRankIndex();
+        long start = System.currentTimeMillis();
+        try {
+            Query query = new Query(Criteria.where("scoreCount").gte(minCount));
+            query.fields().include("avgDrivingScore", "scoreCount");
+            query.cursorBatchSize(5000);
+            try (Stream<Document> users = mongoTemplate.stream(query, Document.class,
+                    mongoTemplate.getCollectionName(User.class))) {
+                users.forEach(d -> {
+                    Object avg = d.get("avgDrivingScore");
+                    if (!(avg instanceof Number)) return;
+                    fresh.put(String.valueOf(d.get("_id")), ((Number) avg).floatValue(),
+                            ((Number) d.get("scoreCount")).longValue());
+                });
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.warn("Leaderboard rebuild failed, keeping previous index: {}", ex.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (UserScoreChangedEvent event : pending) apply(fresh, event);
+            pending = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Leaderboard rebuilt: {} users in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    /** 상위 limit명 (이름은 한 번의 조회로 채운다) */
+    public List<LeaderboardEntry> top(int limit) {
+        List<Map.Entry<String, Integer>> top;
+        List<Long> ranks = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            top = index.top(limit);
+            for (Map.Entry<String, Integer> e : top) ranks.add(index.countAbove(e.getValue()) + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, String> names = new HashMap<>();
+        if (!top.isEmpty()) {
+            Query query = new Query(Criteria.where("_id").in(top.stream().map(Map.Entry::getKey).toList()));
+            query.fields().include("userName");
+            mongoTemplate.find(query, User.class).forEach(u -> names.put(u.getId(), u.getUserName()));
+        }
+
+        List<LeaderboardEntry> result = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            Map.Entry<String, Integer> e = top.get(i);
+            result.add(new LeaderboardEntry(ranks.get(i), e.getKey(), names.get(e.getKey()),
+                    ScoreRankIndex.scoreOf(e.getValue())));
+        }
+        return result;
+    }
+
+    /** 사용자 순위와 백분위 (순위에 없으면 ranked=false) */
+    public UserRankResponse rankOf(String userId) {
+        UserRankResponse dto = new UserRankResponse();
+        dto.setUserId(userId);
+        lock.readLock().lock();
+        try {
+            long total = index.size();
+            dto.setTotal(total);
+            int slot = index.slot(userId);
+            if (slot < 0) return dto;
+
+            long rank = index.countAbove(slot) + 1;
+            dto.setRanked(true);
+            dto.setAvgDrivingScore(ScoreRankIndex.scoreOf(slot));
+            dto.setRank(rank);
+            dto.setTopPercent(100.0 * rank / total);
+            dto.setPercentile(100.0 * index.countBelow(slot) / total);
+            return dto;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(ScoreRankIndex target, UserScoreChangedEvent event) {
+        if (event.getScoreCount() < minCount) {
+            target.remove(event.getUserId());
+        } else {
+            target.put(event.getUserId(), event.getAvgDrivingScore(), event.getScoreCount());
+        }
+    }
+}
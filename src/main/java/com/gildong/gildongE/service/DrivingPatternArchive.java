@@ -0,0 +1,112 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.model.DrivingPatternSegment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 보관 세그먼트(driving_pattern_archive) 읽기/쓰기.
+ * 세그먼트는 사용자 × 월 단위라 같은 사용자의 세그먼트끼리 기간이 겹치지 않고, 세그먼트 안은 (recordedAt, id) 순이다.
+ * → from 순으로 세그먼트를 풀어 읽으면 원본 컬렉션과 같은 순서가 된다.
+ */
+@Component
+public class DrivingPatternArchive {
+
+    /** 원본 컬렉션 정렬과 같은 순서 (recordedAt, _id) */
+    static final Comparator<DrivingPattern> ORDER = Comparator.comparing(DrivingPattern::getRecordedAt)
+            .thenComparing(DrivingPattern::getId);
+
+    private final MongoTemplate mongoTemplate;
+
+    public DrivingPatternArchive(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * 한 달치 기록을 그 달 세그먼트에 넣는다. 이미 세그먼트가 있으면 합치고, 같은 id는 한 번만 남긴다.
+     * (보관 작업이 중단돼 원본 삭제 전에 멈췄다가 다시 넣는 경우)
+     */
+    public void append(String userId, YearMonth month, List<DrivingPattern> rows) {
+        String id = userId + ":" + month;
+        Map<String, DrivingPattern> merged = new LinkedHashMap<>();
+        DrivingPatternSegment segment = mongoTemplate.findById(id, DrivingPatternSegment.class);
+        if (segment != null) {
+            for (DrivingPattern row : PatternSegmentCodec.decode(userId, segment.getData())) merged.put(row.getId(), row);
+        } else {
+            segment = new DrivingPatternSegment();
+            segment.setId(id);
+            segment.setUserId(userId);
+        }
+        for (DrivingPattern row : rows) merged.put(row.getId(), row);
+
+        List<DrivingPattern> sorted = new ArrayList<>(merged.values());
+        sorted.sort(ORDER);
+        segment.setFrom(sorted.get(0).getRecordedAt());
+        segment.setTo(sorted.get(sorted.size() - 1).getRecordedAt());
+        segment.setCount(sorted.size());
+        segment.setData(PatternSegmentCodec.encode(sorted));
+        segment.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(segment);
+    }
+
+    /** 첫 기록이 before 전인 세그먼트들 (_id 순, afterId 다음부터). 사용 후 닫아야 한다 */
+    public Stream<DrivingPatternSegment> segmentsBefore(LocalDateTime before, String afterId) {
+        Criteria criteria = Criteria.where("from").lt(before);
+        if (afterId != null) criteria.and("_id").gt(afterId);
+        return mongoTemplate.stream(new Query(criteria).with(Sort.by("_id")), DrivingPatternSegment.class);
+    }
+
+    public List<DrivingPattern> decode(DrivingPatternSegment segment) {
+        return PatternSegmentCodec.decode(segment.getUserId(), segment.getData());
+    }
+
+    /** 세그먼트를 남은 기록으로 다시 쓴다. 남은 기록이 없으면 지운다 (rows는 (recordedAt, id) 순) */
+    public void rewrite(DrivingPatternSegment segment, List<DrivingPattern> rows) {
+        if (rows.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(segment.getId())), DrivingPatternSegment.class);
+            return;
+        }
+        segment.setFrom(rows.get(0).getRecordedAt());
+        segment.setTo(rows.get(rows.size() - 1).getRecordedAt());
+        segment.setCount(rows.size());
+        segment.setData(PatternSegmentCodec.encode(rows));
+        segment.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(segment);
+    }
+
+    /**
+     * 보관된 기록을 (recordedAt, id) 순으로 읽는다. 세그먼트 하나씩 풀어 흘려보내므로 메모리는 세그먼트 하나 크기다.
+     * 사용 후 닫아야 한다.
+     * @param from     이 시각부터 (포함, null이면 처음부터)
+     * @param to       이 시각 전까지 (미포함, null이면 끝까지)
+     * @param after    이 기록 다음부터 (커서, null이면 처음부터)
+     */
+    public Stream<DrivingPattern> stream(String userId, LocalDateTime from, LocalDateTime to, DrivingPattern after) {
+        LocalDateTime lower = from;
+        if (after != null && (lower == null || after.getRecordedAt().isAfter(lower))) lower = after.getRecordedAt();
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (lower != null) criteria.and("to").gte(lower);
+        if (to != null) criteria.and("from").lt(to);
+        Query query = new Query(criteria).with(Sort.by("from"));
+
+        return mongoTemplate.stream(query, DrivingPatternSegment.class)
+                .flatMap(segment -> PatternSegmentCodec.decode(userId, segment.getData()).stream())
+                .filter(row -> (from == null || !row.getRecordedAt().isBefore(from))
+                        && (to == null || row.getRecordedAt().isBefore(to))
+                        && (after == null || ORDER.compare(row, after) > 0));
+    }
+}
@@ -0,0 +1,203 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.model.JobRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 오래된 운전 기록 보관 작업. (gildong.archive.enabled=true 일 때 매일 04시 KST)
+ *
+ *  - age-days보다 오래된 달의 기록을 (userId, recordedAt, _id) 순으로 읽어 사용자 × 월 세그먼트로 압축 저장하고
+ *    (DrivingPatternArchive.append), 저장이 끝난 기록만 원본 컬렉션에서 지운다
+ *  - 세그먼트 저장 후 삭제 전에 멈추면 다음 실행에서 같은 기록을 다시 넣는다 (세그먼트에서 id로 중복 제거)
+ *  - 실행 기록은 job_runs/job_ranges를 쓰고, 처리를 마친 마지막 userId를 checkpoint로 남겨 다른 노드가 이어받는다
+ *
+ * 주간 집계/점수 분포/사용자 누적 점수는 기록할 때 이미 갱신되어 있으므로 보관해도 바뀌지 않는다.
+ */
+@Component
+public class DrivingPatternArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingPatternArchiver.class);
+    public static final String JOB_NAME = "driving-pattern-archive";
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final DrivingPatternArchive archive;
+    private final JobRunService jobRunService;
+    private final boolean enabled;
+    private final int ageDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DrivingPatternArchiver(MongoTemplate mongoTemplate,
+                                  DrivingPatternArchive archive,
+                                  JobRunService jobRunService,
+                                  @Value("${gildong.archive.enabled:false}") boolean enabled,
+                                  @Value("${gildong.archive.age-days:365}") int ageDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.archive = archive;
+        this.jobRunService = jobRunService;
+        this.enabled = enabled;
+        this.ageDays = Math.max(30, ageDays);
+    }
+
+    /** 꺼져 있으면 예약 실행, 이어받기, 수동 실행 모두 하지 않는다 */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(cron = "0 0 4 * * *", zone = "Asia/Seoul")
+    public void archiveDaily() {
+        if (enabled) archive(LocalDate.now());
+    }
+
+    /**
+     * 실행 기준 날짜 확인. 오늘 이후 날짜는 보관 경계를 앞당겨 최근 기록을 (0.1점 단위로 줄여) 세그먼트로 옮기고
+     * 원본에서 지우므로 거부한다. (지난 날짜는 경계가 더 과거라 스케줄 실행보다 적게 옮길 뿐이다)
+     */
+    public void checkRunDate(LocalDate runDate) {
+        if (runDate.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("date는 오늘(" + LocalDate.now() + ") 이후일 수 없습니다.");
+        }
+    }
+
+    /** 끝나지 않은 보관 실행이 있으면 checkpoint 다음부터 이어서 처리한다. */
+    @Scheduled(fixedDelayString = "${gildong.jobs.steal-interval-ms:30000}")
+    public void helpUnfinishedRuns() {
+        if (!enabled) return;
+        for (LocalDate runDate : jobRunService.findOpenRunDates(JOB_NAME)) {
+            if (runDate.isAfter(LocalDate.now())) continue;
+            if (!running.compareAndSet(false, true)) return;
+            try {
+                workRange(runDate);
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * runDate 기준 보관 실행. 같은 날 완료된 실행은 다시 하지 않는다. (수동 실행은 컨트롤러가 isEnabled를 먼저 확인)
+     * runDate가 오늘 이후면 IllegalArgumentException.
+     * @return 이 노드가 실제로 처리했으면 true
+     */
+    public boolean archive(LocalDate runDate) {
+        checkRunDate(runDate);
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Job {} already running on this node", JOB_NAME);
+            return false;
+        }
+        try {
+            if (!jobRunService.open(JOB_NAME, runDate, 1)) {
+                logger.info("Job {} for {} already completed", JOB_NAME, runDate);
+                return false;
+            }
+            return workRange(runDate);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean workRange(LocalDate runDate) {
+        JobRange range = jobRunService.claimRange(JOB_NAME, runDate);
+        if (range == null) return false;
+        boolean done = false;
+        try {
+            done = archiveRange(range, cutoffOf(runDate));
+        } catch (RuntimeException e) {
+            logger.error("Job {} for {} failed", JOB_NAME, runDate, e);
+        } finally {
+            jobRunService.finishRange(range, done);
+        }
+        return true;
+    }
+
+    /** 이 시각 전 기록을 보관한다: runDate - age-days가 속한 달의 1일 0시 (달 단위로 자른다) */
+    LocalDateTime cutoffOf(LocalDate runDate) {
+        return runDate.minusDays(ageDays).withDayOfMonth(1).atStartOfDay();
+    }
+
+    private boolean archiveRange(JobRange range, LocalDateTime cutoff) {
+        // checkpoint가 없으면 "" 다음부터 = userId가 있는 모든 기록
+        Criteria criteria = Criteria.where("recordedAt").lt(cutoff)
+                .and("userId").gt(range.getCheckpoint() != null ? range.getCheckpoint() : "");
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("userId"), Sort.Order.asc("recordedAt"), Sort.Order.asc("_id")))
+                .cursorBatchSize(DELETE_BATCH_SIZE);
+
+        long archived = 0;
+        long sinceCheckpoint = 0;
+        long lastRenewedAt = System.currentTimeMillis();
+        String currentUser = null;
+        YearMonth currentMonth = null;
+        List<DrivingPattern> segment = new ArrayList<>();
+        try (Stream<DrivingPattern> rows = mongoTemplate.stream(query, DrivingPattern.class)) {
+            Iterator<DrivingPattern> it = rows.iterator();
+            while (it.hasNext()) {
+                DrivingPattern row = it.next();
+                YearMonth month = YearMonth.from(row.getRecordedAt());
+                if (!row.getUserId().equals(currentUser) || !month.equals(currentMonth)) {
+                    archived += flush(currentUser, currentMonth, segment);
+                    sinceCheckpoint += segment.size();
+                    segment.clear();
+
+                    // 리스 기간의 1/3이 지났으면 연장: 사용자가 바뀌었으면 (앞 사용자는 끝났으므로) checkpoint와 함께
+                    if (currentUser != null
+                            && System.currentTimeMillis() - lastRenewedAt > jobRunService.getRangeLeaseMillis() / 3) {
+                        boolean kept = row.getUserId().equals(currentUser)
+                                ? jobRunService.renewRange(range)
+                                : jobRunService.checkpointRange(range, currentUser, sinceCheckpoint);
+                        if (!kept) {
+                            logger.warn("Job {} was taken over by another node", JOB_NAME);
+                            return false;
+                        }
+                        if (!row.getUserId().equals(currentUser)) sinceCheckpoint = 0;
+                        lastRenewedAt = System.currentTimeMillis();
+                    }
+                    currentUser = row.getUserId();
+                    currentMonth = month;
+                }
+                segment.add(row);
+            }
+        }
+        archived += flush(currentUser, currentMonth, segment);
+        sinceCheckpoint += segment.size();
+        if (currentUser != null && !jobRunService.checkpointRange(range, currentUser, sinceCheckpoint)) {
+            return false;
+        }
+        logger.info("Job {} archived {} patterns recorded before {}", JOB_NAME, archived, cutoff);
+        return true;
+    }
+
+    /** 한 사용자의 한 달치를 세그먼트에 넣고 원본에서 지운다 */
+    private int flush(String userId, YearMonth month, List<DrivingPattern> rows) {
+        if (userId == null || rows.isEmpty()) return 0;
+        archive.append(userId, month, rows);
+        for (int from = 0; from < rows.size(); from += DELETE_BATCH_SIZE) {
+            List<String> ids = rows.subList(from, Math.min(from + DELETE_BATCH_SIZE, rows.size()))
+                    .stream()
+                    .map(DrivingPattern::getId)
+                    .collect(Collectors.toList());
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), DrivingPattern.class);
+        }
+        return rows.size();
+    }
+}
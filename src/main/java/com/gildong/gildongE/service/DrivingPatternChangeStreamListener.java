@@ -2,77 +2,202 @@
 package com.gildong.gildongE.service;
 
 import com.gildong.gildongE.dto.AlertDto;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PostConstruct;
-import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.Date;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class DrivingPatternChangeStreamListener {
 
+    private static final Logger logger = LoggerFactory.getLogger(DrivingPatternChangeStreamListener.class);
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final long REOPEN_DELAY_MILLIS = 1000L;
+
     private final AlertService alertService;
+    private final AlertRuleEngine ruleEngine;
+    private final DrivingScoreTrendDetector trendDetector;
+    private final ChangeStreamMetrics metrics;
+    private final DrivingPatternStorage storage;
     private final MongoClient mongoClient;
+    private final ChangeStreamTokenStore tokenStore;
+
+    // 리더가 바뀔 때마다 증가. 자신의 세대가 아니게 된 감시 루프는 스스로 종료한다.
+    private final AtomicLong watchGeneration = new AtomicLong();
 
     public DrivingPatternChangeStreamListener(AlertService alertService,
-                                              MongoClient mongoClient) {
+                                              AlertRuleEngine ruleEngine,
+                                              DrivingScoreTrendDetector trendDetector,
+                                              ChangeStreamMetrics metrics,
+                                              DrivingPatternStorage storage,
+                                              MongoClient mongoClient,
+                                              ChangeStreamTokenStore tokenStore) {
         this.alertService = alertService;
+        this.ruleEngine = ruleEngine;
+        this.trendDetector = trendDetector;
+        this.metrics = metrics;
+        this.storage = storage;
         this.mongoClient = mongoClient;
+        this.tokenStore = tokenStore;
     }
 
     /**
-     * 애플리케이션 로딩 후 자동으로 Change Stream 구독 시작
+     * 리더가 되면 Change Stream 구독을 시작하고, 리더를 잃으면 구독을 멈춘다.
+     * (여러 노드가 동시에 구독해 같은 알림이 중복 발송되는 것을 막는다)
+     * 시계열 저장 방식은 Change Stream을 지원하지 않으므로 대신 outbox를 구독한다 (onPatternRecorded 참고).
      */
-    @PostConstruct
-    public void init() {
+    @EventListener
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        long generation = watchGeneration.incrementAndGet();
+        if (!event.isLeader()) return;
+
         CompletableFuture.runAsync(() -> {
             MongoDatabase database = mongoClient.getDatabase("gildongE_db");  // DB 이름이 "gil"이라고 가정
-            watchDrivingPatterns(database);
+            watchDrivingPatterns(database, storage.getWatchedCollectionName(), generation, event.getFencingToken());
         });
     }
 
-    private void watchDrivingPatterns(MongoDatabase database) {
-        MongoCollection<Document> patternsColl = database.getCollection("driving_pattern");
-
-        MongoCursor<ChangeStreamDocument<Document>> cursor =
-                patternsColl.watch(
-                        Arrays.asList(
-                                Aggregates.match(
-                                        Filters.in("operationType", Arrays.asList("insert"))
-                                )
-                        )
-                ).iterator();
-
-        while (cursor.hasNext()) {
-            ChangeStreamDocument<Document> change = cursor.next();
-            Document fullDoc = change.getFullDocument();
-            if (fullDoc == null) continue;
-
-            // drivingScore는 Double 형태로 들어오므로 float로 변환
-            float score = fullDoc.getDouble("drivingScore").floatValue();
-            if (score <= 50.0f) {
-                AlertDto alert = new AlertDto();
-                alert.setId(UUID.randomUUID().toString());
-                alert.setUserId(fullDoc.getString("userId"));
-                alert.setType("DRIVING_SCORE_LOW");
-                alert.setTitle("안전");
-                alert.setMessage(
-                        "최근 운전 점수가 " + score + "점으로 낮게 나왔습니다. " +
-                                "부드러운 운전으로 점수를 올려볼까요?"
-                );
-                alert.setCreatedAt(Instant.now());
-                alertService.pushAlert(alert);
+    /**
+     * 이벤트 하나의 처리 실패는 기록하고 다음 이벤트로 넘어간다.
+     * 커서가 끊기면 마지막 resume token부터 다시 연다 (token이 oplog에서 밀려났으면 지금부터).
+     * token은 ChangeStreamTokenStore에 구독하는 컬렉션 이름으로 저장해 다음 리더가 이어서 연다.
+     * (저장 방식을 바꾸면 다른 컬렉션의 token으로 열지 않도록 컬렉션별로 따로 둔다)
+     */
+    private void watchDrivingPatterns(MongoDatabase database, String collection, long generation, long fencingToken) {
+        MongoCollection<Document> patternsColl = database.getCollection(collection);
+        // 이전 리더가 마지막으로 저장한 위치부터 (없으면 지금부터)
+        BsonDocument resumeToken = tokenStore.load(collection);
+        BsonDocument savedToken = resumeToken;
+        long savedAt = System.currentTimeMillis();
+
+        while (watchGeneration.get() == generation) {
+            ChangeStreamIterable<Document> stream = patternsColl.watch(
+                            Arrays.asList(
+                                    Aggregates.match(
+                                            Filters.in("operationType", Arrays.asList("insert"))
+                                    )
+                            )
+                    )
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            if (resumeToken != null) stream = stream.resumeAfter(resumeToken);
+
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                logger.info("Change stream opened: collection={}, resumed={}", collection, resumeToken != null);
+                metrics.register("driving_pattern");
+
+                while (watchGeneration.get() == generation) {
+                    // 이벤트가 없으면 최대 1초 후 null이 반환되어 리더 여부를 다시 확인한다
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        try {
+                            onChange(change);
+                        } catch (RuntimeException e) {
+                            metrics.recordError("driving_pattern", "handler");
+                            logger.error("Failed to handle driving pattern change: {}", change.getDocumentKey(), e);
+                        }
+                    }
+                    // 처리를 마친 뒤 token을 옮긴다 (이벤트가 없어도 커서의 token은 앞으로 간다)
+                    if (cursor.getResumeToken() != null) resumeToken = cursor.getResumeToken();
+                    if (resumeToken != savedToken
+                            && System.currentTimeMillis() - savedAt >= ChangeStreamTokenStore.SAVE_INTERVAL_MILLIS) {
+                        tokenStore.save(collection, resumeToken, fencingToken);
+                        savedToken = resumeToken;
+                        savedAt = System.currentTimeMillis();
+                    }
+                }
+            } catch (MongoException e) {
+                metrics.recordError("driving_pattern", "stream");
+                if (e instanceof MongoCommandException
+                        && ((MongoCommandException) e).getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    logger.error("Change stream history lost, restarting from now: collection={}", collection, e);
+                    resumeToken = null;
+                    tokenStore.clear(collection, fencingToken);
+                } else {
+                    logger.warn("Change stream interrupted, reopening: collection={}", collection, e);
+                }
+                try {
+                    Thread.sleep(REOPEN_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
         }
     }
+
+    /**
+     * 시계열 저장 방식: 기록을 받은 노드가 저장한 문서를 outbox에 넣는다. (queuedAt은 TTL 기준)
+     * 알림은 리더가 outbox insert를 구독해 일반 컬렉션과 같은 경로로 한 번만 처리하고, 추세 상태도 리더 한 곳에 쌓인다.
+     * 요청 스레드에서 바로 넣어, 응답한 기록은 리더가 바뀌어도 이어서 처리된다.
+     */
+    @EventListener
+    public void onPatternRecorded(DrivingPatternRecordedEvent event) {
+        if (!storage.isTimeSeries() || event.getDocuments().isEmpty()) return;
+        Date queuedAt = new Date();
+        List<Document> queued = new ArrayList<>(event.getDocuments().size());
+        for (Document stored : event.getDocuments()) {
+            queued.add(new Document(stored).append("queuedAt", queuedAt));
+        }
+        try {
+            mongoClient.getDatabase("gildongE_db").getCollection(DrivingPatternStorage.OUTBOX_COLLECTION)
+                    .insertMany(queued, new InsertManyOptions().ordered(false));
+        } catch (MongoException e) {
+            // 기록은 이미 저장되었으므로 요청은 실패시키지 않는다 (이 기록들의 알림만 빠진다)
+            metrics.recordError("driving_pattern", "outbox");
+            logger.error("Failed to queue {} recorded driving patterns", queued.size(), e);
+        }
+    }
+
+    /**
+     * 이벤트 하나를 처리하고 계측한다. (리플레이 하네스도 같은 경로를 사용)
+     */
+    void onChange(ChangeStreamDocument<Document> change) {
+        long start = System.nanoTime();
+        handleChange(change);
+        metrics.recordEvent("driving_pattern", change, start);
+    }
+
+    private void handleChange(ChangeStreamDocument<Document> change) {
+        // 알림 조건(점수 임계값 등)은 alert_rules의 규칙으로 평가한다
+        for (AlertDto alert : ruleEngine.evaluate("driving_pattern", change)) {
+            alertService.pushAlert(alert);
+        }
+
+        // 연속 저점수 등 추세 알림은 사용자별 상태로 판단한다
+        Document fullDoc = change.getFullDocument();
+        if (fullDoc == null) return;
+        String userId = fullDoc.getString("userId");
+        Double score = fullDoc.getDouble("drivingScore");
+        Date recordedAt = fullDoc.getDate("recordedAt");
+        if (userId == null || score == null) return;
+
+        AlertDto trendAlert = trendDetector.onScore(userId, score.floatValue(),
+                recordedAt != null ? LocalDateTime.ofInstant(recordedAt.toInstant(), ZoneId.systemDefault()) : null);
+        if (trendAlert != null) {
+            alertService.pushAlert(trendAlert);
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package com.gildong.gildongE.service;
+
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * 운전 패턴이 저장되었을 때 DrivingPatternService가 발행하는 이벤트. (요청 하나에 한 번, 일괄 기록이면 여러 건)
+ * 시계열 저장 방식에서는 Change Stream을 쓸 수 없으므로 리스너가 이 이벤트로 받은 기록을 outbox에 넣는다.
+ */
+public class DrivingPatternRecordedEvent {
+    private final List<Document> documents;
+
+    public DrivingPatternRecordedEvent(List<Document> documents) {
+        this.documents = documents;
+    }
+
+    /** 저장된 문서들 (컬렉션에 들어간 형태 그대로) */
+    public List<Document> getDocuments() {
+        return documents;
+    }
+}
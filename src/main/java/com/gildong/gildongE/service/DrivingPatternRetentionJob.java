@@ -0,0 +1,334 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingDailyRollup;
+import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.model.DrivingPatternSegment;
+import com.gildong.gildongE.model.JobRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 운전 기록 보존 작업 (RetentionPolicy, gildong.retention.enabled=true 일 때 매일 04시 30분 KST).
+ *
+ * 실행 하나를 단계별 범위 3개로 나눠 (job_ranges, rangeIndex = 단계) 노드들이 나눠 처리한다.
+ *  0) 원본 컬렉션: raw-days 전 기록을 (사용자, 날짜)별로 모아 driving_daily_rollup에 더하고 지운다
+ *  1) 보관 세그먼트: 같은 기준으로 세그먼트 안의 오래된 기록을 일별 집계로 옮기고 세그먼트를 다시 쓴다
+ *  2) 일별 집계: daily-days 전 주의 일별 집계를 지운다 (주간 집계는 그대로 남는다)
+ *
+ * 원본을 지우기 전에 일별 집계를 갱신하고, 집계 문서에 실행/단계(lastRun)를 남겨
+ * 중단 후 같은 실행을 이어할 때 같은 날짜를 두 번 더하지 않는다.
+ * 주간 평균(주간 집계)과 사용자 평균(누적 합계/건수), 점수 분포는 기록할 때 갱신된 값이라 압축 전후가 같다.
+ */
+@Component
+public class DrivingPatternRetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingPatternRetentionJob.class);
+    public static final String JOB_NAME = "driving-pattern-retention";
+
+    static final int PHASE_RAW = 0;
+    static final int PHASE_ARCHIVE = 1;
+    static final int PHASE_DAILY = 2;
+    private static final int PHASES = 3;
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final DrivingPatternArchive archive;
+    private final JobRunService jobRunService;
+    private final RetentionPolicy policy;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DrivingPatternRetentionJob(MongoTemplate mongoTemplate,
+                                      DrivingPatternArchive archive,
+                                      JobRunService jobRunService,
+                                      RetentionPolicy policy) {
+        this.mongoTemplate = mongoTemplate;
+        this.archive = archive;
+        this.jobRunService = jobRunService;
+        this.policy = policy;
+    }
+
+    @Scheduled(cron = "0 30 4 * * *", zone = "Asia/Seoul")
+    public void compactDaily() {
+        if (policy.isEnabled()) run(today());
+    }
+
+    /** 꺼져 있으면 예약 실행, 이어받기, 수동 실행 모두 하지 않는다 */
+    public boolean isEnabled() {
+        return policy.isEnabled();
+    }
+
+    /** 분석 시간대 오늘 (스케줄 실행 기준 날짜) */
+    public LocalDate today() {
+        return LocalDate.now(policy.getZone());
+    }
+
+    /**
+     * 실행 기준 날짜 확인. 오늘 이후 날짜는 보존 경계를 앞당겨 최근 원본/일별 집계까지 되돌릴 수 없이 지우므로 거부한다.
+     * (지난 날짜는 경계가 더 과거라 스케줄 실행보다 적게 처리할 뿐이다)
+     */
+    public void checkRunDate(LocalDate runDate) {
+        if (runDate.isAfter(today())) {
+            throw new IllegalArgumentException("date는 오늘(" + today() + ") 이후일 수 없습니다.");
+        }
+    }
+
+    /** 끝나지 않은 실행이 있으면 남은 단계를 가져가 이어서 처리한다. */
+    @Scheduled(fixedDelayString = "${gildong.jobs.steal-interval-ms:30000}")
+    public void helpUnfinishedRuns() {
+        if (!policy.isEnabled()) return;
+        for (LocalDate runDate : jobRunService.findOpenRunDates(JOB_NAME)) {
+            if (runDate.isAfter(today())) continue;
+            if (!running.compareAndSet(false, true)) return;
+            try {
+                while (workRange(runDate)) {
+                    // 남은 단계가 없을 때까지
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * runDate 기준 보존 작업. 같은 날 완료된 실행은 다시 하지 않는다. (수동 실행은 컨트롤러가 isEnabled를 먼저 확인)
+     * runDate가 오늘 이후면 IllegalArgumentException.
+     * @return 이 노드가 한 단계라도 처리했으면 true
+     */
+    public boolean run(LocalDate runDate) {
+        checkRunDate(runDate);
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Job {} already running on this node", JOB_NAME);
+            return false;
+        }
+        try {
+            if (!jobRunService.open(JOB_NAME, runDate, PHASES)) {
+                logger.info("Job {} for {} already completed", JOB_NAME, runDate);
+                return false;
+            }
+            boolean worked = false;
+            while (workRange(runDate)) worked = true;
+            return worked;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean workRange(LocalDate runDate) {
+        JobRange range = jobRunService.claimRange(JOB_NAME, runDate);
+        if (range == null) return false;
+        boolean done = false;
+        try {
+            String runKey = runDate + ":" + range.getRangeIndex();
+            switch (range.getRangeIndex()) {
+                case PHASE_RAW:
+                    done = compactRaw(range, runKey, policy.rawCutoff(runDate));
+                    break;
+                case PHASE_ARCHIVE:
+                    done = compactArchive(range, runKey, policy.rawCutoff(runDate));
+                    break;
+                case PHASE_DAILY:
+                    done = dropDaily(range, policy.dailyCutoff(runDate));
+                    break;
+                default:
+                    done = true;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Job {} for {} phase {} failed", JOB_NAME, runDate, range.getRangeIndex(), e);
+        } finally {
+            jobRunService.finishRange(range, done);
+        }
+        return true;
+    }
+
+    /** 0) 원본 컬렉션의 cutoff 전 기록 → 일별 집계 (사용자 단위 checkpoint) */
+    private boolean compactRaw(JobRange range, String runKey, LocalDate cutoffDay) {
+        LocalDateTime cutoff = policy.toRecordedAt(cutoffDay);
+        // checkpoint가 없으면 "" 다음부터 = userId가 있는 모든 기록
+        Criteria criteria = Criteria.where("recordedAt").lt(cutoff)
+                .and("userId").gt(range.getCheckpoint() != null ? range.getCheckpoint() : "");
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("userId"), Sort.Order.asc("recordedAt"), Sort.Order.asc("_id")))
+                .cursorBatchSize(BATCH_SIZE);
+
+        Lease lease = new Lease(range);
+        long compacted = 0;
+        String currentUser = null;
+        LocalDate currentDay = null;
+        TreeMap<LocalDate, double[]> days = new TreeMap<>();
+        List<String> ids = new ArrayList<>();
+        try (Stream<DrivingPattern> rows = mongoTemplate.stream(query, DrivingPattern.class)) {
+            Iterator<DrivingPattern> it = rows.iterator();
+            while (it.hasNext()) {
+                DrivingPattern row = it.next();
+                LocalDate day = policy.dayOf(row.getRecordedAt());
+                boolean userChanged = !row.getUserId().equals(currentUser);
+                // 날짜가 바뀔 때만 내보내 (사용자, 날짜) 하나가 두 번에 나뉘어 더해지지 않게 한다
+                if (userChanged || (!day.equals(currentDay) && ids.size() >= BATCH_SIZE)) {
+                    compacted += flushRaw(currentUser, days, ids, runKey);
+                    if (!lease.keep(userChanged ? currentUser : null, compacted)) return false;
+                }
+                currentUser = row.getUserId();
+                currentDay = day;
+                addTo(days, day, row.getDrivingScore());
+                ids.add(row.getId());
+            }
+        }
+        compacted += flushRaw(currentUser, days, ids, runKey);
+        if (currentUser != null && !lease.checkpoint(currentUser, compacted)) return false;
+        logger.info("Job {} compacted {} raw patterns recorded before {}", JOB_NAME, compacted, cutoffDay);
+        return true;
+    }
+
+    private int flushRaw(String userId, TreeMap<LocalDate, double[]> days, List<String> ids, String runKey) {
+        if (userId == null || ids.isEmpty()) return 0;
+        // 집계를 먼저 갱신하고 원본을 지운다 (반대 순서면 중단 시 기록이 사라진다)
+        days.forEach((day, acc) -> incDaily(userId, day, acc, runKey));
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            mongoTemplate.remove(new Query(Criteria.where("_id")
+                    .in(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())))), DrivingPattern.class);
+        }
+        int n = ids.size();
+        days.clear();
+        ids.clear();
+        return n;
+    }
+
+    /** 1) 보관 세그먼트 안의 cutoff 전 기록 → 일별 집계 (세그먼트 단위 checkpoint) */
+    private boolean compactArchive(JobRange range, String runKey, LocalDate cutoffDay) {
+        LocalDateTime cutoff = policy.toRecordedAt(cutoffDay);
+        Lease lease = new Lease(range);
+        long compacted = 0;
+        String lastId = null;
+        try (Stream<DrivingPatternSegment> segments = archive.segmentsBefore(cutoff, range.getCheckpoint())) {
+            Iterator<DrivingPatternSegment> it = segments.iterator();
+            while (it.hasNext()) {
+                DrivingPatternSegment segment = it.next();
+                TreeMap<LocalDate, double[]> days = new TreeMap<>();
+                List<DrivingPattern> remaining = new ArrayList<>();
+                for (DrivingPattern row : archive.decode(segment)) {
+                    if (row.getRecordedAt().isBefore(cutoff)) {
+                        addTo(days, policy.dayOf(row.getRecordedAt()), row.getDrivingScore());
+                        compacted++;
+                    } else {
+                        remaining.add(row);
+                    }
+                }
+                days.forEach((day, acc) -> incDaily(segment.getUserId(), day, acc, runKey));
+                archive.rewrite(segment, remaining);
+                lastId = segment.getId();
+                if (!lease.keep(lastId, compacted)) return false;
+            }
+        }
+        if (lastId != null && !lease.checkpoint(lastId, compacted)) return false;
+        logger.info("Job {} compacted {} archived patterns recorded before {}", JOB_NAME, compacted, cutoffDay);
+        return true;
+    }
+
+    /** 2) cutoff(월요일) 전 일별 집계 삭제 */
+    private boolean dropDaily(JobRange range, LocalDate cutoff) {
+        Lease lease = new Lease(range);
+        long dropped = 0;
+        while (true) {
+            Query batch = new Query(Criteria.where("day").lt(cutoff)).limit(BATCH_SIZE);
+            batch.fields().include("_id");
+            List<String> ids = mongoTemplate.find(batch, DrivingDailyRollup.class).stream()
+                    .map(DrivingDailyRollup::getId)
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) break;
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), DrivingDailyRollup.class);
+            dropped += ids.size();
+            if (!lease.keep(null, dropped)) return false;
+        }
+        logger.info("Job {} dropped {} daily rollups before {}", JOB_NAME, dropped, cutoff);
+        return true;
+    }
+
+    /**
+     * (사용자, 날짜) 일별 집계에 더한다. 같은 실행/단계(runKey)로 이미 더했으면 건너뛴다:
+     * lastRun이 runKey인 문서는 조건에 맞지 않아 upsert가 같은 _id로 새 문서를 넣으려다 중복 키로 끝난다.
+     */
+    private void incDaily(String userId, LocalDate day, double[] acc, String runKey) {
+        Query query = new Query(Criteria.where("_id").is(userId + ":" + day).and("lastRun").ne(runKey));
+        Update update = new Update()
+                .setOnInsert("userId", userId)
+                .setOnInsert("day", day)
+                .inc("sum", acc[0])
+                .inc("count", (long) acc[1])
+                .min("min", (float) acc[2])
+                .max("max", (float) acc[3])
+                .set("lastRun", runKey)
+                .set("updatedAt", LocalDateTime.now());
+        try {
+            mongoTemplate.upsert(query, update, DrivingDailyRollup.class);
+        } catch (DuplicateKeyException ex) {
+            logger.debug("Daily rollup {}:{} already includes run {}", userId, day, runKey);
+        }
+    }
+
+    // 날짜 → {합계, 건수, 최저, 최고}
+    private static void addTo(Map<LocalDate, double[]> days, LocalDate day, float score) {
+        double[] acc = days.computeIfAbsent(day,
+                key -> new double[]{0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY});
+        acc[0] += score;
+        acc[1]++;
+        acc[2] = Math.min(acc[2], score);
+        acc[3] = Math.max(acc[3], score);
+    }
+
+    /** 범위 리스 유지: 리스 기간의 1/3이 지났으면 checkpoint(있으면) 또는 연장 */
+    private final class Lease {
+        private final JobRange range;
+        private long lastRenewedAt = System.currentTimeMillis();
+        private long reported;
+
+        Lease(JobRange range) {
+            this.range = range;
+        }
+
+        boolean keep(String checkpoint, long processed) {
+            if (System.currentTimeMillis() - lastRenewedAt <= jobRunService.getRangeLeaseMillis() / 3) return true;
+            return checkpoint != null ? checkpoint(checkpoint, processed) : renew();
+        }
+
+        boolean checkpoint(String checkpoint, long processed) {
+            boolean kept = jobRunService.checkpointRange(range, checkpoint, processed - reported);
+            if (kept) {
+                reported = processed;
+                lastRenewedAt = System.currentTimeMillis();
+            } else {
+                logger.warn("Job {} phase {} was taken over by another node", JOB_NAME, range.getRangeIndex());
+            }
+            return kept;
+        }
+
+        private boolean renew() {
+            boolean kept = jobRunService.renewRange(range);
+            if (kept) {
+                lastRenewedAt = System.currentTimeMillis();
+            } else {
+                logger.warn("Job {} phase {} was taken over by another node", JOB_NAME, range.getRangeIndex());
+            }
+            return kept;
+        }
+    }
+}
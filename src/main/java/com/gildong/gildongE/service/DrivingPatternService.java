@@ -1,32 +1,132 @@
 package com.gildong.gildongE.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gildong.gildongE.dto.BulkIngestResponse;
+import com.gildong.gildongE.dto.BulkItemResult;
+import com.gildong.gildongE.dto.DrivingPatternPage;
 import com.gildong.gildongE.dto.DrivingPatternRequest;
 import com.gildong.gildongE.dto.DrivingPatternResponse;
+import com.gildong.gildongE.dto.ScoreBucketResponse;
+import com.gildong.gildongE.dto.ScoreStatsResponse;
+import com.gildong.gildongE.dto.ScoreTrendPoint;
+import com.gildong.gildongE.dto.ScoreWindowsResponse;
+import com.gildong.gildongE.dto.UserWeeklyScore;
 import com.gildong.gildongE.dto.WeeklyAverageResponse;
 import com.gildong.gildongE.exception.ResourceNotFoundException;
+import com.gildong.gildongE.model.DrivingDailyRollup;
 import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.model.DrivingScoreHistogram;
+import com.gildong.gildongE.model.DrivingWeeklyRollup;
 import com.gildong.gildongE.model.User;
 import com.gildong.gildongE.repository.DrivingPatternRepository;
+import com.gildong.gildongE.repository.DrivingWeeklyRollupRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.TemporalAdjusters;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DrivingPatternService {
     private final DrivingPatternRepository patternRepo;
     private final UserService userService;
+    private final MongoTemplate mongoTemplate;
+    private final DrivingWeeklyRollupRepository rollupRepo;
+    private final DrivingPatternStorage storage;
+    private final DrivingPatternArchive archive;
+    private final DrivingPatternArchiver archiver;
+    private final RetentionPolicy retention;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ZoneId zone;
+    private final int bulkMaxItems;
+    private final int pageDefaultSize;
+    private final int pageMaxSize;
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingPatternService.class);
+
+    private static final Set<String> BUCKET_UNITS = Set.of("day", "week", "month");
+    private static final Map<String, Integer> WINDOWS = Map.of(
+            "day", ScoreWindowEngine.DAY,
+            "week", ScoreWindowEngine.WEEK,
+            "month", ScoreWindowEngine.MONTH,
+            "rolling", ScoreWindowEngine.ROLLING,
+            "ewma", ScoreWindowEngine.EWMA);
+    private static final int EXPORT_BATCH_SIZE = 500;
 
     public DrivingPatternService(DrivingPatternRepository patternRepo,
-                                 UserService userService) {
+                                 UserService userService,
+                                 MongoTemplate mongoTemplate,
+                                 DrivingWeeklyRollupRepository rollupRepo,
+                                 DrivingPatternStorage storage,
+                                 DrivingPatternArchive archive,
+                                 DrivingPatternArchiver archiver,
+                                 RetentionPolicy retention,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 @Value("${gildong.analytics.zone:Asia/Seoul}") String zone,
+                                 @Value("${gildong.patterns.bulk-max-items:1000}") int bulkMaxItems,
+                                 @Value("${gildong.patterns.page-default-size:100}") int pageDefaultSize,
+                                 @Value("${gildong.patterns.page-max-size:1000}") int pageMaxSize) {
         this.patternRepo = patternRepo;
         this.userService = userService;
+        this.mongoTemplate = mongoTemplate;
+        this.rollupRepo = rollupRepo;
+        this.storage = storage;
+        this.archive = archive;
+        this.archiver = archiver;
+        this.retention = retention;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.zone = ZoneId.of(zone);
+        this.bulkMaxItems = Math.max(1, bulkMaxItems);
+        this.pageMaxSize = Math.max(1, pageMaxSize);
+        this.pageDefaultSize = Math.min(Math.max(1, pageDefaultSize), this.pageMaxSize);
     }
 
     /** 운전 패턴 기록 저장 */
@@ -37,59 +137,637 @@ public class DrivingPatternService {
         DrivingPattern e = new DrivingPattern();
         e.setUserId(req.getUserId());
         e.setDrivingScore(req.getDrivingScore());
-        e.setRecordedAt(LocalDateTime.now());
+        e.setRecordedAt(resolveRecordedAt(req, LocalDateTime.now(), earliestRecordedAt()));
         DrivingPattern saved = patternRepo.save(e);
 
-        // 평균 점수 갱신
-        userService.updateAvgScore(req.getUserId());
+        // 누적 합계/건수와 평균 점수 갱신 (원자적 $inc, 이력 재조회 없음)
+        userService.addScore(req.getUserId(), saved.getId(), req.getDrivingScore());
+        // 주간 집계/점수 분포 갱신
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.add(saved.getDrivingScore());
+        incWeeklyRollup(saved.getUserId(), weekStartOf(saved.getRecordedAt()), hist);
+        incUserHistogram(saved.getUserId(), hist);
+
+        // 시계열 컬렉션은 Change Stream이 없으므로 이벤트로 outbox에 넣어 리더가 알림을 처리하게 한다
+        if (storage.isTimeSeries()) {
+            Document stored = new Document();
+            mongoTemplate.getConverter().write(saved, stored);
+            eventPublisher.publishEvent(new DrivingPatternRecordedEvent(List.of(stored)));
+        }
 
         return toResponse(saved);
     }
 
+    /**
+     * 운전 패턴 일괄 기록 (JSON 배열). 한 번에 gildong.patterns.bulk-max-items 건까지.
+     */
+    public BulkIngestResponse recordPatterns(List<DrivingPatternRequest> reqs) {
+        if (reqs.size() > bulkMaxItems) {
+            throw new IllegalArgumentException("한 번에 " + bulkMaxItems + "건까지 기록할 수 있습니다. (더 많으면 NDJSON으로 보내세요)");
+        }
+        BulkIngestResponse resp = new BulkIngestResponse();
+        recordBatch(reqs, 0).forEach(resp::add);
+        return resp;
+    }
+
+    /**
+     * 운전 패턴 일괄 기록 (NDJSON, 한 줄에 DrivingPatternRequest 하나).
+     * 본문을 읽으면서 bulk-max-items 건씩 묶어 저장하므로 건수 제한이 없고, 형식이 틀린 줄만 REJECTED 된다.
+     */
+    public BulkIngestResponse recordPatterns(InputStream ndjson) throws IOException {
+        BulkIngestResponse resp = new BulkIngestResponse();
+        List<DrivingPatternRequest> batch = new ArrayList<>();
+        int batchOffset = 0;
+        int index = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            DrivingPatternRequest req;
+            try {
+                req = objectMapper.readValue(line, DrivingPatternRequest.class);
+            } catch (JsonProcessingException ex) {
+                req = null;
+            }
+            // 형식이 틀린 줄도 자리를 지켜 index가 본문 줄 순서와 맞게 한다 (recordBatch에서 REJECTED)
+            batch.add(req);
+            index++;
+            if (batch.size() == bulkMaxItems) {
+                recordBatch(batch, batchOffset).forEach(resp::add);
+                batch.clear();
+                batchOffset = index;
+            }
+        }
+        if (!batch.isEmpty()) recordBatch(batch, batchOffset).forEach(resp::add);
+        return resp;
+    }
+
+    /**
+     * 일괄 기록 한 묶음. 오프라인에서 쌓인 기록을 한 번에 올릴 때 쓴다.
+     *  - 사용자 존재 확인은 묶음 전체에 한 번
+     *  - 저장은 unordered insertMany 한 번 (실패한 항목만 REJECTED, 나머지는 저장)
+     *  - 사용자 누적 점수는 사용자당 한 번, 주간 집계는 (사용자, 주)당 한 번 갱신
+     * @param indexOffset 결과 index에 더할 값 (NDJSON을 나눠 처리할 때 본문 전체 기준 순번을 맞춘다)
+     */
+    private List<BulkItemResult> recordBatch(List<DrivingPatternRequest> reqs, int indexOffset) {
+        BulkItemResult[] results = new BulkItemResult[reqs.size()];
+        Set<String> existing = userService.findExistingUserIds(reqs.stream()
+                .map(DrivingPatternRequest::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        // 1) 항목 검증 후 문서로 변환 (ID를 미리 정해 결과에 돌려준다)
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliest = earliestRecordedAt();
+        List<DrivingPattern> valid = new ArrayList<>(reqs.size());
+        List<Integer> validIndex = new ArrayList<>(reqs.size());
+        List<Document> docs = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            DrivingPatternRequest req = reqs.get(i);
+            String error = validate(req, existing);
+            LocalDateTime recordedAt = null;
+            if (error == null) {
+                try {
+                    recordedAt = resolveRecordedAt(req, now, earliest);
+                } catch (IllegalArgumentException ex) {
+                    error = ex.getMessage();
+                }
+            }
+            if (error != null) {
+                results[i] = BulkItemResult.rejected(indexOffset + i, error);
+                continue;
+            }
+            DrivingPattern e = new DrivingPattern();
+            e.setId(new ObjectId().toHexString());
+            e.setUserId(req.getUserId());
+            e.setDrivingScore(req.getDrivingScore());
+            e.setRecordedAt(recordedAt);
+            Document doc = new Document();
+            mongoTemplate.getConverter().write(e, doc);
+            valid.add(e);
+            validIndex.add(i);
+            docs.add(doc);
+        }
+
+        // 2) 한 번에 저장 (unordered: 실패한 문서가 있어도 나머지는 저장된다)
+        Set<Integer> failed = new HashSet<>();
+        if (!docs.isEmpty()) {
+            try {
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(DrivingPattern.class))
+                        .insertMany(docs, new InsertManyOptions().ordered(false));
+            } catch (MongoBulkWriteException ex) {
+                for (BulkWriteError writeError : ex.getWriteErrors()) {
+                    failed.add(writeError.getIndex());
+                    int i = validIndex.get(writeError.getIndex());
+                    results[i] = BulkItemResult.rejected(indexOffset + i, writeError.getMessage());
+                }
+            }
+        }
+
+        // 3) 저장된 기록만 모아 사용자별/주별 집계를 한 번씩 갱신
+        Map<String, ScoreHistogram> byUser = new LinkedHashMap<>();         // userId → 분포
+        Map<String, ScoreHistogram> byWeek = new LinkedHashMap<>();         // userId|weekStart → 분포
+        Map<String, String[]> idRange = new LinkedHashMap<>();              // userId → [첫 _id, 마지막 _id]
+        List<Document> stored = new ArrayList<>(valid.size());
+        for (int k = 0; k < valid.size(); k++) {
+            if (failed.contains(k)) continue;
+            DrivingPattern e = valid.get(k);
+            int i = validIndex.get(k);
+            results[i] = BulkItemResult.created(indexOffset + i, e.getId());
+
+            byUser.computeIfAbsent(e.getUserId(), key -> new ScoreHistogram()).add(e.getDrivingScore());
+            idRange.computeIfAbsent(e.getUserId(), key -> new String[]{e.getId(), null})[1] = e.getId();
+            byWeek.computeIfAbsent(e.getUserId() + "|" + weekStartOf(e.getRecordedAt()), key -> new ScoreHistogram())
+                    .add(e.getDrivingScore());
+
+            stored.add(docs.get(k));
+        }
+        if (storage.isTimeSeries() && !stored.isEmpty()) {
+            eventPublisher.publishEvent(new DrivingPatternRecordedEvent(stored));
+        }
+        byUser.forEach((userId, h) -> {
+            String[] ids = idRange.get(userId);
+            userService.addScores(userId, ids[0], ids[1], h.getSum(), h.getCount());
+            incUserHistogram(userId, h);
+        });
+        byWeek.forEach((key, h) -> {
+            int sep = key.indexOf('|');
+            incWeeklyRollup(key.substring(0, sep), LocalDate.parse(key.substring(sep + 1)), h);
+        });
+        return Arrays.asList(results);
+    }
+
+    // 일괄 기록 항목 검증 (문제가 없으면 null)
+    private static String validate(DrivingPatternRequest req, Set<String> existingUsers) {
+        if (req == null) return "형식이 올바르지 않은 항목입니다.";
+        if (req.getUserId() == null) return "userId가 필요합니다.";
+        if (!existingUsers.contains(req.getUserId())) return "User not found with id=" + req.getUserId();
+        if (!Float.isFinite(req.getDrivingScore())) return "drivingScore가 올바르지 않습니다.";
+        return null;
+    }
+
+    // 기기가 보낸 기록 시각 (없으면 수신 시각). 서버 시각보다 미래이거나 earliest 전인 기록은 받지 않는다
+    private static LocalDateTime resolveRecordedAt(DrivingPatternRequest req, LocalDateTime now, LocalDateTime earliest) {
+        if (req.getRecordedAt() == null) return now;
+        if (req.getRecordedAt().isAfter(now.plusMinutes(5))) {
+            throw new IllegalArgumentException("recordedAt이 현재 시각보다 미래입니다.");
+        }
+        if (req.getRecordedAt().isBefore(earliest)) {
+            throw new IllegalArgumentException("recordedAt은 " + earliest + " 이후여야 합니다. (보관/보존 처리된 기간)");
+        }
+        return req.getRecordedAt();
+    }
+
+    /**
+     * 받을 수 있는 가장 이른 기록 시각: 오늘 기준 보관 경계(archive age-days)와 원본 보존 경계(retention raw-days) 중 늦은 쪽.
+     * 그 전 기간은 이미 세그먼트/일별 집계로 옮겨졌을 수 있어, 원본에 새로 넣으면 다음 실행에서 세그먼트에 다시 들어가거나
+     * 같은 날짜가 일별 집계에 두 번 더해진다. 설정을 끈 뒤에도 전에 옮겨진 기간은 그대로이므로 enabled와 관계없이 적용한다.
+     */
+    private LocalDateTime earliestRecordedAt() {
+        LocalDateTime archived = archiver.cutoffOf(LocalDate.now());
+        LocalDateTime compacted = retention.toRecordedAt(retention.rawCutoff(LocalDate.now(retention.getZone())));
+        return archived.isAfter(compacted) ? archived : compacted;
+    }
+
     /** 사용자별 모든 점수 조회 (평균 계산용) */
     public List<Float> getScoresByUserId(String userId) {
         // 사용자 존재 여부 확인
         userService.getUserById(userId);
-        return patternRepo.findByUserId(userId)
-                .stream()
-                .map(DrivingPattern::getDrivingScore)
-                .collect(Collectors.toList());
+        List<Float> scores;
+        // 보관된 기록 먼저, 그다음 원본 컬렉션
+        try (Stream<DrivingPattern> archived = archive.stream(userId, null, null, null)) {
+            scores = archived.map(DrivingPattern::getDrivingScore).collect(Collectors.toCollection(ArrayList::new));
+        }
+        patternRepo.findByUserId(userId).forEach(e -> scores.add(e.getDrivingScore()));
+        return scores;
     }
 
-    /** 사용자별 기록 전체 조회 */
-    public List<DrivingPatternResponse> listPatterns(String userId) {
+    /**
+     * 사용자별 기록 한 페이지 조회 (recordedAt, _id 오름차순 커서 페이지)
+     * userId_recordedAt_id 색인 범위만 읽으므로 이력이 길어도 페이지 조회 비용이 같다.
+     * @param from   이 시각부터 (포함, 선택)
+     * @param to     이 시각 전까지 (미포함, 선택)
+     * @param cursor 이전 페이지의 nextCursor (없으면 처음부터)
+     * @param limit  페이지 크기 (1 ~ gildong.patterns.page-max-size)
+     */
+    public DrivingPatternPage listPatterns(String userId, LocalDateTime from, LocalDateTime to,
+                                           String cursor, Integer limit) {
         // 사용자 존재 여부 확인
         userService.getUserById(userId);
-        return patternRepo.findByUserId(userId)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return findPage(userId, from, to, cursor, limit);
     }
 
-    /** 사용자별 일주일 단위 평균 운전 점수 계산 */
-    public List<WeeklyAverageResponse> getWeeklyAverages(String userId) {
+    /**
+     * 사용자별 일주일 단위 평균 운전 점수 (주간 집계 컬렉션 조회)
+     * @param from 이 날짜가 속한 주부터 (없으면 처음부터)
+     * @param to   이 날짜가 속한 주까지 (없으면 끝까지)
+     */
+    public List<WeeklyAverageResponse> getWeeklyAverages(String userId, LocalDate from, LocalDate to) {
         // 사용자 존재 검증
         userService.getUserById(userId);
+        checkRange(from, to);
 
-        // 기록일 기준 오름차순으로 불러오기
-        List<DrivingPattern> list = patternRepo.findByUserIdOrderByRecordedAtAsc(userId);
-
-        // weekStart(월요일)별로 그룹핑 후 평균 계산
-        Map<LocalDate, Double> avgByWeek = list.stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getRecordedAt()
-                                .toLocalDate()
-                                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
-                        Collectors.averagingDouble(DrivingPattern::getDrivingScore)
-                ));
-
-        // 정렬해서 DTO로 변환
-        return avgByWeek.entrySet().stream()
-                .sorted(Comparator.comparing(Map.Entry::getKey))
-                .map(e -> new WeeklyAverageResponse(e.getKey(), e.getValue()))
+        List<DrivingWeeklyRollup> weeks;
+        if (from == null && to == null) {
+            weeks = rollupRepo.findByUserIdOrderByWeekStartAsc(userId);
+        } else {
+            Criteria week = Criteria.where("userId").is(userId).and("weekStart");
+            if (from != null) week.gte(from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+            if (to != null) week.lte(to);
+            weeks = mongoTemplate.find(new Query(week).with(Sort.by("weekStart")), DrivingWeeklyRollup.class);
+        }
+        return weeks.stream()
+                .map(this::toWeeklyResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 사용자 기록을 기간 단위(day/week/month)로 묶은 통계. (userId, recordedAt) 색인 범위를 서버에서
+     * $dateTrunc(분석 시간대, 주는 월요일 시작)로 묶어 구간별 결과만 받아온다.
+     * 보관 세그먼트와 일별 집계(보존 작업)로 옮겨진 기록도 같은 구간에 더한다.
+     * 보존이 켜져 있으면 일별 집계가 지워진 주(dailyCutoff 전)는 unit=week에서만 주간 집계로 답하고,
+     * day/month 구간에는 나오지 않는다.
+     * @param from 이 날짜 0시부터 (없으면 처음부터)
+     * @param to   이 날짜 끝까지 (없으면 끝까지)
+     */
+    public List<ScoreBucketResponse> getScoreBuckets(String userId, String unit, LocalDate from, LocalDate to) {
+        if (!BUCKET_UNITS.contains(unit)) {
+            throw new IllegalArgumentException("unit은 " + BUCKET_UNITS + " 중 하나여야 합니다.");
+        }
+        userService.getUserById(userId);
+        checkRange(from, to);
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria recorded = criteria.and("recordedAt");
+            if (from != null) recorded.gte(toRecordedAt(from));
+            if (to != null) recorded.lt(toRecordedAt(to.plusDays(1)));
+        }
+        Document bucketOf = new Document("$dateTrunc", new Document("date", "$recordedAt")
+                .append("unit", unit)
+                .append("startOfWeek", "monday")
+                .append("timezone", zone.getId()));
+        TypedAggregation<DrivingPattern> aggregation = Aggregation.newAggregation(DrivingPattern.class,
+                Aggregation.match(criteria),
+                context -> new Document("$group", new Document("_id", bucketOf)
+                        .append("sum", new Document("$sum", "$drivingScore"))
+                        .append("count", new Document("$sum", 1))
+                        .append("min", new Document("$min", "$drivingScore"))
+                        .append("max", new Document("$max", "$drivingScore"))),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+
+        // 구간 시작일 → {합계, 건수, 최저, 최고}
+        TreeMap<LocalDate, double[]> buckets = new TreeMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            addToBucket(buckets, row.getDate("_id").toInstant().atZone(zone).toLocalDate(),
+                    ((Number) row.get("sum")).doubleValue(), ((Number) row.get("count")).longValue(),
+                    ((Number) row.get("min")).doubleValue(), ((Number) row.get("max")).doubleValue());
+        }
+        // 보관된 기록은 같은 구간 규칙으로 여기서 나눠 더한다
+        try (Stream<DrivingPattern> archived = archive.stream(userId,
+                from != null ? toRecordedAt(from) : null, to != null ? toRecordedAt(to.plusDays(1)) : null, null)) {
+            archived.forEach(e -> addToBucket(buckets, bucketStartOf(e.getRecordedAt(), unit),
+                    e.getDrivingScore(), 1, e.getDrivingScore(), e.getDrivingScore()));
+        }
+        Criteria daily = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria day = daily.and("day");
+            if (from != null) day.gte(from);
+            if (to != null) day.lte(to);
+        }
+        for (DrivingDailyRollup r : mongoTemplate.find(new Query(daily), DrivingDailyRollup.class)) {
+            addToBucket(buckets, bucketStartOf(r.getDay(), unit), r.getSum(), r.getCount(), r.getMin(), r.getMax());
+        }
+        if (retention.isEnabled() && "week".equals(unit)) {
+            // 일별 집계까지 지워진 주는 주간 집계가 유일한 전체 값이다 (덜 압축된 원본이 남아 있어도 덮어쓴다)
+            Criteria weekly = Criteria.where("userId").is(userId);
+            Criteria week = weekly.and("weekStart").lt(retention.dailyCutoff(LocalDate.now(zone)));
+            if (from != null) week.gte(from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+            if (to != null) week.lte(to);
+            for (DrivingWeeklyRollup r : mongoTemplate.find(new Query(weekly), DrivingWeeklyRollup.class)) {
+                if (r.getCount() > 0) {
+                    buckets.put(r.getWeekStart(), new double[]{r.getSum(), r.getCount(), r.getMin(), r.getMax()});
+                }
+            }
+        }
+        return buckets.entrySet().stream()
+                .map(e -> toBucketResponse(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 사용자 점수를 여러 창(day/week/month/rolling/ewma 중 요청한 것)으로 한 번에 계산한다.
+     * 원본/보관 세그먼트/일별 집계를 시간 순으로 합쳐 ScoreWindowEngine에 한 번 흘려보낸다.
+     * (보존 작업으로 일별 집계까지 지워진 주는 weekly-averages에만 남는다)
+     * @param windows     쉼표로 구분한 창 이름
+     * @param weekStart   주 시작 요일
+     * @param rollingDays 이동 평균 일수 (1 ~ 365)
+     * @param alpha       EWMA 가중치 (0 < alpha <= 1)
+     */
+    public ScoreWindowsResponse getScoreWindows(String userId, String windows, LocalDate from, LocalDate to,
+                                                DayOfWeek weekStart, int rollingDays, double alpha) {
+        int flags = 0;
+        for (String name : windows.split(",")) {
+            Integer flag = WINDOWS.get(name.trim());
+            if (flag == null) {
+                throw new IllegalArgumentException("windows는 " + WINDOWS.keySet() + " 중에서 골라야 합니다.");
+            }
+            flags |= flag;
+        }
+        if (rollingDays < 1 || rollingDays > 365) {
+            throw new IllegalArgumentException("rollingDays는 1 ~ 365 사이여야 합니다.");
+        }
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("alpha는 0보다 크고 1 이하여야 합니다.");
+        }
+        userService.getUserById(userId);
+        checkRange(from, to);
+
+        LocalDateTime fromAt = from != null ? toRecordedAt(from) : null;
+        LocalDateTime toAt = to != null ? toRecordedAt(to.plusDays(1)) : null;
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria range = criteria.and("recordedAt");
+            if (fromAt != null) range.gte(fromAt);
+            if (toAt != null) range.lt(toAt);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("recordedAt"), Sort.Order.asc("_id")))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+        query.fields().include("recordedAt", "drivingScore");
+
+        Criteria daily = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria day = daily.and("day");
+            if (from != null) day.gte(from);
+            if (to != null) day.lte(to);
+        }
+        Iterator<DrivingDailyRollup> days = mongoTemplate
+                .find(new Query(daily).with(Sort.by("day")), DrivingDailyRollup.class).iterator();
+
+        ScoreWindowEngine engine = new ScoreWindowEngine(zone, flags, weekStart, rollingDays, alpha);
+        try (Stream<DrivingPattern> archived = archive.stream(userId, fromAt, toAt, null);
+             Stream<DrivingPattern> live = mongoTemplate.stream(query, DrivingPattern.class)) {
+            // 보관 세그먼트와 원본을 시각 순으로 합치고, 그 사이에 일별 집계를 날짜 순으로 끼워 넣는다
+            Iterator<DrivingPattern> a = archived.iterator();
+            Iterator<DrivingPattern> b = live.iterator();
+            DrivingPattern nextA = a.hasNext() ? a.next() : null;
+            DrivingPattern nextB = b.hasNext() ? b.next() : null;
+            DrivingDailyRollup nextDay = days.hasNext() ? days.next() : null;
+            while (nextA != null || nextB != null) {
+                DrivingPattern row;
+                if (nextB == null || (nextA != null && DrivingPatternArchive.ORDER.compare(nextA, nextB) <= 0)) {
+                    row = nextA;
+                    nextA = a.hasNext() ? a.next() : null;
+                } else {
+                    row = nextB;
+                    nextB = b.hasNext() ? b.next() : null;
+                }
+                long millis = PatternSegmentCodec.toMillis(row.getRecordedAt());
+                long rowDay = engine.dayOf(millis);
+                while (nextDay != null && nextDay.getDay().toEpochDay() <= rowDay) {
+                    acceptDay(engine, nextDay);
+                    nextDay = days.hasNext() ? days.next() : null;
+                }
+                engine.accept(millis, row.getDrivingScore());
+            }
+            while (nextDay != null) {
+                acceptDay(engine, nextDay);
+                nextDay = days.hasNext() ? days.next() : null;
+            }
+        }
+        engine.finish();
+
+        ScoreWindowsResponse dto = new ScoreWindowsResponse();
+        dto.setUserId(userId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        if ((flags & ScoreWindowEngine.DAY) != 0) dto.setDaily(toBucketResponses(engine.daily));
+        if ((flags & ScoreWindowEngine.WEEK) != 0) {
+            dto.setWeekStart(weekStart);
+            dto.setWeekly(toBucketResponses(engine.weekly));
+        }
+        if ((flags & ScoreWindowEngine.MONTH) != 0) dto.setMonthly(toBucketResponses(engine.monthly));
+        if ((flags & ScoreWindowEngine.ROLLING) != 0) {
+            dto.setRollingDays(rollingDays);
+            dto.setRolling(toTrendPoints(engine.rolling));
+        }
+        if ((flags & ScoreWindowEngine.EWMA) != 0) {
+            dto.setAlpha(alpha);
+            dto.setEwma(toTrendPoints(engine.ewma));
+        }
+        return dto;
+    }
+
+    private static void acceptDay(ScoreWindowEngine engine, DrivingDailyRollup r) {
+        engine.acceptDay(r.getDay().toEpochDay(), r.getSum(), r.getCount(), r.getMin(), r.getMax());
+    }
+
+    private static List<ScoreBucketResponse> toBucketResponses(ScoreWindowEngine.Series series) {
+        List<ScoreBucketResponse> result = new ArrayList<>(series.size);
+        for (int i = 0; i < series.size; i++) {
+            ScoreBucketResponse dto = new ScoreBucketResponse();
+            dto.setBucketStart(LocalDate.ofEpochDay(series.start[i]));
+            dto.setAverageScore(series.sum[i] / series.count[i]);
+            dto.setCount(series.count[i]);
+            dto.setMinScore(series.min[i]);
+            dto.setMaxScore(series.max[i]);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private static List<ScoreTrendPoint> toTrendPoints(ScoreWindowEngine.Trend trend) {
+        List<ScoreTrendPoint> result = new ArrayList<>(trend.size);
+        for (int i = 0; i < trend.size; i++) {
+            result.add(new ScoreTrendPoint(LocalDate.ofEpochDay(trend.day[i]), trend.value[i], trend.count[i]));
+        }
+        return result;
+    }
+
+    /** 한 주의 기록들(합계/건수/최저/최고/분포)을 해당 주 집계에 더한다. (없으면 만든다, 한 번의 upsert) */
+    private void incWeeklyRollup(String userId, LocalDate weekStart, ScoreHistogram hist) {
+        Query query = new Query(Criteria.where("_id").is(userId + ":" + weekStart));
+        Update update = new Update()
+                .setOnInsert("userId", userId)
+                .setOnInsert("weekStart", weekStart)
+                .inc("sum", hist.getSum())
+                .inc("count", hist.getCount())
+                .min("min", hist.getMin())
+                .max("max", hist.getMax())
+                .set("updatedAt", LocalDateTime.now());
+        hist.toMap().forEach((bin, n) -> update.inc("hist." + bin, n));
+        upsertRetrying(query, update, DrivingWeeklyRollup.class);
+    }
+
+    /** 사용자 전체 기간 점수 분포에 더한다. (없으면 만든다) */
+    private void incUserHistogram(String userId, ScoreHistogram hist) {
+        Query query = new Query(Criteria.where("_id").is(userId));
+        Update update = new Update()
+                .inc("sum", hist.getSum())
+                .inc("count", hist.getCount())
+                .min("min", hist.getMin())
+                .max("max", hist.getMax())
+                .set("updatedAt", LocalDateTime.now());
+        hist.toMap().forEach((bin, n) -> update.inc("hist." + bin, n));
+        upsertRetrying(query, update, DrivingScoreHistogram.class);
+    }
+
+    private void upsertRetrying(Query query, Update update, Class<?> type) {
+        try {
+            mongoTemplate.upsert(query, update, type);
+        } catch (DuplicateKeyException ex) {
+            // 첫 기록이 동시에 들어와 upsert가 겹친 경우: 이제 문서가 있으므로 갱신만 다시 한다
+            mongoTemplate.updateFirst(query, update, type);
+        }
+    }
+
+    /** 기록 시각(시스템 시간대) → 분석 시간대 기준 그 주 월요일 */
+    LocalDate weekStartOf(LocalDateTime recordedAt) {
+        return recordedAt.atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(zone)
+                .toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * 사용자 운전 점수 분포 (p10/p50/p90 + 히스토그램)
+     * 기간이 없으면 전체 기간 분포 문서 하나, 있으면 그 기간 주간 집계들의 hist를 합친다. (기록 원본은 읽지 않는다)
+     * @param from     이 날짜가 속한 주부터 (없으면 처음부터)
+     * @param to       이 날짜가 속한 주까지 (없으면 끝까지)
+     * @param binWidth 히스토그램 구간 폭 (1~100점)
+     */
+    public ScoreStatsResponse getScoreStats(String userId, LocalDate from, LocalDate to, int binWidth) {
+        userService.getUserById(userId);
+        checkRange(from, to);
+        if (binWidth < 1 || binWidth > 100) {
+            throw new IllegalArgumentException("binWidth는 1 ~ 100 사이여야 합니다.");
+        }
+
+        ScoreHistogram hist = new ScoreHistogram();
+        if (from == null && to == null) {
+            DrivingScoreHistogram all = mongoTemplate.findById(userId, DrivingScoreHistogram.class);
+            if (all != null && all.getCount() > 0) {
+                hist.merge(all.getHist());
+                hist.mergeTotals(all.getSum(), all.getMin(), all.getMax());
+            }
+        } else {
+            Criteria week = Criteria.where("userId").is(userId).and("weekStart");
+            if (from != null) week.gte(from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+            if (to != null) week.lte(to);
+            for (DrivingWeeklyRollup w : mongoTemplate.find(new Query(week), DrivingWeeklyRollup.class)) {
+                if (w.getCount() == 0) continue;
+                hist.merge(w.getHist());
+                hist.mergeTotals(w.getSum(), w.getMin(), w.getMax());
+            }
+        }
+
+        ScoreStatsResponse dto = new ScoreStatsResponse();
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setCount(hist.getCount());
+        dto.setAverageScore(hist.getCount() > 0 ? hist.getSum() / hist.getCount() : null);
+        dto.setP10(hist.percentile(0.10));
+        dto.setP50(hist.percentile(0.50));
+        dto.setP90(hist.percentile(0.90));
+        dto.setBinWidth(binWidth);
+        dto.setHistogram(hist.bins(binWidth));
+        return dto;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from은 to보다 늦을 수 없습니다.");
+        }
+    }
+
+    // 분석 시간대의 날짜 0시 → recordedAt 저장 방식(시스템 시간대 LocalDateTime)
+    private LocalDateTime toRecordedAt(LocalDate date) {
+        return LocalDateTime.ofInstant(date.atStartOfDay(zone).toInstant(), ZoneId.systemDefault());
+    }
+
+    private static void addToBucket(Map<LocalDate, double[]> buckets, LocalDate start,
+                                    double sum, long count, double min, double max) {
+        double[] b = buckets.computeIfAbsent(start,
+                key -> new double[]{0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY});
+        b[0] += sum;
+        b[1] += count;
+        b[2] = Math.min(b[2], min);
+        b[3] = Math.max(b[3], max);
+    }
+
+    // $dateTrunc(unit, 월요일 시작, 분석 시간대)와 같은 구간 시작일
+    private LocalDate bucketStartOf(LocalDateTime recordedAt, String unit) {
+        return bucketStartOf(recordedAt.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone).toLocalDate(), unit);
+    }
+
+    private static LocalDate bucketStartOf(LocalDate date, String unit) {
+        switch (unit) {
+            case "week":
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month":
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    private ScoreBucketResponse toBucketResponse(LocalDate bucketStart, double[] b) {
+        ScoreBucketResponse dto = new ScoreBucketResponse();
+        dto.setBucketStart(bucketStart);
+        dto.setAverageScore(b[0] / b[1]);
+        dto.setCount((long) b[1]);
+        dto.setMinScore((float) b[2]);
+        dto.setMaxScore((float) b[3]);
+        return dto;
+    }
+
+    private WeeklyAverageResponse toWeeklyResponse(DrivingWeeklyRollup r) {
+        WeeklyAverageResponse dto = new WeeklyAverageResponse(r.getWeekStart(),
+                r.getCount() > 0 ? r.getSum() / r.getCount() : 0.0);
+        dto.setCount(r.getCount());
+        dto.setMinScore(r.getMin());
+        dto.setMaxScore(r.getMax());
+        return dto;
+    }
+
+    /**
+     * 전체 사용자의 주간 평균을 한 번의 집계로 구해 userId순으로 스트리밍한다. (주간 리포트 작업용)
+     * [weekStart, weekStart+7일) 기록이 있는 사용자만 나오며, 같은 집계에서 전주 평균도 함께 구한다.
+     * recordedAt 색인으로 2주치 기록만 읽는다.
+     * @param afterUserId 이어하기 지점 (이 userId 다음부터, 없으면 null)
+     */
+    public Stream<UserWeeklyScore> streamWeeklyScores(LocalDate weekStart, String afterUserId) {
+        // 주 경계는 분석 시간대 자정, recordedAt은 시스템 시간대 LocalDateTime으로 저장되어 있다
+        Instant boundary = weekStart.atStartOfDay(zone).toInstant();
+        LocalDateTime thisWeek = LocalDateTime.ofInstant(boundary, ZoneId.systemDefault());
+        Criteria range = Criteria.where("recordedAt").gte(thisWeek.minusWeeks(1)).lt(thisWeek.plusWeeks(1));
+        if (afterUserId != null) range = range.and("userId").gt(afterUserId);
+
+        Date split = Date.from(boundary);
+        ComparisonOperators.Gte inThisWeek = ComparisonOperators.valueOf("recordedAt").greaterThanEqualToValue(split);
+
+        TypedAggregation<DrivingPattern> aggregation = Aggregation.newAggregation(DrivingPattern.class,
+                Aggregation.match(range),
+                Aggregation.group("userId")
+                        .sum(ConditionalOperators.when(inThisWeek).thenValueOf("drivingScore").otherwise(0)).as("sum")
+                        .sum(ConditionalOperators.when(inThisWeek).then(1).otherwise(0)).as("count")
+                        .sum(ConditionalOperators.when(inThisWeek).then(0).otherwiseValueOf("drivingScore")).as("prevSum")
+                        .sum(ConditionalOperators.when(inThisWeek).then(0).otherwise(1)).as("prevCount"),
+                Aggregation.match(Criteria.where("count").gt(0)),
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("userId", "$_id")
+                        .append("count", 1)
+                        .append("average", new Document("$divide", List.of("$sum", "$count")))
+                        .append("previousAverage", new Document("$cond", Arrays.asList(
+                                new Document("$gt", List.of("$prevCount", 0)),
+                                new Document("$divide", List.of("$prevSum", "$prevCount")),
+                                null))))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(1000).build());
+        return mongoTemplate.aggregateStream(aggregation, UserWeeklyScore.class);
+    }
+
     private DrivingPatternResponse toResponse(DrivingPattern e) {
         DrivingPatternResponse dto = new DrivingPatternResponse();
         dto.setId(e.getId());
@@ -98,15 +776,152 @@ public class DrivingPatternService {
         dto.setRecordedAt(e.getRecordedAt());
         return dto;
     }
-    public List<DrivingPatternResponse> listPatternsByUserName(String userName) {
+    /**
+     * 내보내기 전 확인 (사용자 존재, 기간).
+     * 응답을 쓰기 시작하면 404/400을 돌려줄 수 없으므로 exportPatterns 전에 요청 스레드에서 부른다.
+     */
+    public void checkExport(String userId, LocalDateTime from, LocalDateTime to) {
+        userService.getUserById(userId);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from은 to보다 앞이어야 합니다.");
+        }
+    }
+
+    /**
+     * 사용자 기록 전체를 NDJSON(한 줄에 DrivingPatternResponse 하나)으로 out에 쓴다. (recordedAt, _id 순)
+     * Mongo 커서에서 읽는 대로 바로 쓰므로 이력 길이와 관계없이 메모리 사용이 일정하다.
+     * 클라이언트가 연결을 끊으면 쓰기에서 IOException이 나고, 커서를 닫은 뒤 그대로 던진다.
+     * @return 쓴 기록 수
+     */
+    public long exportPatterns(String userId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria range = criteria.and("recordedAt");
+            if (from != null) range.gte(from);
+            if (to != null) range.lt(to);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("recordedAt"), Sort.Order.asc("_id")))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+
+        long written = 0;
+        try (Stream<DrivingPattern> archived = archive.stream(userId, from, to, null);
+             Stream<DrivingPattern> live = mongoTemplate.stream(query, DrivingPattern.class)) {
+            // 보관 세그먼트와 원본 컬렉션 두 정렬된 흐름을 (recordedAt, _id) 순으로 합친다
+            Iterator<DrivingPattern> a = archived.iterator();
+            Iterator<DrivingPattern> b = live.iterator();
+            DrivingPattern nextA = a.hasNext() ? a.next() : null;
+            DrivingPattern nextB = b.hasNext() ? b.next() : null;
+            while (nextA != null || nextB != null) {
+                DrivingPattern row;
+                if (nextB == null || (nextA != null && DrivingPatternArchive.ORDER.compare(nextA, nextB) <= 0)) {
+                    row = nextA;
+                    nextA = a.hasNext() ? a.next() : null;
+                } else {
+                    row = nextB;
+                    nextB = b.hasNext() ? b.next() : null;
+                }
+                // writeValue(out, ..)는 out을 닫으므로 바이트로 만들어 쓴다
+                out.write(objectMapper.writeValueAsBytes(toResponse(row)));
+                out.write('\n');
+                // 커서 배치마다 내보내 클라이언트가 받는 대로 처리할 수 있게 한다
+                if (++written % EXPORT_BATCH_SIZE == 0) out.flush();
+            }
+            out.flush();
+        } catch (IOException ex) {
+            logger.info("Pattern export for user {} stopped after {} records: {}", userId, written, ex.getMessage());
+            throw ex;
+        }
+        return written;
+    }
+
+    /** 사용자 이름으로 기록 한 페이지 조회 (listPatterns와 같은 커서 페이지) */
+    public DrivingPatternPage listPatternsByUserName(String userName, LocalDateTime from, LocalDateTime to,
+                                                     String cursor, Integer limit) {
         // userName으로 User 객체 찾기
         User user = userService.getUserByUserName(userName);
 
         // userId 기준으로 운전 패턴 조회
-        return patternRepo.findByUserId(user.getId())
-                .stream()
+        return findPage(user.getId(), from, to, cursor, limit);
+    }
+
+    private DrivingPatternPage findPage(String userId, LocalDateTime from, LocalDateTime to,
+                                        String cursor, Integer limit) {
+        int size = limit == null ? pageDefaultSize : limit;
+        if (size < 1 || size > pageMaxSize) {
+            throw new IllegalArgumentException("limit은 1 ~ " + pageMaxSize + " 사이여야 합니다.");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from은 to보다 앞이어야 합니다.");
+        }
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria range = criteria.and("recordedAt");
+            if (from != null) range.gte(from);
+            if (to != null) range.lt(to);
+        }
+        PageCursor after = cursor != null && !cursor.isEmpty() ? PageCursor.decode(cursor) : null;
+        if (after != null) {
+            // (recordedAt, _id) > (커서 시각, 커서 ID)
+            criteria.orOperator(
+                    Criteria.where("recordedAt").gt(after.recordedAt),
+                    Criteria.where("recordedAt").is(after.recordedAt).and("_id").gt(after.id));
+        }
+        // 한 건 더 읽어 다음 페이지가 있는지 본다
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("recordedAt"), Sort.Order.asc("_id")))
+                .limit(size + 1);
+        List<DrivingPattern> rows = new ArrayList<>(mongoTemplate.find(query, DrivingPattern.class));
+        // 보관 세그먼트에서도 커서 다음 size+1건까지만 읽어 합친다
+        try (Stream<DrivingPattern> archived = archive.stream(userId, from, to, after == null ? null : after.toPattern())) {
+            archived.limit(size + 1).forEach(rows::add);
+        }
+        rows.sort(DrivingPatternArchive.ORDER);
+
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            DrivingPattern last = rows.get(size - 1);
+            next = new PageCursor(last.getRecordedAt(), last.getId()).encode();
+        }
+        List<DrivingPatternResponse> items = rows.stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
+        return new DrivingPatternPage(items, next);
+    }
+
+    /** 페이지 커서: 마지막 기록의 (recordedAt, id)를 URL-safe Base64로 감싼 값 */
+    private static final class PageCursor {
+        private final LocalDateTime recordedAt;
+        private final String id;
+
+        PageCursor(LocalDateTime recordedAt, String id) {
+            this.recordedAt = recordedAt;
+            this.id = id;
+        }
+
+        DrivingPattern toPattern() {
+            DrivingPattern p = new DrivingPattern();
+            p.setRecordedAt(recordedAt);
+            p.setId(id);
+            return p;
+        }
+
+        String encode() {
+            String raw = recordedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                return new PageCursor(LocalDateTime.parse(raw.substring(0, sep)), raw.substring(sep + 1));
+            } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException("cursor가 올바르지 않습니다.");
+            }
+        }
     }
 
 }
@@ -0,0 +1,85 @@
+package com.gildong.gildongE.service;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * driving_pattern 저장 방식 (gildong.patterns.storage).
+ *
+ *  - collection (기본): 일반 컬렉션 driving_pattern
+ *  - timeseries: 시계열 컬렉션 driving_pattern_ts (timeField=recordedAt, metaField=userId)
+ *    사용자별로 시간순 버킷에 묶여 저장되므로 필드 이름 반복이 없고 기간 조회가 연속된 페이지를 읽는다.
+ *    시계열 컬렉션은 Change Stream을 지원하지 않으므로, 기록을 저장한 노드가 DrivingPatternRecordedEvent로
+ *    driving_pattern_outbox(일반 컬렉션, queuedAt TTL)에도 넣고, 리더가 outbox를 Change Stream으로 구독해 알림을 처리한다.
+ *
+ * DrivingPattern의 @Document 컬렉션 이름이 이 빈을 SpEL로 참조하므로, 저장소/쿼리는 설정만 바꾸면 따라간다.
+ * 전환 전 기존 데이터는 DrivingPatternTimeSeriesCopier로 옮긴다.
+ */
+@Component("drivingPatternStorage")
+public class DrivingPatternStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingPatternStorage.class);
+
+    public static final String COLLECTION = "driving_pattern";
+    public static final String TIME_SERIES_COLLECTION = "driving_pattern_ts";
+    public static final String OUTBOX_COLLECTION = "driving_pattern_outbox";
+    // 리더가 바뀌는 동안 쌓인 기록을 새 리더가 이어 읽을 수 있을 만큼만 남긴다
+    private static final long OUTBOX_TTL_HOURS = 24;
+
+    private final boolean timeSeries;
+
+    // MongoTemplate의 색인 생성이 컬렉션 이름을 물을 때 만들어지므로 MongoTemplate 대신 DB 팩토리를 쓴다
+    public DrivingPatternStorage(MongoDatabaseFactory databaseFactory,
+                                 @Value("${gildong.patterns.storage:collection}") String storage) {
+        this.timeSeries = "timeseries".equalsIgnoreCase(storage);
+        if (timeSeries) {
+            ensureTimeSeriesCollection(databaseFactory.getMongoDatabase());
+            ensureOutbox(databaseFactory.getMongoDatabase());
+        }
+    }
+
+    public boolean isTimeSeries() {
+        return timeSeries;
+    }
+
+    /** 기록 알림을 위해 리더가 Change Stream으로 구독하는 컬렉션 (시계열이면 outbox) */
+    public String getWatchedCollectionName() {
+        return timeSeries ? OUTBOX_COLLECTION : COLLECTION;
+    }
+
+    /** 현재 기록/조회에 쓰는 컬렉션 이름 */
+    public String getCollectionName() {
+        return timeSeries ? TIME_SERIES_COLLECTION : COLLECTION;
+    }
+
+    /**
+     * 시계열 컬렉션이 없으면 만든다. (이미 있으면 그대로)
+     * 색인 자동 생성이 먼저 돌면 일반 컬렉션으로 만들어지므로, 컬렉션 이름이 처음 필요해지는 이 시점에 만든다.
+     */
+    static void ensureTimeSeriesCollection(MongoDatabase database) {
+        if (database.listCollectionNames().into(new ArrayList<>()).contains(TIME_SERIES_COLLECTION)) return;
+        database.createCollection(TIME_SERIES_COLLECTION, new CreateCollectionOptions()
+                .timeSeriesOptions(new TimeSeriesOptions("recordedAt")
+                        .metaField("userId")
+                        .granularity(TimeSeriesGranularity.HOURS)));
+        logger.info("Time-series collection created: {}", TIME_SERIES_COLLECTION);
+    }
+
+    /** outbox의 queuedAt TTL 색인 (이미 있으면 그대로) */
+    private static void ensureOutbox(MongoDatabase database) {
+        database.getCollection(OUTBOX_COLLECTION).createIndex(Indexes.ascending("queuedAt"),
+                new IndexOptions().expireAfter(OUTBOX_TTL_HOURS, TimeUnit.HOURS));
+    }
+}
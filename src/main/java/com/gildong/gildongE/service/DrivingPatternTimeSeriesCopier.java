@@ -0,0 +1,164 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.JobRange;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 일반 컬렉션 driving_pattern → 시계열 컬렉션 driving_pattern_ts 복사 도구.
+ *
+ *  - _id 순 커서를 청크로 나눠 ChunkedJobRunner 작업 스레드들이 병렬로 insertMany(unordered)
+ *  - 앞에서부터 끝난 구간의 마지막 _id를 job_ranges checkpoint로 남겨, 중단되면 그 다음부터 이어서 복사한다
+ *  - 시계열 컬렉션에는 _id 유일 색인이 없으므로, 이어하기(checkpoint 뒤 청크가 일부 들어갔을 수 있음)에서는
+ *    청크마다 이미 복사된 _id를 조회해 빼고 넣는다
+ *
+ * 복사 후 gildong.patterns.storage=timeseries로 전환하고, 전환 직전까지 들어온 기록을 위해 한 번 더 실행한다.
+ * (다른 날짜로 다시 실행하면 이전 실행들의 마지막 checkpoint 근처부터 복사한다)
+ *
+ * 여러 노드가 만든 _id는 저장 완료 순서와 정확히 같지 않아, 복사 중에 저장되던 기록이 checkpoint보다 작은 _id로
+ * 늦게 들어올 수 있다. 그래서 이어서 복사할 때는 checkpoint의 저장 시각(_id 시각)에서 copy-overlap-minutes만큼
+ * 앞에서 다시 읽고, 이미 복사된 _id는 빼고 넣는다. (기록 시각 recordedAt은 기기가 보낸 과거 값일 수 있어 기준으로 쓰지 않는다)
+ */
+@Component
+public class DrivingPatternTimeSeriesCopier {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingPatternTimeSeriesCopier.class);
+    public static final String JOB_NAME = "driving-pattern-timeseries-copy";
+
+    private final MongoTemplate mongoTemplate;
+    private final ChunkedJobRunner jobRunner;
+    private final JobRunService jobRunService;
+    private final long overlapMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DrivingPatternTimeSeriesCopier(MongoTemplate mongoTemplate,
+                                          ChunkedJobRunner jobRunner,
+                                          JobRunService jobRunService,
+                                          @Value("${gildong.patterns.copy-overlap-minutes:10}") long overlapMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.jobRunner = jobRunner;
+        this.jobRunService = jobRunService;
+        this.overlapMillis = TimeUnit.MINUTES.toMillis(Math.max(0, overlapMinutes));
+    }
+
+    /**
+     * runDate 기준 복사 실행. 같은 날 완료된 복사는 다시 하지 않는다.
+     * @return 이 노드가 실제로 복사했으면 true
+     */
+    public boolean copy(LocalDate runDate) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Job {} already running on this node", JOB_NAME);
+            return false;
+        }
+        try {
+            DrivingPatternStorage.ensureTimeSeriesCollection(mongoTemplate.getDb());
+            if (!jobRunService.open(JOB_NAME, runDate, 1)) {
+                logger.info("Job {} for {} already completed", JOB_NAME, runDate);
+                return false;
+            }
+            JobRange range = jobRunService.claimRange(JOB_NAME, runDate);
+            if (range == null) return false;
+            boolean done = false;
+            try {
+                done = copyRange(range);
+            } finally {
+                jobRunService.finishRange(range, done);
+            }
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean copyRange(JobRange range) {
+        MongoCollection<Document> source = mongoTemplate.getCollection(DrivingPatternStorage.COLLECTION);
+        MongoCollection<Document> target = mongoTemplate.getCollection(DrivingPatternStorage.TIME_SERIES_COLLECTION);
+        // 새 실행이면 이전 실행들이 복사한 곳 근처부터 시작한다
+        String start = range.getCheckpoint() != null ? range.getCheckpoint() : jobRunService.findLastCheckpoint(JOB_NAME);
+        // 이어하기면 start 앞뒤 기록이 일부 복사돼 있다
+        boolean resuming = range.getAttempts() > 1 || start != null;
+        Bson after = start != null ? resumeFilter(start) : Filters.empty();
+
+        AtomicBoolean lost = new AtomicBoolean();
+        AtomicLong lastRenewed = new AtomicLong(System.currentTimeMillis());
+        ChunkedJobRunner.JobSummary summary;
+        try (MongoCursor<Document> cursor = source.find(after).sort(Sorts.ascending("_id")).batchSize(1000).iterator()) {
+            summary = jobRunner.run(JOB_NAME, cursor,
+                    chunk -> insertChunk(target, chunk, resuming),
+                    () -> keepLease(range, lost, lastRenewed),
+                    (last, copied) -> {
+                        if (!jobRunService.checkpointRange(range, String.valueOf(last.get("_id")), copied)) lost.set(true);
+                    });
+        }
+        if (lost.get()) {
+            logger.warn("Job {} was taken over by another node", JOB_NAME);
+        }
+        return !lost.get() && !summary.aborted() && summary.failedChunks() == 0;
+    }
+
+    private int insertChunk(MongoCollection<Document> target, List<Document> chunk, boolean resuming) {
+        List<Document> toInsert = chunk;
+        if (resuming) {
+            List<Object> ids = new ArrayList<>(chunk.size());
+            for (Document d : chunk) ids.add(d.get("_id"));
+            Set<Object> existing = new HashSet<>();
+            target.find(Filters.in("_id", ids)).projection(Projections.include("_id"))
+                    .forEach(d -> existing.add(d.get("_id")));
+            if (!existing.isEmpty()) {
+                toInsert = new ArrayList<>(chunk.size());
+                for (Document d : chunk) {
+                    if (!existing.contains(d.get("_id"))) toInsert.add(d);
+                }
+            }
+        }
+        if (!toInsert.isEmpty()) {
+            target.insertMany(toInsert, new InsertManyOptions().ordered(false));
+        }
+        return toInsert.size();
+    }
+
+    // 청크를 넘기기 전마다 호출: 리스 기간의 1/3이 지났으면 연장, 빼앗겼으면 중단
+    private boolean keepLease(JobRange range, AtomicBoolean lost, AtomicLong lastRenewed) {
+        if (lost.get()) return false;
+        long now = System.currentTimeMillis();
+        if (now - lastRenewed.get() > jobRunService.getRangeLeaseMillis() / 3) {
+            if (!jobRunService.renewRange(range)) {
+                lost.set(true);
+                return false;
+            }
+            lastRenewed.set(now);
+        }
+        return true;
+    }
+
+    // checkpoint의 저장 시각 - overlap 이후 _id부터 (ObjectId가 아닌 _id는 시각을 알 수 없어 checkpoint 다음부터)
+    private Bson resumeFilter(String checkpoint) {
+        if (!ObjectId.isValid(checkpoint)) return Filters.gt("_id", checkpoint);
+        long savedAt = new ObjectId(checkpoint).getDate().getTime();
+        // 그 초의 가장 작은 ObjectId (시각 4바이트 + 0)
+        long seconds = (savedAt - overlapMillis) / 1000;
+        return Filters.gte("_id", new ObjectId(String.format("%08x0000000000000000", seconds)));
+    }
+}
@@ -0,0 +1,149 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.model.DrivingScoreHistogram;
+import com.gildong.gildongE.model.DrivingWeeklyRollup;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 배포 전 driving_pattern으로 점수 분포(hist)를 채운다. (최초 1회)
+ *  - 주간: driving_weekly_rollup.hist  (주 구분은 DrivingWeeklyRollupMigration과 같다)
+ *  - 전체: driving_score_histogram
+ * 칸 계산은 ScoreHistogram.binOf와 같이 점수의 정수 부분을 0~100으로 자른 값이다.
+ *
+ * 배포 후 기록은 저장할 때 $inc로 반영되므로, deployedAt 전에 저장된 기록(_id 시각 기준)만 집계해 더한다.
+ *  - 칸/sum/count는 $inc, min/max는 $min/$max → 배포 후 $inc가 먼저 닿은 문서에도 배포 전 분포가 합쳐진다
+ *  - 더한 문서에는 migrations에 이 작업 이름을 남겨, 다시 실행돼도 두 번 더하지 않는다 (BackfillWriter)
+ */
+@Component
+public class DrivingScoreHistogramMigration implements DataMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ZoneId zone;
+
+    public DrivingScoreHistogramMigration(MongoTemplate mongoTemplate,
+                                          @Value("${gildong.analytics.zone:Asia/Seoul}") String zone) {
+        this.mongoTemplate = mongoTemplate;
+        this.zone = ZoneId.of(zone);
+    }
+
+    @Override
+    public String getName() {
+        return "driving-score-histogram-v1";
+    }
+
+    @Override
+    public void migrate(Date deployedAt) {
+        Document weekOf = new Document("$dateTrunc", new Document("date", "$recordedAt")
+                .append("unit", "week")
+                .append("startOfWeek", "monday")
+                .append("timezone", zone.getId()));
+        ObjectId boundary = DataMigration.boundaryOf(deployedAt);
+        migrateWeekly(weekOf, boundary);
+        migrateAll(boundary);
+    }
+
+    private void migrateWeekly(Document weekOf, ObjectId boundary) {
+        TypedAggregation<DrivingPattern> weekly = histogramAggregation(boundary,
+                new Document("userId", "$userId").append("week", weekOf));
+
+        BackfillWriter writer = new BackfillWriter(mongoTemplate, DrivingWeeklyRollup.class, BATCH_SIZE);
+        String name = getName();
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(weekly, Document.class)) {
+            Iterator<Document> it = rows.iterator();
+            while (it.hasNext()) {
+                Document row = it.next();
+                Document key = row.get("_id", Document.class);
+                String userId = key.getString("userId");
+                Date week = key.getDate("week");
+                if (userId == null || week == null) continue;
+                LocalDate weekStart = week.toInstant().atZone(zone).toLocalDate();
+
+                Update update = new Update().setOnInsert("userId", userId)
+                        .setOnInsert("weekStart", weekStart)
+                        .addToSet("migrations", name);
+                incBins(update, row);
+                writer.upsert(new Query(Criteria.where("_id").is(userId + ":" + weekStart).and("migrations").ne(name)),
+                        update);
+            }
+        }
+        writer.flush();
+    }
+
+    private void migrateAll(ObjectId boundary) {
+        TypedAggregation<DrivingPattern> all = histogramAggregation(boundary, new Document("userId", "$userId"));
+
+        BackfillWriter writer = new BackfillWriter(mongoTemplate, DrivingScoreHistogram.class, BATCH_SIZE);
+        String name = getName();
+        LocalDateTime now = LocalDateTime.now();
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(all, Document.class)) {
+            Iterator<Document> it = rows.iterator();
+            while (it.hasNext()) {
+                Document row = it.next();
+                String userId = row.get("_id", Document.class).getString("userId");
+                if (userId == null) continue;
+
+                Update update = new Update().inc("count", ((Number) row.get("count")).longValue())
+                        .inc("sum", ((Number) row.get("sum")).doubleValue())
+                        .min("min", ((Number) row.get("min")).floatValue())
+                        .max("max", ((Number) row.get("max")).floatValue())
+                        .set("updatedAt", now)
+                        .addToSet("migrations", name);
+                incBins(update, row);
+                writer.upsert(new Query(Criteria.where("_id").is(userId).and("migrations").ne(name)), update);
+            }
+        }
+        writer.flush();
+    }
+
+    // 기록 쪽 $inc와 같은 hist.<칸> 필드에 더한다
+    private static void incBins(Update update, Document row) {
+        row.get("hist", Document.class).forEach((bin, n) -> update.inc("hist." + bin, ((Number) n).longValue()));
+    }
+
+    /**
+     * key별 {"칸": 건수} 분포와 합계/건수/최저/최고.
+     * (key, 칸)으로 한 번 묶어 세고, key로 다시 묶어 $arrayToObject로 칸 문서를 만든다.
+     */
+    private static TypedAggregation<DrivingPattern> histogramAggregation(ObjectId boundary, Document key) {
+        Document bin = new Document("$toString", new Document("$toInt",
+                new Document("$min", Arrays.asList(ScoreHistogram.BINS - 1,
+                        new Document("$max", Arrays.asList(0, new Document("$floor", "$drivingScore")))))));
+        return Aggregation.newAggregation(DrivingPattern.class,
+                Aggregation.match(Criteria.where("_id").lt(boundary)),
+                context -> new Document("$group", new Document("_id",
+                        new Document("key", key).append("bin", bin))
+                        .append("n", new Document("$sum", 1L))
+                        .append("sum", new Document("$sum", "$drivingScore"))
+                        .append("min", new Document("$min", "$drivingScore"))
+                        .append("max", new Document("$max", "$drivingScore"))),
+                context -> new Document("$group", new Document("_id", "$_id.key")
+                        .append("bins", new Document("$push", new Document("k", "$_id.bin").append("v", "$n")))
+                        .append("count", new Document("$sum", "$n"))
+                        .append("sum", new Document("$sum", "$sum"))
+                        .append("min", new Document("$min", "$min"))
+                        .append("max", new Document("$max", "$max"))),
+                context -> new Document("$addFields", new Document("hist", new Document("$arrayToObject", "$bins")))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(BATCH_SIZE).build());
+    }
+}
@@ -0,0 +1,160 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.AlertDto;
+import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.repository.DrivingPatternRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 사용자별 최근 운전 점수 상태를 메모리에 유지하며 추세 알림을 만든다.
+ *
+ *  - 최근 N개 점수(float 링 버퍼), EWMA, 연속 저점수 횟수를 O(1)로 갱신
+ *  - 연속 저점수 횟수가 기준에 "도달하는 순간" 한 번만 알림 (매 기록마다 재알림하지 않음)
+ *  - 사용자 수는 max-users로 제한(LRU)하고, 오래 쓰이지 않은 상태는 주기적으로 제거
+ *  - 메모리에 없는 사용자는 Mongo의 최근 기록으로 상태를 복원 (재시작 후 포함)
+ */
+@Service
+public class DrivingScoreTrendDetector {
+
+    private final DrivingPatternRepository patternRepo;
+    private final int windowSize;
+    private final float lowScoreThreshold;
+    private final int lowStreakThreshold;
+    private final double ewmaAlpha;
+    private final long idleMillis;
+
+    // 접근 순서 LinkedHashMap → 가장 오래 쓰이지 않은 사용자부터 제거
+    private final Map<String, ScoreWindow> windows;
+
+    public DrivingScoreTrendDetector(DrivingPatternRepository patternRepo,
+                                     @Value("${gildong.trend.window-size:10}") int windowSize,
+                                     @Value("${gildong.trend.low-score-threshold:60}") float lowScoreThreshold,
+                                     @Value("${gildong.trend.low-streak:3}") int lowStreakThreshold,
+                                     @Value("${gildong.trend.ewma-alpha:0.3}") double ewmaAlpha,
+                                     @Value("${gildong.trend.max-users:100000}") int maxUsers,
+                                     @Value("${gildong.trend.idle-hours:72}") long idleHours) {
+        this.patternRepo = patternRepo;
+        this.windowSize = Math.max(windowSize, lowStreakThreshold);
+        this.lowScoreThreshold = lowScoreThreshold;
+        this.lowStreakThreshold = lowStreakThreshold;
+        this.ewmaAlpha = ewmaAlpha;
+        this.idleMillis = idleHours * 60L * 60L * 1000L;
+        this.windows = Collections.synchronizedMap(new LinkedHashMap<String, ScoreWindow>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ScoreWindow> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    /**
+     * 새 운전 기록 하나를 반영하고, 추세 알림이 필요하면 반환한다. (없으면 null)
+     * @param recordedAt 기록 시각 (상태 복원 시 이 시각 이전 기록만 읽는다)
+     */
+    public AlertDto onScore(String userId, float score, LocalDateTime recordedAt) {
+        ScoreWindow window = windows.get(userId);
+        if (window == null) {
+            window = rebuild(userId, recordedAt);
+            windows.put(userId, window);
+        }
+
+        synchronized (window) {
+            window.add(score);
+            if (window.lowStreak != lowStreakThreshold) return null;
+
+            AlertDto alert = new AlertDto();
+            alert.setId(UUID.randomUUID().toString());
+            alert.setUserId(userId);
+            alert.setType("DRIVING_SCORE_TREND");
+            alert.setTitle("안전");
+            alert.setMessage(
+                    "최근 " + lowStreakThreshold + "회 연속으로 운전 점수가 " + (int) lowScoreThreshold + "점 미만입니다. " +
+                            "(최근 " + window.size + "회 평균 " + Math.round(window.average()) + "점, " +
+                            "추세 점수 " + Math.round(window.ewma) + "점) " +
+                            "잠시 쉬어가며 안전 운전해 주세요."
+            );
+            alert.setCreatedAt(Instant.now());
+            return alert;
+        }
+    }
+
+    /**
+     * 오래 갱신되지 않은 사용자 상태를 제거한다.
+     */
+    @Scheduled(fixedDelayString = "${gildong.trend.purge-interval-ms:600000}")
+    public void purgeIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        synchronized (windows) {
+            windows.values().removeIf(w -> w.lastUpdatedMillis < cutoff);
+        }
+    }
+
+    /**
+     * 리더가 아니게 되면(또는 새로 리더가 되면) 그 사이 이벤트를 놓쳤을 수 있으므로 상태를 비운다.
+     */
+    @EventListener
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        windows.clear();
+    }
+
+    private ScoreWindow rebuild(String userId, LocalDateTime before) {
+        ScoreWindow window = new ScoreWindow(windowSize);
+        if (before == null) return window;
+
+        List<DrivingPattern> recent = patternRepo.findByUserIdAndRecordedAtBeforeOrderByRecordedAtDesc(
+                userId, before, PageRequest.of(0, windowSize));
+        // 최신순으로 읽었으므로 오래된 것부터 반영
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            window.add(recent.get(i).getDrivingScore());
+        }
+        return window;
+    }
+
+    /**
+     * 사용자 한 명의 점수 상태. 모든 갱신은 O(1)이며 점수를 박싱하지 않는다.
+     */
+    private final class ScoreWindow {
+        private final float[] scores;
+        private int head = 0;
+        private int size = 0;
+        private double sum = 0;
+        private double ewma = Double.NaN;
+        private int lowStreak = 0;
+        private volatile long lastUpdatedMillis = System.currentTimeMillis();
+
+        ScoreWindow(int capacity) {
+            this.scores = new float[capacity];
+        }
+
+        void add(float score) {
+            if (size == scores.length) {
+                sum -= scores[head];
+            } else {
+                size++;
+            }
+            scores[head] = score;
+            sum += score;
+            head = (head + 1) % scores.length;
+
+            ewma = Double.isNaN(ewma) ? score : ewmaAlpha * score + (1 - ewmaAlpha) * ewma;
+            lowStreak = score < lowScoreThreshold ? lowStreak + 1 : 0;
+            lastUpdatedMillis = System.currentTimeMillis();
+        }
+
+        double average() {
+            return size == 0 ? 0 : sum / size;
+        }
+    }
+}
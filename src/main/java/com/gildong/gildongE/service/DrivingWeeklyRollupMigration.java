@@ -0,0 +1,93 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.model.DrivingWeeklyRollup;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 배포 전 driving_pattern으로 driving_weekly_rollup을 채운다. (최초 1회)
+ * 주 구분은 서버에서 $dateTrunc(week, 월요일 시작, gildong.analytics.zone)로 한다.
+ *
+ * 배포 후 기록은 저장할 때 $inc로 반영되므로, deployedAt 전에 저장된 기록(_id 시각 기준)만 집계해
+ * (사용자, 주) 문서에 더한다 (sum/count는 $inc, min/max는 $min/$max). 이미 $inc된 문서도 덮어쓰지 않고 합친다.
+ * 더한 문서에는 migrations에 이 작업 이름을 남겨, 중간에 실패해 다시 실행돼도 두 번 더하지 않는다. (BackfillWriter)
+ * deployedAt 뒤에도 이전 버전 노드가 남아 있던 동안의 기록은 어느 쪽에도 들어가지 않는다.
+ */
+@Component
+public class DrivingWeeklyRollupMigration implements DataMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ZoneId zone;
+
+    public DrivingWeeklyRollupMigration(MongoTemplate mongoTemplate,
+                                        @Value("${gildong.analytics.zone:Asia/Seoul}") String zone) {
+        this.mongoTemplate = mongoTemplate;
+        this.zone = ZoneId.of(zone);
+    }
+
+    @Override
+    public String getName() {
+        return "driving-weekly-rollup-v1";
+    }
+
+    @Override
+    public void migrate(Date deployedAt) {
+        Document weekOf = new Document("$dateTrunc", new Document("date", "$recordedAt")
+                .append("unit", "week")
+                .append("startOfWeek", "monday")
+                .append("timezone", zone.getId()));
+        TypedAggregation<DrivingPattern> weekly = Aggregation.newAggregation(DrivingPattern.class,
+                Aggregation.match(Criteria.where("_id").lt(DataMigration.boundaryOf(deployedAt))),
+                context -> new Document("$group", new Document("_id",
+                        new Document("userId", "$userId").append("week", weekOf))
+                        .append("sum", new Document("$sum", "$drivingScore"))
+                        .append("count", new Document("$sum", 1))
+                        .append("min", new Document("$min", "$drivingScore"))
+                        .append("max", new Document("$max", "$drivingScore")))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(BATCH_SIZE).build());
+
+        BackfillWriter writer = new BackfillWriter(mongoTemplate, DrivingWeeklyRollup.class, BATCH_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        String name = getName();
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(weekly, Document.class)) {
+            Iterator<Document> it = rows.iterator();
+            while (it.hasNext()) {
+                Document row = it.next();
+                Document key = row.get("_id", Document.class);
+                String userId = key.getString("userId");
+                Date week = key.getDate("week");
+                if (userId == null || week == null) continue;
+                LocalDate weekStart = week.toInstant().atZone(zone).toLocalDate();
+
+                writer.upsert(new Query(Criteria.where("_id").is(userId + ":" + weekStart).and("migrations").ne(name)),
+                        new Update().setOnInsert("userId", userId)
+                                .setOnInsert("weekStart", weekStart)
+                                .inc("sum", ((Number) row.get("sum")).doubleValue())
+                                .inc("count", ((Number) row.get("count")).longValue())
+                                .min("min", ((Number) row.get("min")).floatValue())
+                                .max("max", ((Number) row.get("max")).floatValue())
+                                .set("updatedAt", now)
+                                .addToSet("migrations", name));
+            }
+        }
+        writer.flush();
+    }
+}
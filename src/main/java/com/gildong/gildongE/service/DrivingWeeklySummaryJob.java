@@ -0,0 +1,218 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.AlertDto;
+import com.gildong.gildongE.dto.UserWeeklyScore;
+import com.gildong.gildongE.model.JobRange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * 주간 운전 리포트(DRIVING_SCORE_WEEKLY_AVG) 발송 작업.
+ *
+ *  - 매주 월요일 아침, 지난주(월~일) 기록이 있는 모든 사용자의 평균 점수와 전주 대비 변화를
+ *    driving_pattern 한 번의 집계로 구해 userId순으로 스트리밍한다 (사용자별 전체 이력은 읽지 않는다)
+ *  - batch-size 명씩 묶어 alertService.pushAlerts로 보내고(알림 기록은 사용자 연결 여부와 관계없이 묶음당 한 번에 저장),
+ *    alerts-per-second를 넘지 않게 묶음 사이에 쉰다
+ *  - 쉬는 동안 공용 @Scheduled 스레드를 붙잡지 않도록 실행은 전용 스레드(weekly-summary) 하나에서 한다
+ *  - 실행 기록은 job_runs/job_ranges를 그대로 쓴다. 집계가 하나라 범위는 1개이고,
+ *    묶음마다 마지막 userId를 checkpoint로 남겨 멈춘 노드의 작업을 다른 노드가 이어받는다
+ */
+@Component
+public class DrivingWeeklySummaryJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrivingWeeklySummaryJob.class);
+    public static final String JOB_NAME = "driving-weekly-summary";
+
+    private final DrivingPatternService drivingPatternService;
+    private final AlertService alertService;
+    private final JobRunService jobRunService;
+    private final ZoneId zone;
+    private final int batchSize;
+    private final int alertsPerSecond;
+
+    // 예약/이어받기/수동 실행 모두 이 스레드에서. running은 이 노드에서 실행이 겹치지 않게 한다
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "weekly-summary");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DrivingWeeklySummaryJob(DrivingPatternService drivingPatternService,
+                                   AlertService alertService,
+                                   JobRunService jobRunService,
+                                   @Value("${gildong.analytics.zone:Asia/Seoul}") String zone,
+                                   @Value("${gildong.weekly-summary.batch-size:200}") int batchSize,
+                                   @Value("${gildong.weekly-summary.alerts-per-second:200}") int alertsPerSecond) {
+        this.drivingPatternService = drivingPatternService;
+        this.alertService          = alertService;
+        this.jobRunService         = jobRunService;
+        this.zone                  = ZoneId.of(zone);
+        this.batchSize             = Math.max(1, batchSize);
+        this.alertsPerSecond       = Math.max(1, alertsPerSecond);
+    }
+
+    /**
+     * 매주 월요일 09시(gildong.analytics.zone)에 지난주 리포트를 보낸다. 모든 노드에서 실행되지만 범위 리스를 잡은 노드만 처리한다.
+     */
+    @Scheduled(cron = "0 0 9 * * MON", zone = "${gildong.analytics.zone:Asia/Seoul}")
+    public void pushWeeklySummaries() {
+        runWeeklySummary(lastWeekStart());
+    }
+
+    /** 끝나지 않은 주간 실행이 있으면 checkpoint 다음부터 이어서 처리한다. */
+    @Scheduled(fixedDelayString = "${gildong.jobs.steal-interval-ms:30000}")
+    public void helpUnfinishedRuns() {
+        submit(() -> {
+            for (LocalDate weekStart : jobRunService.findOpenRunDates(JOB_NAME)) {
+                workRange(weekStart);
+            }
+        });
+    }
+
+    /** gildong.analytics.zone 기준 지난주 월요일 */
+    public LocalDate lastWeekStart() {
+        return LocalDate.now(zone).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1);
+    }
+
+    /**
+     * weekStart(월요일)부터 7일간의 리포트 실행을 전용 스레드에 넘긴다. 이미 완료된 주면 아무것도 하지 않는다.
+     * @return 이 노드에서 이미 실행 중이면 false
+     */
+    public boolean runWeeklySummary(LocalDate weekStart) {
+        return submit(() -> {
+            if (!jobRunService.open(JOB_NAME, weekStart, 1)) {
+                logger.info("Job {} for week {} already completed", JOB_NAME, weekStart);
+                return;
+            }
+            workRange(weekStart);
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    private boolean submit(Runnable work) {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Job {} already running on this node", JOB_NAME);
+            return false;
+        }
+        try {
+            worker.execute(() -> {
+                try {
+                    work.run();
+                } catch (RuntimeException e) {
+                    logger.error("Job {} failed", JOB_NAME, e);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 종료 중
+            running.set(false);
+            return false;
+        }
+    }
+
+    private boolean workRange(LocalDate weekStart) {
+        JobRange range = jobRunService.claimRange(JOB_NAME, weekStart);
+        if (range == null) return false;
+        logger.info("Job {} week {} claimed (attempt {}, checkpoint={})",
+                JOB_NAME, weekStart, range.getAttempts(), range.getCheckpoint());
+        boolean done = false;
+        try {
+            done = processRange(range, weekStart);
+        } catch (RuntimeException e) {
+            logger.error("Job {} week {} failed", JOB_NAME, weekStart, e);
+        } finally {
+            jobRunService.finishRange(range, done);
+        }
+        return true;
+    }
+
+    private boolean processRange(JobRange range, LocalDate weekStart) {
+        long startedAt = System.currentTimeMillis();
+        long sent = 0;
+        try (Stream<UserWeeklyScore> scores = drivingPatternService.streamWeeklyScores(weekStart, range.getCheckpoint())) {
+            Iterator<UserWeeklyScore> it = scores.iterator();
+            List<AlertDto> batch = new ArrayList<>(batchSize);
+            while (it.hasNext()) {
+                String lastUserId = null;
+                batch.clear();
+                while (batch.size() < batchSize && it.hasNext()) {
+                    UserWeeklyScore score = it.next();
+                    batch.add(toAlert(score));
+                    lastUserId = score.getUserId();
+                }
+
+                long batchStart = System.currentTimeMillis();
+                alertService.pushAlerts(batch);
+                // 묶음을 보낸 뒤에만 checkpoint(리스 연장 포함) → 중간에 멈추면 이 묶음부터 다시 보낸다
+                if (!jobRunService.checkpointRange(range, lastUserId, batch.size())) {
+                    logger.warn("Job {} week {} was taken over by another node", JOB_NAME, weekStart);
+                    return false;
+                }
+                sent += batch.size();
+
+                // 초당 발송 수 제한: 이 묶음에 허용된 시간보다 빨리 끝났으면 나머지만큼 쉰다
+                long budgetMillis = TimeUnit.SECONDS.toMillis(batch.size()) / alertsPerSecond;
+                long spent = System.currentTimeMillis() - batchStart;
+                if (spent < budgetMillis) {
+                    try {
+                        Thread.sleep(budgetMillis - spent);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+        }
+        logger.info("Job {} week {} finished: sent={}, elapsedMs={}",
+                JOB_NAME, weekStart, sent, System.currentTimeMillis() - startedAt);
+        return true;
+    }
+
+    private AlertDto toAlert(UserWeeklyScore score) {
+        // 예) "지난주 평균 운전 점수 82점 (전주 대비 +5점, 12회 주행)"
+        long average = Math.round(score.getAverage());
+        String change;
+        if (score.getDelta() == null) {
+            change = "전주 기록 없음";
+        } else {
+            long delta = Math.round(score.getDelta());
+            change = "전주 대비 " + (delta > 0 ? "+" + delta : String.valueOf(delta)) + "점";
+        }
+
+        AlertDto alert = new AlertDto();
+        alert.setId(UUID.randomUUID().toString());
+        alert.setUserId(score.getUserId());
+        alert.setType("DRIVING_SCORE_WEEKLY_AVG");
+        alert.setTitle("주간 운전 리포트");
+        alert.setMessage("지난주 평균 운전 점수 " + average + "점 (" + change + ", " + score.getCount() + "회 주행)");
+        alert.setCreatedAt(Instant.now());
+        return alert;
+    }
+}
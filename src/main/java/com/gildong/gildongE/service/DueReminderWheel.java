@@ -0,0 +1,314 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.AlertDto;
+import com.gildong.gildongE.model.ConsumableDue;
+import com.gildong.gildongE.model.ConsumablePart;
+import com.gildong.gildongE.model.User;
+import com.gildong.gildongE.repository.ConsumableDueRepository;
+import com.gildong.gildongE.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 교체 예정 알림을 "예정일 N일 전, 사용자가 정한 시각"에 정확히 보낸다.
+ *
+ *  - 리더 노드에서만 동작. 계층형 타이밍 휠(TimingWheel)에 알림 시각을 등록하고 tick마다 만료분을 발송
+ *  - 메모리 제한: 오늘부터 horizon-days 일 안에 알림이 울릴 항목만 consumable_due에서 적재하고,
+ *    날짜가 바뀌면 다음 하루치를 이어서 적재 (rolling horizon)
+ *  - consumables 변경은 Change Stream 리스너가 전달 → 해당 차량의 기존 타이머 취소 후 재등록 (O(1))
+ *  - 발송 직전 consumable_due를 다시 확인하여 그 사이 바뀐 예정일로는 보내지 않는다
+ *    (건너뛴 알림은 로그와 gildong.reminder.skipped{reason} 카운터로 남긴다)
+ *  - 사용자가 바꾼 알림 시각(reminderHour)은 다음에 적재되는 날짜분부터 반영된다
+ *  - 보낸 알림은 job_dedupe에 (행, 알림 날짜)로 표시한다. 리더가 바뀌면 새 리더는 오늘 알림 중 시각이 지났지만
+ *    표시가 없는 것을 바로 보내고, 이전 리더가 이미 보낸 것은 표시를 보고 건너뛴다
+ *
+ * 휠과 타이머 맵은 전용 스레드 하나에서만 다룬다. (다른 스레드의 요청은 그 스레드에 작업으로 넘긴다)
+ * gildong.reminder.wheel.enabled=true 이면 자정 일괄 알림(ConsumableInspectionScheduler) 대신 사용된다.
+ */
+@Service
+public class DueReminderWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(DueReminderWheel.class);
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    private static final String JOB_NAME = "due-reminder";
+
+    private final ConsumableDueRepository dueRepo;
+    private final UserRepository userRepo;
+    private final AlertService alertService;
+    private final LeaderElectionService leaderElection;
+    private final JobRunService jobRunService;
+    private final boolean enabled;
+    private final int leadDays;
+    private final int defaultHour;
+    private final int horizonDays;
+    private final long tickMs;
+    private final Counter skippedDeleted;
+    private final Counter skippedChanged;
+
+    // 아래 상태는 wheelThread에서만 접근한다
+    private TimingWheel<DueReminder> wheel;
+    private final Map<String, TimingWheel.Timeout<DueReminder>> timers = new HashMap<>();
+    private LocalDate loadedUntil;      // 알림 날짜 기준, 이 날짜 전날까지 적재됨
+
+    private volatile ScheduledExecutorService wheelThread;
+
+    public DueReminderWheel(ConsumableDueRepository dueRepo,
+                            UserRepository userRepo,
+                            AlertService alertService,
+                            LeaderElectionService leaderElection,
+                            JobRunService jobRunService,
+                            MeterRegistry registry,
+                            @Value("${gildong.reminder.wheel.enabled:false}") boolean enabled,
+                            @Value("${gildong.reminder.lead-days:7}") int leadDays,
+                            @Value("${gildong.reminder.default-hour:9}") int defaultHour,
+                            @Value("${gildong.reminder.horizon-days:2}") int horizonDays,
+                            @Value("${gildong.reminder.tick-ms:1000}") long tickMs) {
+        this.dueRepo = dueRepo;
+        this.userRepo = userRepo;
+        this.alertService = alertService;
+        this.leaderElection = leaderElection;
+        this.jobRunService = jobRunService;
+        this.enabled = enabled;
+        this.leadDays = leadDays;
+        this.defaultHour = defaultHour;
+        this.horizonDays = Math.max(1, horizonDays);
+        this.tickMs = tickMs;
+        this.skippedDeleted = Counter.builder("gildong.reminder.skipped")
+                .description("Due reminders not sent because consumable_due no longer matches")
+                .tag("reason", "deleted")
+                .register(registry);
+        this.skippedChanged = Counter.builder("gildong.reminder.skipped")
+                .description("Due reminders not sent because consumable_due no longer matches")
+                .tag("reason", "due-date-changed")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 리더가 되면 휠을 새로 만들어 적재하고, 리더를 잃으면 멈춘다.
+     */
+    @EventListener
+    public synchronized void onLeadershipChanged(LeadershipChangedEvent event) {
+        stop();
+        if (!enabled || !event.isLeader()) return;
+
+        long fencingToken = event.getFencingToken();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "due-reminder-wheel");
+            t.setDaemon(true);
+            return t;
+        });
+        wheelThread = executor;
+        executor.execute(() -> start(fencingToken));
+        executor.scheduleWithFixedDelay(() -> tick(fencingToken), tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * consumables 문서가 추가/수정되었을 때 호출한다. (Change Stream 리스너)
+     * 적재 범위 안의 알림만 다시 등록하고, 범위 밖은 나중에 해당 날짜를 적재할 때 읽힌다.
+     */
+    public void onConsumableChanged(Document consumable) {
+        ScheduledExecutorService executor = wheelThread;
+        if (executor == null || consumable == null || consumable.getString("userId") == null) return;
+
+        String consumableId = String.valueOf(consumable.get("_id"));
+        String userId = consumable.getString("userId");
+        List<DueReminder> reminders = new ArrayList<>();
+        List<String> rowIds = new ArrayList<>();
+        for (ConsumablePart part : ConsumablePart.values()) {
+            String rowId = consumableId + ":" + part.name();
+            rowIds.add(rowId);
+            Object raw = consumable.get(part.getDueDateField());
+            LocalDate dueDate = ConsumableDueService.parseDueDate(raw instanceof String ? (String) raw : null);
+            if (dueDate != null) {
+                reminders.add(new DueReminder(rowId, dueDate));
+            }
+        }
+
+        try {
+            executor.execute(() -> {
+                if (wheel == null) return;
+                rowIds.forEach(this::cancel);
+                LocalDate today = LocalDate.now(ZONE);
+                int hour = reminderHours(Set.of(userId)).getOrDefault(userId, defaultHour);
+                for (DueReminder r : reminders) {
+                    LocalDate remindOn = r.dueDate().minusDays(leadDays);
+                    if (remindOn.isBefore(today) || !remindOn.isBefore(loadedUntil)) continue;
+                    register(r, hour);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 그 사이 리더를 잃어 휠이 멈춘 경우
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        ScheduledExecutorService executor = wheelThread;
+        wheelThread = null;
+        if (executor == null) return;
+        executor.shutdownNow();
+        // 남은 상태는 다음 start()에서 새로 만든다
+    }
+
+    private void start(long fencingToken) {
+        wheel = new TimingWheel<>(tickMs, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+        long horizonMillis = TimeUnit.DAYS.toMillis(horizonDays + 1L);
+        if (horizonMillis > wheel.maxDelayMillis()) {
+            logger.error("Reminder horizon {}d exceeds timing wheel range {}ms", horizonDays, wheel.maxDelayMillis());
+            stop();
+            return;
+        }
+        timers.clear();
+        loadedUntil = LocalDate.now(ZONE);
+        List<DueReminder> missed = extendHorizon();
+
+        // 리더가 바뀌는 동안 시각이 지난 오늘 알림 (이미 보낸 것은 fire에서 표시를 보고 건너뛴다)
+        if (missed.isEmpty() || !leaderElection.confirmToken(fencingToken)) return;
+        logger.info("Catching up {} due reminders whose time passed before this node took over", missed.size());
+        missed.forEach(this::fire);
+    }
+
+    private void tick(long fencingToken) {
+        try {
+            if (wheel == null || !leaderElection.holdsToken(fencingToken)) return;
+            extendHorizon();
+            List<DueReminder> due = wheel.advance(System.currentTimeMillis());
+            // 보내기 직전에는 리스 문서로 다시 확인한다 (리더가 바뀌었으면 새 리더가 다시 적재해 보낸다)
+            if (!due.isEmpty() && !leaderElection.confirmToken(fencingToken)) return;
+            for (DueReminder r : due) {
+                timers.remove(r.rowId());
+                fire(r);
+            }
+        } catch (RuntimeException e) {
+            // 예외가 나도 다음 tick은 계속 돌아야 한다
+            logger.error("Due reminder tick failed", e);
+        }
+    }
+
+    // 오늘 + horizonDays 전날까지의 알림 날짜를 하루씩 적재한다. 알림 시각이 이미 지나 등록하지 못한 것을 돌려준다
+    private List<DueReminder> extendHorizon() {
+        List<DueReminder> missed = new ArrayList<>();
+        LocalDate limit = LocalDate.now(ZONE).plusDays(horizonDays);
+        while (loadedUntil.isBefore(limit)) {
+            long startedAt = System.currentTimeMillis();
+            LocalDate remindOn = loadedUntil;
+            List<ConsumableDue> rows = dueRepo.findByDueDate(remindOn.plusDays(leadDays));
+
+            Set<String> userIds = new HashSet<>();
+            rows.forEach(row -> userIds.add(row.getUserId()));
+            Map<String, Integer> hours = reminderHours(userIds);
+
+            int registered = 0;
+            for (ConsumableDue row : rows) {
+                DueReminder r = new DueReminder(row.getId(), row.getDueDate());
+                cancel(r.rowId());
+                if (register(r, hours.getOrDefault(row.getUserId(), defaultHour))) registered++;
+                else missed.add(r);
+            }
+            loadedUntil = remindOn.plusDays(1);
+            logger.info("Due reminders loaded: remindOn={}, registered={}, pending={}, elapsedMs={}",
+                    remindOn, registered, wheel.size(), System.currentTimeMillis() - startedAt);
+        }
+        return missed;
+    }
+
+    private boolean register(DueReminder r, int hour) {
+        long deadline = r.dueDate().minusDays(leadDays)
+                .atTime(hour, 0)
+                .atZone(ZONE)
+                .toInstant()
+                .toEpochMilli();
+        TimingWheel.Timeout<DueReminder> timeout = wheel.schedule(deadline, r);
+        if (timeout == null) return false;     // 오늘 알림 시각이 이미 지남
+        timers.put(r.rowId(), timeout);
+        return true;
+    }
+
+    private void cancel(String rowId) {
+        TimingWheel.Timeout<DueReminder> timeout = timers.remove(rowId);
+        if (timeout != null) timeout.cancel();
+    }
+
+    private Map<String, Integer> reminderHours(Set<String> userIds) {
+        Map<String, Integer> hours = new HashMap<>();
+        for (User u : userRepo.findAllById(userIds)) {
+            Integer hour = u.getReminderHour();
+            hours.put(u.getId(), hour != null ? hour : defaultHour);
+        }
+        return hours;
+    }
+
+    private void fire(DueReminder r) {
+        // 등록 이후 예정일이 바뀌었거나 삭제되었으면 보내지 않는다
+        ConsumableDue row = dueRepo.findById(r.rowId()).orElse(null);
+        if (row == null) {
+            skippedDeleted.increment();
+            logger.info("Skip due reminder {}: consumable_due row no longer exists (registered for {})",
+                    r.rowId(), r.dueDate());
+            return;
+        }
+        if (!r.dueDate().equals(row.getDueDate())) {
+            skippedChanged.increment();
+            logger.info("Skip due reminder {}: registered for {} but consumable_due now says {}",
+                    r.rowId(), r.dueDate(), row.getDueDate());
+            return;
+        }
+
+        AlertDto alert = new AlertDto();
+        alert.setId(UUID.randomUUID().toString());
+        alert.setUserId(row.getUserId());
+        alert.setType("CONSUMABLE_DUE_SOON");
+        alert.setTitle("차량 점검");
+        alert.setMessage(
+                "[" + row.getCarModel() + " / " + row.getCarNumber() + "]\n" +
+                        row.getPart().getLabel() + " 교체 예정일까지 " + leadDays + "일 남았습니다. (" +
+                        String.format("%02d월 %02d일", row.getDueDate().getMonthValue(), row.getDueDate().getDayOfMonth()) +
+                        ")"
+        );
+        alert.setCreatedAt(Instant.now());
+
+        // 이전 리더가 이미 보냈으면 건너뛴다. 보내다 실패하면 표시를 지워 리더가 바뀔 때 다시 보낼 수 있게 한다
+        LocalDate remindOn = r.dueDate().minusDays(leadDays);
+        if (!jobRunService.claim(r.rowId(), JOB_NAME, remindOn)) {
+            logger.debug("Skip due reminder {}: already sent for {}", r.rowId(), remindOn);
+            return;
+        }
+        try {
+            alertService.pushAlert(alert);
+        } catch (RuntimeException e) {
+            jobRunService.release(r.rowId(), JOB_NAME, remindOn);
+            logger.error("Failed to send due reminder {}", r.rowId(), e);
+        }
+    }
+
+    private record DueReminder(String rowId, LocalDate dueDate) {
+    }
+}
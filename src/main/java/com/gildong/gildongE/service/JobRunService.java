@@ -0,0 +1,306 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.JobRangeResponse;
+import com.gildong.gildongE.dto.JobRunResponse;
+import com.gildong.gildongE.model.JobDedupeKey;
+import com.gildong.gildongE.model.JobRange;
+import com.gildong.gildongE.model.JobRun;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 스케줄러 작업 실행 기록(job_runs), 범위 리스(job_ranges), 사용자별 중복 방지 키(job_dedupe) 관리.
+ *
+ *  - open: 실행과 그 범위들(userId 해시 버킷을 rangeCount개로 나눔)을 없으면 만든다 (여러 노드가 불러도 한 벌)
+ *  - claimRange: 끝나지 않았고 리스가 비었거나 만료된 범위 하나를 잡는다 → 멈춘 노드의 범위도 가져간다
+ *    gildong.jobs.max-attempts번 잡고도 끝나지 않은 범위는 FAILED가 되어 더 잡히지 않는다 (실행도 FAILED)
+ *  - checkpointRange/renewRange/finishRange: 범위를 잡은 노드(leaseToken)만 갱신할 수 있다
+ *  - claim: (사용자, 작업, 날짜)당 한 번만 true → 이어하기/재실행에서도 같은 사용자에게 두 번 보내지 않는다
+ */
+@Service
+public class JobRunService {
+
+    private final MongoTemplate mongoTemplate;
+    private final LeaderElectionService leaderElection;
+    private final long rangeLeaseMillis;
+    private final int maxAttempts;
+
+    public JobRunService(MongoTemplate mongoTemplate,
+                         LeaderElectionService leaderElection,
+                         @Value("${gildong.jobs.range-lease-ms:60000}") long rangeLeaseMillis,
+                         @Value("${gildong.jobs.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaderElection = leaderElection;
+        this.rangeLeaseMillis = rangeLeaseMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public long getRangeLeaseMillis() {
+        return rangeLeaseMillis;
+    }
+
+    /**
+     * 실행과 범위 문서를 (없으면) 만든다. 이미 완료된 실행이면 false.
+     * 실패(FAILED)한 실행이면 실패한 범위의 시도 횟수를 0으로 되돌려 다시 진행한다. (수동 재실행)
+     */
+    public boolean open(String jobName, LocalDate runDate, int rangeCount) {
+        Date now = new Date();
+        Query runQuery = new Query(Criteria.where("_id").is(runId(jobName, runDate)));
+        JobRun run;
+        try {
+            run = mongoTemplate.findAndModify(runQuery,
+                    new Update()
+                            .setOnInsert("jobName", jobName)
+                            .setOnInsert("runDate", runDate)
+                            .setOnInsert("status", JobRun.RUNNING)
+                            .setOnInsert("rangeCount", rangeCount)
+                            .setOnInsert("startedAt", now)
+                            .setOnInsert("updatedAt", now),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    JobRun.class);
+        } catch (DuplicateKeyException e) {
+            // 다른 노드가 동시에 만든 경우
+            run = mongoTemplate.findOne(runQuery, JobRun.class);
+        }
+        if (run == null || JobRun.COMPLETED.equals(run.getStatus())) return false;
+        if (JobRun.FAILED.equals(run.getStatus())) retryFailedRanges(jobName, runDate, now);
+
+        // 범위 개수는 처음 만든 값을 따른다 (설정이 바뀌어도 진행 중인 실행은 그대로)
+        int count = run.getRangeCount();
+        for (int i = 0; i < count; i++) {
+            upsertIgnoringRace(
+                    new Query(Criteria.where("_id").is(runId(jobName, runDate) + ":" + i)),
+                    new Update()
+                            .setOnInsert("jobName", jobName)
+                            .setOnInsert("runDate", runDate)
+                            .setOnInsert("rangeIndex", i)
+                            .setOnInsert("bucketFrom", UserBuckets.COUNT * i / count)
+                            .setOnInsert("bucketTo", UserBuckets.COUNT * (i + 1) / count)
+                            .setOnInsert("status", JobRange.PENDING)
+                            .setOnInsert("leaseExpiresAt", new Date(0)));
+        }
+        return true;
+    }
+
+    /**
+     * 끝나지 않았고 리스가 만료된(또는 아무도 잡지 않은) 범위 하나를 잡는다. 없으면 null.
+     * 시도 횟수를 다 쓰고 리스도 끝난 범위(잡은 노드가 멈춘 경우 등)는 이때 FAILED로 바꾼다.
+     */
+    public JobRange claimRange(String jobName, LocalDate runDate) {
+        Date now = new Date();
+        failExhaustedRanges(jobName, runDate, now);
+        Query query = new Query(Criteria.where("jobName").is(jobName)
+                .and("runDate").is(runDate)
+                .and("status").in(JobRange.PENDING, JobRange.RUNNING)
+                .and("leaseExpiresAt").lt(now)
+                // attempts가 없는 (한 번도 잡히지 않은) 범위도 포함
+                .and("attempts").not().gte(maxAttempts))
+                .with(Sort.by("rangeIndex"));
+        Update update = new Update()
+                .set("status", JobRange.RUNNING)
+                .set("owner", leaderElection.getNodeId())
+                .set("leaseExpiresAt", new Date(now.getTime() + rangeLeaseMillis))
+                .set("updatedAt", now)
+                .inc("leaseToken", 1)
+                .inc("attempts", 1);
+        JobRange range = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), JobRange.class);
+        if (range != null && range.getStartedAt() == null) {
+            mongoTemplate.updateFirst(ownedBy(range), new Update().set("startedAt", now), JobRange.class);
+        }
+        return range;
+    }
+
+    /** 범위 안에서 처리가 끝난 마지막 userId와 그 사이 처리 건수를 기록하고 리스를 연장한다. 빼앗겼으면 false. */
+    public boolean checkpointRange(JobRange range, String lastUserId, long processedDelta) {
+        Date now = new Date();
+        return mongoTemplate.updateFirst(ownedBy(range),
+                new Update().set("checkpoint", lastUserId)
+                        .inc("processed", processedDelta)
+                        .set("leaseExpiresAt", new Date(now.getTime() + rangeLeaseMillis))
+                        .set("updatedAt", now),
+                JobRange.class).getMatchedCount() > 0;
+    }
+
+    /** 리스만 연장한다. 빼앗겼으면 false. */
+    public boolean renewRange(JobRange range) {
+        Date now = new Date();
+        return mongoTemplate.updateFirst(ownedBy(range),
+                new Update().set("leaseExpiresAt", new Date(now.getTime() + rangeLeaseMillis))
+                        .set("updatedAt", now),
+                JobRange.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * 범위 처리를 끝낸다. 다 끝났으면 DONE, 아니면 리스를 바로 놓아 다른 노드가 이어받게 한다.
+     * 끝나지 않았는데 시도 횟수를 다 썼으면 FAILED.
+     * 마지막 범위가 정리되면 실행 전체를 COMPLETED(모두 DONE) 또는 FAILED로 표시한다.
+     */
+    public void finishRange(JobRange range, boolean done) {
+        Date now = new Date();
+        Update update = new Update().set("updatedAt", now).set("leaseExpiresAt", new Date(0));
+        boolean failed = !done && range.getAttempts() >= maxAttempts;
+        if (done) update.set("status", JobRange.DONE).set("completedAt", now);
+        if (failed) update.set("status", JobRange.FAILED);
+        boolean owned = mongoTemplate.updateFirst(ownedBy(range), update, JobRange.class).getMatchedCount() > 0;
+        if (owned && (done || failed)) settleRun(range.getJobName(), range.getRunDate());
+    }
+
+    /** 아직 끝나지 않은 실행 날짜들 (오래된 순) */
+    public List<LocalDate> findOpenRunDates(String jobName) {
+        return mongoTemplate.find(new Query(Criteria.where("jobName").is(jobName)
+                        .and("status").is(JobRun.RUNNING))
+                        .with(Sort.by("runDate")), JobRun.class)
+                .stream()
+                .map(JobRun::getRunDate)
+                .collect(Collectors.toList());
+    }
+
+    /** 최근 실행 기록 (실행 날짜 내림차순) */
+    public List<JobRunResponse> findRecentRuns(String jobName, int limit) {
+        return mongoTemplate.find(new Query(Criteria.where("jobName").is(jobName))
+                        .with(Sort.by(Sort.Direction.DESC, "runDate"))
+                        .limit(limit), JobRun.class)
+                .stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /** 실행 하나의 범위별 진행 상황 (범위 순) */
+    public List<JobRangeResponse> findRanges(String jobName, LocalDate runDate) {
+        return mongoTemplate.find(new Query(Criteria.where("jobName").is(jobName).and("runDate").is(runDate))
+                        .with(Sort.by("rangeIndex")), JobRange.class)
+                .stream()
+                .map(this::toRangeResponse)
+                .collect(Collectors.toList());
+    }
+
+    /** 작업의 모든 실행 중 가장 뒤쪽 checkpoint (정렬 가능한 키를 checkpoint로 쓰는 작업용, 없으면 null) */
+    public String findLastCheckpoint(String jobName) {
+        Query query = new Query(Criteria.where("jobName").is(jobName).and("checkpoint").ne(null))
+                .with(Sort.by(Sort.Direction.DESC, "checkpoint"))
+                .limit(1);
+        JobRange last = mongoTemplate.findOne(query, JobRange.class);
+        return last != null ? last.getCheckpoint() : null;
+    }
+
+    /**
+     * (사용자, 작업, 날짜) 처리 표시를 남긴다. 이미 처리된 사용자면 false.
+     */
+    public boolean claim(String userId, String jobName, LocalDate runDate) {
+        JobDedupeKey key = new JobDedupeKey();
+        key.setId(userId + ":" + runId(jobName, runDate));
+        key.setCreatedAt(new Date());
+        try {
+            mongoTemplate.insert(key);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /** 처리에 실패한 사용자의 표시를 지워 다음 실행에서 다시 처리되게 한다. */
+    public void release(String userId, String jobName, LocalDate runDate) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(userId + ":" + runId(jobName, runDate))),
+                JobDedupeKey.class);
+    }
+
+    private void upsertIgnoringRace(Query query, Update update) {
+        try {
+            mongoTemplate.upsert(query, update, JobRange.class);
+        } catch (DuplicateKeyException e) {
+            // 다른 노드가 같은 범위를 동시에 만든 경우 (내용은 같다)
+        }
+    }
+
+    // 리스가 끝났는데 시도 횟수를 다 쓴 범위를 FAILED로 바꾼다
+    private void failExhaustedRanges(String jobName, LocalDate runDate, Date now) {
+        Query exhausted = new Query(Criteria.where("jobName").is(jobName)
+                .and("runDate").is(runDate)
+                .and("status").in(JobRange.PENDING, JobRange.RUNNING)
+                .and("leaseExpiresAt").lt(now)
+                .and("attempts").gte(maxAttempts));
+        if (mongoTemplate.updateMulti(exhausted, new Update().set("status", JobRange.FAILED).set("updatedAt", now),
+                JobRange.class).getModifiedCount() > 0) {
+            settleRun(jobName, runDate);
+        }
+    }
+
+    private void retryFailedRanges(String jobName, LocalDate runDate, Date now) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("jobName").is(jobName)
+                        .and("runDate").is(runDate)
+                        .and("status").is(JobRange.FAILED)),
+                new Update().set("status", JobRange.PENDING).set("attempts", 0).set("updatedAt", now),
+                JobRange.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(runId(jobName, runDate))
+                        .and("status").is(JobRun.FAILED)),
+                new Update().set("status", JobRun.RUNNING).set("updatedAt", now),
+                JobRun.class);
+    }
+
+    // 모든 범위가 DONE/FAILED면 실행을 COMPLETED(모두 DONE) 또는 FAILED로 표시한다
+    private void settleRun(String jobName, LocalDate runDate) {
+        List<JobRange> ranges = mongoTemplate.find(
+                new Query(Criteria.where("jobName").is(jobName).and("runDate").is(runDate)), JobRange.class);
+        if (ranges.stream().anyMatch(r -> !JobRange.DONE.equals(r.getStatus())
+                && !JobRange.FAILED.equals(r.getStatus()))) return;
+
+        boolean failed = ranges.stream().anyMatch(r -> JobRange.FAILED.equals(r.getStatus()));
+        long processed = ranges.stream().mapToLong(JobRange::getProcessed).sum();
+        Date now = new Date();
+        Update update = new Update().set("status", failed ? JobRun.FAILED : JobRun.COMPLETED)
+                .set("processed", processed)
+                .set("updatedAt", now);
+        if (!failed) update.set("completedAt", now);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(runId(jobName, runDate))), update, JobRun.class);
+    }
+
+    private JobRunResponse toResponse(JobRun r) {
+        JobRunResponse dto = new JobRunResponse();
+        dto.setJobName(r.getJobName());
+        dto.setRunDate(r.getRunDate());
+        dto.setStatus(r.getStatus());
+        dto.setRangeCount(r.getRangeCount());
+        dto.setProcessed(r.getProcessed());
+        dto.setStartedAt(r.getStartedAt());
+        dto.setUpdatedAt(r.getUpdatedAt());
+        dto.setCompletedAt(r.getCompletedAt());
+        return dto;
+    }
+
+    private JobRangeResponse toRangeResponse(JobRange r) {
+        JobRangeResponse dto = new JobRangeResponse();
+        dto.setRangeIndex(r.getRangeIndex());
+        dto.setBucketFrom(r.getBucketFrom());
+        dto.setBucketTo(r.getBucketTo());
+        dto.setStatus(r.getStatus());
+        dto.setCheckpoint(r.getCheckpoint());
+        dto.setProcessed(r.getProcessed());
+        dto.setAttempts(r.getAttempts());
+        dto.setOwner(r.getOwner());
+        dto.setLeaseExpiresAt(r.getLeaseExpiresAt());
+        dto.setStartedAt(r.getStartedAt());
+        dto.setCompletedAt(r.getCompletedAt());
+        return dto;
+    }
+
+    private static String runId(String jobName, LocalDate runDate) {
+        return jobName + ":" + runDate;
+    }
+
+    private static Query ownedBy(JobRange range) {
+        return new Query(Criteria.where("_id").is(range.getId()).and("leaseToken").is(range.getLeaseToken()));
+    }
+}
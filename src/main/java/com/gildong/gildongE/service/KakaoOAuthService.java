@@ -70,6 +70,9 @@ public class KakaoOAuthService {
         newUser.setPassword(null);
         newUser.setEmail(null);  // email은 null 처리 또는 모델에서 nullable 처리
         newUser.setProvider(AuthProvider.KAKAO);
+        newUser.setAvgDrivingScore(0f);
+        newUser.setScoreSum(0.0);
+        newUser.setScoreCount(0L);
         newUser.setCreatedAt(LocalDateTime.now());
 
         return userService.toResponse(userRepository.save(newUser));
@@ -0,0 +1,185 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.LeaderLease;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * MongoDB 문서 하나(leader_leases)를 이용한 리스 기반 리더 선출.
+ *
+ *  - 리더는 renew-interval 마다 expiresAt을 연장한다.
+ *  - 리스가 만료되면 다른 노드가 가져가며, 이때 fencingToken이 1 증가한다.
+ *  - 갱신에 실패하면(네트워크 오류 포함) 즉시 리더를 내려놓는다.
+ *  - 만료 시각은 노드 시계가 아니라 MongoDB 서버 시각($$NOW)으로 정하고 비교하므로 노드 간 시계 차이와 무관하다.
+ *
+ * 싱글톤 작업은 isLeader()로 실행 여부를 판단하고,
+ * 오래 걸리는 작업은 시작 시 받은 토큰으로 holdsToken()을 확인해 도중에 리더가 바뀌면 멈춘다.
+ * isLeader/holdsToken은 마지막 갱신 시점의 로컬 판단이라, 갱신이 lease-duration 넘게 멈추면(GC, 네트워크)
+ * 잠시 두 노드가 리더로 동작할 수 있다. 되돌릴 수 없는 쓰기 직전에는 confirmToken()으로 리스 문서를 다시 확인한다.
+ */
+@Service
+public class LeaderElectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElectionService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String leaseName;
+    private final long leaseDurationMillis;
+    private final String nodeId;
+
+    private volatile boolean leader = false;
+    private volatile long fencingToken = -1L;
+
+    public LeaderElectionService(MongoTemplate mongoTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${gildong.leader.lease-name:gildong-singleton}") String leaseName,
+                                 @Value("${gildong.leader.lease-duration-ms:10000}") long leaseDurationMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.leaseName = leaseName;
+        this.leaseDurationMillis = leaseDurationMillis;
+        this.nodeId = resolveHostName() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * 리더라면 리스를 연장하고, 아니라면 만료된 리스를 가져오려고 시도한다.
+     */
+    @Scheduled(fixedDelayString = "${gildong.leader.renew-interval-ms:3000}")
+    public void renewOrAcquire() {
+        LeaderLease lease;
+        try {
+            lease = leader ? renew() : null;
+            if (lease == null) {
+                lease = acquire();
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Leader lease renewal failed, stepping down: {}", e.getMessage());
+            lease = null;
+        }
+
+        boolean nowLeader = lease != null && nodeId.equals(lease.getOwner());
+        if (nowLeader) {
+            fencingToken = lease.getFencingToken();
+        }
+        if (nowLeader != leader) {
+            leader = nowLeader;
+            logger.info("Leadership changed: nodeId={}, leader={}, fencingToken={}", nodeId, nowLeader, fencingToken);
+            eventPublisher.publishEvent(new LeadershipChangedEvent(nowLeader, fencingToken));
+        }
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    /**
+     * 작업 시작 시 받은 토큰을 아직 이 노드가 보유하고 있는지 확인한다.
+     */
+    public boolean holdsToken(long token) {
+        return leader && fencingToken == token;
+    }
+
+    /**
+     * 리스 문서에서 직접 이 노드가 token으로 아직 만료 전(서버 시각 기준) 리스를 가졌는지 확인한다. (DB 조회 1회)
+     * 조회에 실패하면 false.
+     */
+    public boolean confirmToken(long token) {
+        if (!holdsToken(token)) return false;
+        try {
+            return mongoTemplate.exists(new BasicQuery(new Document("_id", leaseName)
+                    .append("owner", nodeId)
+                    .append("fencingToken", token)
+                    .append("$expr", new Document("$gt", List.of("$expiresAt", "$$NOW")))), LeaderLease.class);
+        } catch (DataAccessException e) {
+            logger.warn("Leader lease check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 종료 시 리스를 바로 만료시켜 다른 노드가 기다리지 않고 이어받게 한다.
+     */
+    @PreDestroy
+    public void release() {
+        if (!leader) return;
+        leader = false;
+        try {
+            Query query = new BasicQuery(new Document("_id", leaseName).append("owner", nodeId));
+            mongoTemplate.updateFirst(query, setStage(new Document("expiresAt", "$$NOW")), LeaderLease.class);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to release leader lease: {}", e.getMessage());
+        }
+    }
+
+    // 현재 토큰을 가진 리스만 연장한다.
+    private LeaderLease renew() {
+        Query query = new BasicQuery(new Document("_id", leaseName)
+                .append("owner", nodeId)
+                .append("fencingToken", fencingToken));
+        AggregationUpdate update = setStage(new Document("expiresAt", expiresFromNow())
+                .append("renewedAt", "$$NOW"));
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), LeaderLease.class);
+    }
+
+    // 만료된(또는 아직 없는) 리스를 가져오며 fencingToken을 증가시킨다.
+    private LeaderLease acquire() {
+        Query query = new BasicQuery(new Document("_id", leaseName)
+                .append("$expr", new Document("$lt", List.of("$expiresAt", "$$NOW"))));
+        AggregationUpdate update = setStage(new Document("owner", new Document("$literal", nodeId))
+                .append("expiresAt", expiresFromNow())
+                .append("renewedAt", "$$NOW")
+                .append("fencingToken", new Document("$add",
+                        List.of(new Document("$ifNull", List.of("$fencingToken", 0L)), 1L))));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true).upsert(true), LeaderLease.class);
+        } catch (DuplicateKeyException e) {
+            // 다른 노드가 유효한 리스를 보유 중 (upsert가 같은 _id로 충돌)
+            return null;
+        }
+    }
+
+    private Document expiresFromNow() {
+        return new Document("$add", List.of("$$NOW", leaseDurationMillis));
+    }
+
+    // 서버 시각($$NOW)을 쓰기 위한 파이프라인 갱신 ($set 한 단계)
+    private static AggregationUpdate setStage(Document fields) {
+        return AggregationUpdate.from(List.of(context -> new Document("$set", fields)));
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.gildong.gildongE.service;
+
+/**
+ * 이 노드의 리더 여부가 바뀌었을 때 LeaderElectionService가 발행하는 이벤트.
+ * 싱글톤 작업(Change Stream 리스너 등)은 이 이벤트를 받아 시작/중지한다.
+ */
+public class LeadershipChangedEvent {
+    private final boolean leader;
+    private final long fencingToken;
+
+    public LeadershipChangedEvent(boolean leader, long fencingToken) {
+        this.leader = leader;
+        this.fencingToken = fencingToken;
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+}
@@ -7,4 +7,6 @@ import java.util.List;
 public interface NotificationService {
     NotificationResponse create(NotificationRequest req);
     List<NotificationResponse> listForUser(String userId);
+    /** 여러 건을 한 번에 저장한다. 없는 사용자의 요청은 건너뛰고, 저장한 건수를 반환한다. */
+    int createAll(List<NotificationRequest> reqs);
 }
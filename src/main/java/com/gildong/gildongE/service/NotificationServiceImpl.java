@@ -5,7 +5,9 @@ import com.gildong.gildongE.model.Notification;
 import com.gildong.gildongE.repository.NotificationRepository;
 import org.springframework.stereotype.Service;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +33,27 @@ public class NotificationServiceImpl implements NotificationService {
         return toDto(saved);
     }
 
+    @Override
+    public int createAll(List<NotificationRequest> reqs) {
+        if (reqs.isEmpty()) return 0;
+        // 사용자 존재 검증을 한 번의 조회로
+        Set<String> existing = userService.findExistingUserIds(
+                reqs.stream().map(NotificationRequest::getUserId).collect(Collectors.toSet()));
+        Instant now = Instant.now();
+        List<Notification> batch = new ArrayList<>(reqs.size());
+        for (NotificationRequest req : reqs) {
+            if (!existing.contains(req.getUserId())) continue;
+            Notification n = new Notification();
+            n.setUserId(req.getUserId());
+            n.setTitle(req.getTitle());
+            n.setMessage(req.getMessage());
+            n.setCreatedAt(now);
+            batch.add(n);
+        }
+        if (!batch.isEmpty()) repo.insert(batch);
+        return batch.size();
+    }
+
     @Override
     public List<NotificationResponse> listForUser(String userId) {
         userService.getUserById(userId);
@@ -0,0 +1,156 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+import org.bson.types.ObjectId;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 보관 세그먼트(driving_pattern_archive.data) 인코딩. 한 사용자의 기록 묶음을 열 단위로 적고 deflate로 압축한다.
+ *
+ *  버전(1바이트) | 건수(varint)
+ *  | 기록 시각 열: 첫 값은 epoch millis, 이후는 앞 기록과의 차이 (recordedAt 순이라 작은 양수)
+ *  | 점수 열: 0.1점 단위로 양자화한 값의 앞 기록과의 차이 (zigzag varint)
+ *  | ID 열: ObjectId면 0 + 12바이트, 아니면 1 + 길이 + UTF-8
+ *
+ * 점수는 0.1점 단위로 반올림되어 돌아온다. (주간 집계/분포는 원본 값으로 이미 갱신되어 있다)
+ * 기록 시각은 Spring이 LocalDateTime을 저장하는 방식대로 시스템 시간대 기준 epoch millis로 바꾼다.
+ */
+final class PatternSegmentCodec {
+
+    static final int SCORE_SCALE = 10;
+    private static final int VERSION = 1;
+
+    private PatternSegmentCodec() {}
+
+    /** rows는 (recordedAt, id) 순으로 정렬되어 있어야 한다 */
+    static byte[] encode(List<DrivingPattern> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 8 + 16);
+        try (DataOutputStream out = new DataOutputStream(
+                new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION)))) {
+            out.writeByte(VERSION);
+            writeVarLong(out, rows.size());
+
+            long prevMillis = 0;
+            for (DrivingPattern row : rows) {
+                long millis = toMillis(row.getRecordedAt());
+                writeVarLong(out, zigzag(millis - prevMillis));
+                prevMillis = millis;
+            }
+            long prevScore = 0;
+            for (DrivingPattern row : rows) {
+                long score = quantize(row.getDrivingScore());
+                writeVarLong(out, zigzag(score - prevScore));
+                prevScore = score;
+            }
+            for (DrivingPattern row : rows) {
+                String id = row.getId();
+                if (id != null && ObjectId.isValid(id)) {
+                    out.writeByte(0);
+                    out.write(new ObjectId(id).toByteArray());
+                } else {
+                    byte[] raw = String.valueOf(id).getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(1);
+                    writeVarLong(out, raw.length);
+                    out.write(raw);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<DrivingPattern> decode(String userId, byte[] data) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unknown archive segment version " + version);
+            }
+            int count = (int) readVarLong(in);
+
+            long[] millis = new long[count];
+            long prev = 0;
+            for (int i = 0; i < count; i++) {
+                prev += unzigzag(readVarLong(in));
+                millis[i] = prev;
+            }
+            float[] scores = new float[count];
+            prev = 0;
+            for (int i = 0; i < count; i++) {
+                prev += unzigzag(readVarLong(in));
+                scores[i] = (float) prev / SCORE_SCALE;
+            }
+            List<DrivingPattern> rows = new ArrayList<>(count);
+            byte[] oid = new byte[12];
+            for (int i = 0; i < count; i++) {
+                String id;
+                if (in.readUnsignedByte() == 0) {
+                    in.readFully(oid);
+                    id = new ObjectId(oid).toHexString();
+                } else {
+                    byte[] raw = new byte[(int) readVarLong(in)];
+                    in.readFully(raw);
+                    id = new String(raw, StandardCharsets.UTF_8);
+                }
+                DrivingPattern row = new DrivingPattern();
+                row.setId(id);
+                row.setUserId(userId);
+                row.setDrivingScore(scores[i]);
+                row.setRecordedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis[i]), ZoneId.systemDefault()));
+                rows.add(row);
+            }
+            return rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static long quantize(float score) {
+        return Math.round((double) score * SCORE_SCALE);
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,66 @@
+package com.gildong.gildongE.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * 운전 기록 보존 단계 (gildong.retention.*).
+ *
+ *  1) 원본: raw-days 일 동안 driving_pattern(과 보관 세그먼트)에 그대로 둔다
+ *  2) 일별 집계: 그 뒤 daily-days 일까지는 driving_daily_rollup (건수/합계/최저/최고)
+ *  3) 주간 집계: 그 뒤로는 driving_weekly_rollup만 (기록할 때부터 갱신되어 온 값)
+ *
+ * 경계는 분석 시간대(gildong.analytics.zone)의 날짜 0시이고, 일별 집계를 지우는 경계는 주 단위(월요일)로 맞춘다.
+ */
+@Component
+public class RetentionPolicy {
+
+    private final boolean enabled;
+    private final int rawDays;
+    private final int dailyDays;
+    private final ZoneId zone;
+
+    public RetentionPolicy(@Value("${gildong.retention.enabled:false}") boolean enabled,
+                           @Value("${gildong.retention.raw-days:90}") int rawDays,
+                           @Value("${gildong.retention.daily-days:730}") int dailyDays,
+                           @Value("${gildong.analytics.zone:Asia/Seoul}") String zone) {
+        this.enabled = enabled;
+        this.rawDays = Math.max(1, rawDays);
+        this.dailyDays = Math.max(this.rawDays, dailyDays);
+        this.zone = ZoneId.of(zone);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /** 이 날짜 전 원본 기록은 일별 집계로 바꾼다 */
+    public LocalDate rawCutoff(LocalDate today) {
+        return today.minusDays(rawDays);
+    }
+
+    /** 이 날짜(월요일) 전 일별 집계는 지운다 → 이전 주들은 주간 집계만 남는다 */
+    public LocalDate dailyCutoff(LocalDate today) {
+        return today.minusDays(dailyDays).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /** 분석 시간대 날짜 0시 → recordedAt 저장 방식(시스템 시간대 LocalDateTime) */
+    public LocalDateTime toRecordedAt(LocalDate day) {
+        return LocalDateTime.ofInstant(day.atStartOfDay(zone).toInstant(), ZoneId.systemDefault());
+    }
+
+    /** 기록 시각 → 분석 시간대 날짜 */
+    public LocalDate dayOf(LocalDateTime recordedAt) {
+        return recordedAt.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone).toLocalDate();
+    }
+}
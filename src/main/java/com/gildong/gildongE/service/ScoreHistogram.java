@@ -0,0 +1,128 @@
+package com.gildong.gildongE.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 운전 점수 고정 구간 히스토그램 (0~100점, 1점 간격 101칸 + 합계/건수/최저/최고).
+ *
+ *  - 칸별 건수를 더하기만 하면 되므로 주간 히스토그램을 합쳐도 정확도가 그대로다 (임의 기간 = 주간 합치기)
+ *  - 저장은 건수가 있는 칸만 {"칸": 건수} 문서로 하고, 기록할 때 $inc "hist.<칸>"으로 갱신한다
+ *  - 백분위는 누적 건수로 칸을 찾아 칸 안에서 선형 보간한다 (오차 1점 이내)
+ *
+ * 0 미만/100 초과 점수는 양 끝 칸에 넣는다.
+ */
+public class ScoreHistogram {
+
+    public static final int BINS = 101;
+
+    private final long[] counts = new long[BINS];
+    private long count;
+    private double sum;
+    private float min = Float.POSITIVE_INFINITY;
+    private float max = Float.NEGATIVE_INFINITY;
+
+    /** 점수가 들어갈 칸 (점수의 정수 부분, 0~100) */
+    public static int binOf(float score) {
+        return (int) Math.max(0, Math.min(BINS - 1, Math.floor(score)));
+    }
+
+    public void add(float score) {
+        counts[binOf(score)]++;
+        count++;
+        sum += score;
+        min = Math.min(min, score);
+        max = Math.max(max, score);
+    }
+
+    /** 저장된 칸별 건수({"칸": 건수})를 더한다. 최저/최고는 칸 경계로 좁혀진다 */
+    public void merge(Map<String, ? extends Number> stored) {
+        if (stored == null) return;
+        for (Map.Entry<String, ? extends Number> e : stored.entrySet()) {
+            int bin;
+            try {
+                bin = Integer.parseInt(e.getKey());
+            } catch (NumberFormatException ex) {
+                continue;
+            }
+            if (bin < 0 || bin >= BINS || e.getValue() == null) continue;
+            long n = e.getValue().longValue();
+            if (n <= 0) continue;
+            counts[bin] += n;
+            count += n;
+        }
+    }
+
+    /** 주간 집계처럼 정확한 합계/최저/최고를 따로 알고 있으면 함께 넣는다 */
+    public void mergeTotals(double sum, float min, float max) {
+        this.sum += sum;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+    }
+
+    /** 저장 형식: 건수가 있는 칸만 */
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < BINS; i++) {
+            if (counts[i] > 0) map.put(String.valueOf(i), counts[i]);
+        }
+        return map;
+    }
+
+    /**
+     * p 백분위 점수 (0 < p < 1). 기록이 없으면 null.
+     * 순위 p*count가 떨어지는 칸 [i, i+1) 안에서 건수 비율로 보간하고, 알고 있는 최저/최고 안으로 자른다.
+     */
+    public Double percentile(double p) {
+        if (count == 0) return null;
+        double rank = p * count;
+        long cumulative = 0;
+        int bin = BINS - 1;
+        double within = 1.0;
+        for (int i = 0; i < BINS; i++) {
+            if (counts[i] == 0) continue;
+            if (cumulative + counts[i] >= rank) {
+                bin = i;
+                within = (rank - cumulative) / counts[i];
+                break;
+            }
+            cumulative += counts[i];
+        }
+        double value = Math.min(BINS - 1, bin + within);
+        if (min <= max) value = Math.max(min, Math.min(max, value));
+        return value;
+    }
+
+    /**
+     * 화면 표시용 구간 건수. i번째 값은 [i*width, (i+1)*width) 점수 건수이고, 100점은 마지막 구간에 넣는다.
+     */
+    public List<Long> bins(int width) {
+        int size = (BINS - 2) / width + 1;     // 0~99점을 width로 나눈 구간 수
+        long[] folded = new long[size];
+        for (int i = 0; i < BINS; i++) {
+            folded[Math.min(i / width, size - 1)] += counts[i];
+        }
+        List<Long> result = new ArrayList<>(size);
+        Arrays.stream(folded).forEach(result::add);
+        return result;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+}
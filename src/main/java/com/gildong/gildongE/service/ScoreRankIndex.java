@@ -0,0 +1,127 @@
+package com.gildong.gildongE.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 평균 점수 순위 색인 (동기화 없음, DrivingLeaderboard가 잠금으로 감싼다).
+ *
+ *  - 점수를 0.01점 단위 칸(0~10000)으로 나누고 칸별 사용자 수를 펜윅 트리에 둔다
+ *    → "나보다 높은/낮은 사용자 수"가 O(log 칸 수)
+ *  - 상위 K명은 칸 → 사용자 집합 TreeMap을 높은 칸부터 읽는다 (O(log n + K))
+ *  - 사용자마다 반영한 기록 수(count)를 기억해, 더 오래된 값으로 되돌리지 않는다
+ *
+ * 같은 칸(0.01점 차이 이내)의 사용자는 같은 순위다.
+ */
+class ScoreRankIndex {
+
+    static final int SCALE = 100;
+    static final int SLOTS = 100 * SCALE + 1;
+
+    private final long[] tree = new long[SLOTS + 1];          // 1부터 시작하는 펜윅 트리
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeMap<Integer, Set<String>> members = new TreeMap<>();
+
+    private static final class Entry {
+        final int slot;
+        final long count;
+
+        Entry(int slot, long count) {
+            this.slot = slot;
+            this.count = count;
+        }
+    }
+
+    static int slotOf(float score) {
+        return (int) Math.max(0, Math.min(SLOTS - 1, Math.round(score * SCALE)));
+    }
+
+    static float scoreOf(int slot) {
+        return (float) slot / SCALE;
+    }
+
+    /**
+     * 사용자 점수를 넣거나 옮긴다. 이미 더 많은 기록 수로 반영된 값이 있으면 무시한다.
+     * @return 반영했으면 true
+     */
+    boolean put(String userId, float score, long count) {
+        Entry old = entries.get(userId);
+        if (old != null && old.count > count) return false;
+        int slot = slotOf(score);
+        if (old != null) {
+            if (old.slot == slot) {
+                entries.put(userId, new Entry(slot, count));
+                return true;
+            }
+            detach(userId, old.slot);
+        }
+        entries.put(userId, new Entry(slot, count));
+        add(slot, 1);
+        members.computeIfAbsent(slot, s -> new LinkedHashSet<>()).add(userId);
+        return true;
+    }
+
+    boolean remove(String userId) {
+        Entry old = entries.remove(userId);
+        if (old == null) return false;
+        detach(userId, old.slot);
+        return true;
+    }
+
+    private void detach(String userId, int slot) {
+        add(slot, -1);
+        Set<String> users = members.get(slot);
+        if (users != null) {
+            users.remove(userId);
+            if (users.isEmpty()) members.remove(slot);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /** 사용자 점수 칸 (없으면 -1) */
+    int slot(String userId) {
+        Entry e = entries.get(userId);
+        return e == null ? -1 : e.slot;
+    }
+
+    /** slot보다 높은 칸의 사용자 수 */
+    long countAbove(int slot) {
+        return entries.size() - prefix(slot);
+    }
+
+    /** slot보다 낮은 칸의 사용자 수 */
+    long countBelow(int slot) {
+        return slot == 0 ? 0 : prefix(slot - 1);
+    }
+
+    /** 높은 점수부터 최대 k명 (userId, 칸) */
+    List<Map.Entry<String, Integer>> top(int k) {
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(Math.min(k, entries.size()));
+        for (Map.Entry<Integer, Set<String>> bucket : members.descendingMap().entrySet()) {
+            for (String userId : bucket.getValue()) {
+                if (result.size() == k) return result;
+                result.add(Map.entry(userId, bucket.getKey()));
+            }
+        }
+        return result;
+    }
+
+    /** 0~slot 칸 사용자 수 */
+    private long prefix(int slot) {
+        long sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    private void add(int slot, long delta) {
+        for (int i = slot + 1; i <= SLOTS; i += i & -i) tree[i] += delta;
+    }
+}
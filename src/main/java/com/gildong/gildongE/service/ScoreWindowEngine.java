@@ -0,0 +1,280 @@
+package com.gildong.gildongE.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * 한 사용자의 점수 흐름을 시간 순으로 한 번 훑으며 여러 창을 함께 계산한다.
+ *  - 일/주/월 구간 (합계/건수/최저/최고), 주 시작 요일 지정 가능
+ *  - 최근 N일 이동 평균 (기록이 있는 날마다 그날까지 N일)
+ *  - EWMA (기록마다 갱신, 날마다 그날 끝 값)
+ *
+ * 날짜는 epoch day(long)로만 다룬다: 시간대 오프셋은 다음 전환 시각까지 재사용하고,
+ * 월 경계는 달이 바뀔 때만 LocalDate로 구한다. 결과도 기본형 배열(Series/Trend)에 쌓는다.
+ * 스레드 안전하지 않다 (요청마다 새로 만든다).
+ */
+final class ScoreWindowEngine {
+
+    static final int DAY = 1;
+    static final int WEEK = 1 << 1;
+    static final int MONTH = 1 << 2;
+    static final int ROLLING = 1 << 3;
+    static final int EWMA = 1 << 4;
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final int windows;
+    private final int weekShift;
+    private final double decay;
+    private final DayClock clock;
+
+    final Series daily = new Series();
+    final Series weekly = new Series();
+    final Series monthly = new Series();
+    final Trend rolling = new Trend();
+    final Trend ewma = new Trend();
+
+    // 진행 중인 날
+    private long day = NONE;
+    private double daySum;
+    private long dayCount;
+    private float dayMin;
+    private float dayMax;
+
+    // 진행 중인 주/월 (시작 epoch day), 월은 다음 달 1일도 기억해 경계 계산을 줄인다
+    private long week = NONE;
+    private final double[] weekAcc = new double[4];
+    private long month = NONE;
+    private long nextMonth = NONE;
+    private final double[] monthAcc = new double[4];
+
+    // 이동 평균: 최근 N일의 일별 합계/건수 (epoch day mod N 칸)
+    private final double[] ringSum;
+    private final long[] ringCount;
+    private long ringDay = NONE;
+    private double windowSum;
+    private long windowCount;
+
+    private double ewmaValue = Double.NaN;
+
+    /**
+     * @param windows     계산할 창 (DAY | WEEK | ...)
+     * @param weekStart   주 시작 요일
+     * @param rollingDays 이동 평균 일수 (ROLLING일 때)
+     * @param alpha       EWMA 가중치 0 < alpha <= 1 (EWMA일 때)
+     */
+    ScoreWindowEngine(ZoneId zone, int windows, DayOfWeek weekStart, int rollingDays, double alpha) {
+        this.windows = windows;
+        this.clock = new DayClock(zone);
+        // epoch day 0(1970-01-01)은 목요일
+        this.weekShift = DayOfWeek.THURSDAY.getValue() - weekStart.getValue();
+        this.decay = 1.0 - alpha;
+        int ring = (windows & ROLLING) != 0 ? rollingDays : 0;
+        this.ringSum = new double[ring];
+        this.ringCount = new long[ring];
+        resetAcc(weekAcc);
+        resetAcc(monthAcc);
+    }
+
+    /** 기록 시각(epoch millis)의 분석 시간대 epoch day */
+    long dayOf(long epochMillis) {
+        return clock.epochDay(epochMillis);
+    }
+
+    /** 기록 하나. 시각은 앞 기록보다 앞서면 안 된다 */
+    void accept(long epochMillis, float score) {
+        moveTo(clock.epochDay(epochMillis));
+        daySum += score;
+        dayCount++;
+        if (score < dayMin) dayMin = score;
+        if (score > dayMax) dayMax = score;
+        if ((windows & EWMA) != 0) {
+            ewmaValue = Double.isNaN(ewmaValue) ? score : decay * ewmaValue + (1.0 - decay) * score;
+        }
+    }
+
+    /**
+     * 이미 하루치로 묶인 기록 (일별 집계). EWMA는 그날 평균이 count번 들어온 것으로 갱신한다.
+     * 날짜는 앞 기록의 날짜보다 앞서면 안 된다.
+     */
+    void acceptDay(long epochDay, double sum, long count, float min, float max) {
+        if (count <= 0) return;
+        moveTo(epochDay);
+        daySum += sum;
+        dayCount += count;
+        if (min < dayMin) dayMin = min;
+        if (max > dayMax) dayMax = max;
+        if ((windows & EWMA) != 0) {
+            double mean = sum / count;
+            double keep = Math.pow(decay, count);
+            ewmaValue = Double.isNaN(ewmaValue) ? mean : keep * ewmaValue + (1.0 - keep) * mean;
+        }
+    }
+
+    /** 남은 날/주/월을 내보낸다. 이후에는 결과만 읽는다 */
+    ScoreWindowEngine finish() {
+        closeDay();
+        day = NONE;
+        if (week != NONE) weekly.add(week, weekAcc);
+        if (month != NONE) monthly.add(month, monthAcc);
+        week = NONE;
+        month = NONE;
+        return this;
+    }
+
+    private void moveTo(long d) {
+        if (d == day) return;
+        if (day != NONE && d < day) {
+            throw new IllegalStateException("Scores must be fed in time order");
+        }
+        closeDay();
+        day = d;
+        daySum = 0;
+        dayCount = 0;
+        dayMin = Float.POSITIVE_INFINITY;
+        dayMax = Float.NEGATIVE_INFINITY;
+    }
+
+    private void closeDay() {
+        if (day == NONE || dayCount == 0) return;
+        if ((windows & DAY) != 0) daily.add(day, daySum, dayCount, dayMin, dayMax);
+        if ((windows & WEEK) != 0) {
+            long start = day - Math.floorMod(day + weekShift, 7);
+            if (start != week) {
+                if (week != NONE) weekly.add(week, weekAcc);
+                week = start;
+                resetAcc(weekAcc);
+            }
+            addAcc(weekAcc);
+        }
+        if ((windows & MONTH) != 0) {
+            if (month == NONE || day >= nextMonth) {
+                if (month != NONE) monthly.add(month, monthAcc);
+                // 달이 바뀔 때만 날짜 계산
+                LocalDate first = LocalDate.ofEpochDay(day).withDayOfMonth(1);
+                month = first.toEpochDay();
+                nextMonth = first.plusMonths(1).toEpochDay();
+                resetAcc(monthAcc);
+            }
+            addAcc(monthAcc);
+        }
+        if ((windows & ROLLING) != 0) {
+            int n = ringSum.length;
+            if (ringDay != NONE) {
+                // 그 사이 지나간 날(최대 N일) 칸을 비운다
+                long gap = Math.min(day - ringDay, n);
+                for (long i = 1; i <= gap; i++) {
+                    int slot = (int) Math.floorMod(ringDay + i, (long) n);
+                    windowSum -= ringSum[slot];
+                    windowCount -= ringCount[slot];
+                    ringSum[slot] = 0;
+                    ringCount[slot] = 0;
+                }
+            }
+            ringDay = day;
+            int slot = (int) Math.floorMod(day, (long) n);
+            ringSum[slot] += daySum;
+            ringCount[slot] += dayCount;
+            windowSum += daySum;
+            windowCount += dayCount;
+            rolling.add(day, windowSum / windowCount, windowCount);
+        }
+        if ((windows & EWMA) != 0) ewma.add(day, ewmaValue, dayCount);
+    }
+
+    private void addAcc(double[] acc) {
+        acc[0] += daySum;
+        acc[1] += dayCount;
+        acc[2] = Math.min(acc[2], dayMin);
+        acc[3] = Math.max(acc[3], dayMax);
+    }
+
+    private static void resetAcc(double[] acc) {
+        acc[0] = 0;
+        acc[1] = 0;
+        acc[2] = Double.POSITIVE_INFINITY;
+        acc[3] = Double.NEGATIVE_INFINITY;
+    }
+
+    /** 구간 결과: 시작 epoch day별 합계/건수/최저/최고 */
+    static final class Series {
+        int size;
+        long[] start = new long[16];
+        double[] sum = new double[16];
+        long[] count = new long[16];
+        float[] min = new float[16];
+        float[] max = new float[16];
+
+        void add(long day, double[] acc) {
+            add(day, acc[0], (long) acc[1], (float) acc[2], (float) acc[3]);
+        }
+
+        void add(long day, double s, long c, float lo, float hi) {
+            if (size == start.length) {
+                int cap = size * 2;
+                start = Arrays.copyOf(start, cap);
+                sum = Arrays.copyOf(sum, cap);
+                count = Arrays.copyOf(count, cap);
+                min = Arrays.copyOf(min, cap);
+                max = Arrays.copyOf(max, cap);
+            }
+            start[size] = day;
+            sum[size] = s;
+            count[size] = c;
+            min[size] = lo;
+            max[size] = hi;
+            size++;
+        }
+    }
+
+    /** 날짜별 값: 이동 평균(count = 창 안 기록 수) / EWMA(count = 그날 기록 수) */
+    static final class Trend {
+        int size;
+        long[] day = new long[16];
+        double[] value = new double[16];
+        long[] count = new long[16];
+
+        void add(long d, double v, long c) {
+            if (size == day.length) {
+                int cap = size * 2;
+                day = Arrays.copyOf(day, cap);
+                value = Arrays.copyOf(value, cap);
+                count = Arrays.copyOf(count, cap);
+            }
+            day[size] = d;
+            value[size] = v;
+            count[size] = c;
+            size++;
+        }
+    }
+
+    /** epoch millis → 분석 시간대 epoch day. 오프셋은 다음 시간대 전환 전까지 그대로 쓴다 */
+    private static final class DayClock {
+        private final ZoneRules rules;
+        private long validFrom = Long.MAX_VALUE;
+        private long validUntil = Long.MIN_VALUE;
+        private long offsetMillis;
+
+        DayClock(ZoneId zone) {
+            this.rules = zone.getRules();
+        }
+
+        long epochDay(long epochMillis) {
+            if (epochMillis < validFrom || epochMillis >= validUntil) {
+                Instant at = Instant.ofEpochMilli(epochMillis);
+                offsetMillis = rules.getOffset(at).getTotalSeconds() * 1000L;
+                ZoneOffsetTransition prev = rules.previousTransition(at.plusMillis(1));
+                ZoneOffsetTransition next = rules.nextTransition(at);
+                validFrom = prev != null ? prev.toEpochSecond() * 1000L : Long.MIN_VALUE;
+                validUntil = next != null ? next.toEpochSecond() * 1000L : Long.MAX_VALUE;
+            }
+            return Math.floorDiv(epochMillis + offsetMillis, DAY_MILLIS);
+        }
+    }
+}
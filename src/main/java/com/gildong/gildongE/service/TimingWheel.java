@@ -0,0 +1,199 @@
+package com.gildong.gildongE.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 계층형 타이밍 휠 (hashed hierarchical timing wheel).
+ *
+ *  - 0단계 슬롯 하나 = tickMs, 상위 단계 슬롯 하나 = 하위 단계 한 바퀴
+ *  - 등록/취소 O(1): 슬롯마다 이중 연결 리스트를 두고 노드를 직접 연결/해제
+ *  - advance(now): 지난 tick마다 상위 단계 슬롯을 하위 단계로 내려 보내고(cascade) 0단계 슬롯을 만료
+ *
+ * 스레드 안전하지 않다. 하나의 스레드에서만 사용해야 한다.
+ */
+final class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final int levels;
+    private final long[] unitTicks;          // 단계별 슬롯 하나의 크기(0단계 tick 단위)
+    private final Timeout<T>[][] buckets;    // 슬롯별 이중 연결 리스트 헤드(sentinel)
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMs, int wheelSize, int levels, long startMillis) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel settings");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.unitTicks = new long[levels];
+        this.buckets = new Timeout[levels][wheelSize];
+
+        long unit = 1;
+        for (int level = 0; level < levels; level++) {
+            unitTicks[level] = unit;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                Timeout<T> head = new Timeout<>(this, -1, null);
+                head.prev = head;
+                head.next = head;
+                buckets[level][slot] = head;
+            }
+            unit = Math.multiplyExact(unit, wheelSize);
+        }
+        this.currentTick = startMillis / tickMs;
+    }
+
+    /** 등록 가능한 가장 먼 시각 (현재 기준, ms) */
+    long maxDelayMillis() {
+        return unitTicks[levels - 1] * (wheelSize - 1) * tickMs;
+    }
+
+    /**
+     * deadlineMillis에 만료될 항목을 등록한다.
+     * @return 취소에 쓰는 핸들. 이미 지난 시각이면 null (호출 측에서 즉시 처리)
+     */
+    Timeout<T> schedule(long deadlineMillis, T payload) {
+        long deadlineTick = Math.floorDiv(deadlineMillis, tickMs);
+        if (deadlineTick <= currentTick) return null;
+        long top = unitTicks[levels - 1];
+        if (deadlineTick / top - currentTick / top >= wheelSize) {
+            throw new IllegalArgumentException("Deadline beyond timing wheel range: " + deadlineMillis);
+        }
+        Timeout<T> timeout = new Timeout<>(this, deadlineTick, payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * nowMillis까지 시간을 진행하고 만료된 항목을 만료 순서대로 반환한다.
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMs);
+        List<T> expired = new ArrayList<>();
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            // 상위 단계부터: 이번 tick에 시작되는 슬롯의 항목을 더 낮은 단계로 내린다
+            for (int level = levels - 1; level >= 1; level--) {
+                if (currentTick % unitTicks[level] != 0) continue;
+                Timeout<T> head = buckets[level][slotOf(currentTick, level)];
+                for (Timeout<T> t = detachAll(head); t != null; ) {
+                    Timeout<T> next = t.next;
+                    t.prev = null;
+                    t.next = null;
+                    if (t.deadlineTick <= currentTick) {
+                        size--;
+                        t.bucket = null;
+                        expired.add(t.payload);
+                    } else {
+                        place(t);
+                    }
+                    t = next;
+                }
+            }
+
+            Timeout<T> head = buckets[0][slotOf(currentTick, 0)];
+            for (Timeout<T> t = detachAll(head); t != null; ) {
+                Timeout<T> next = t.next;
+                t.prev = null;
+                t.next = null;
+                t.bucket = null;
+                size--;
+                expired.add(t.payload);
+                t = next;
+            }
+        }
+        return expired;
+    }
+
+    /** 등록되어 아직 만료/취소되지 않은 항목 수 */
+    int size() {
+        return size;
+    }
+
+    /** 모든 항목을 제거한다. */
+    void clear() {
+        for (Timeout<T>[] level : buckets) {
+            for (Timeout<T> head : level) {
+                for (Timeout<T> t = detachAll(head); t != null; t = t.next) {
+                    t.bucket = null;
+                }
+            }
+        }
+        size = 0;
+    }
+
+    // 남은 거리가 한 바퀴 안에 들어오는 가장 낮은 단계에 넣는다
+    private void place(Timeout<T> t) {
+        for (int level = 0; level < levels; level++) {
+            long distance = t.deadlineTick / unitTicks[level] - currentTick / unitTicks[level];
+            if (distance < wheelSize) {
+                Timeout<T> head = buckets[level][slotOf(t.deadlineTick, level)];
+                t.bucket = head;
+                t.prev = head.prev;
+                t.next = head;
+                head.prev.next = t;
+                head.prev = t;
+                return;
+            }
+        }
+        throw new IllegalStateException("Deadline beyond timing wheel range");
+    }
+
+    private int slotOf(long tick, int level) {
+        return (int) ((tick / unitTicks[level]) % wheelSize);
+    }
+
+    // 슬롯을 비우고 기존 항목들을 단방향 리스트(next, 마지막은 null)로 반환한다
+    private static <T> Timeout<T> detachAll(Timeout<T> head) {
+        if (head.next == head) return null;
+        Timeout<T> first = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        return first;
+    }
+
+    /**
+     * 등록된 항목 하나. cancel()은 O(1).
+     */
+    static final class Timeout<T> {
+        private final TimingWheel<T> wheel;
+        private final long deadlineTick;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private Timeout<T> bucket;
+
+        private Timeout(TimingWheel<T> wheel, long deadlineTick, T payload) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        T payload() {
+            return payload;
+        }
+
+        long deadlineMillis() {
+            return deadlineTick * wheel.tickMs;
+        }
+
+        /** @return 아직 대기 중이어서 취소되었으면 true */
+        boolean cancel() {
+            if (bucket == null) return false;
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+            bucket = null;
+            wheel.size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.gildong.gildongE.service;
+
+/**
+ * userId → 고정 해시 버킷(0 ~ COUNT-1). 작업을 버킷 범위로 나눠 여러 노드가 나눠 처리할 때 쓴다.
+ * 저장된 값(consumable_due.userBucket)과 맞아야 하므로 COUNT와 해시 함수는 바꾸지 않는다.
+ */
+final class UserBuckets {
+
+    static final int COUNT = 1024;
+
+    private UserBuckets() {
+    }
+
+    static int bucketOf(String userId) {
+        // String.hashCode는 JVM과 무관하게 고정. 하위 비트 편향을 줄이기 위해 한 번 섞는다
+        int h = userId.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return Math.floorMod(h, COUNT);
+    }
+}
@@ -0,0 +1,29 @@
+package com.gildong.gildongE.service;
+
+/**
+ * 사용자 평균 운전 점수가 바뀌었을 때 UserService가 발행하는 이벤트. (갱신 후 값)
+ * scoreCount는 기록이 늘 때마다 커지므로, 받는 쪽은 더 작은 count의 이벤트를 오래된 값으로 볼 수 있다.
+ */
+public class UserScoreChangedEvent {
+    private final String userId;
+    private final float avgDrivingScore;
+    private final long scoreCount;
+
+    public UserScoreChangedEvent(String userId, float avgDrivingScore, long scoreCount) {
+        this.userId = userId;
+        this.avgDrivingScore = avgDrivingScore;
+        this.scoreCount = scoreCount;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public float getAvgDrivingScore() {
+        return avgDrivingScore;
+    }
+
+    public long getScoreCount() {
+        return scoreCount;
+    }
+}
@@ -0,0 +1,92 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+import com.gildong.gildongE.model.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * scoreSum/scoreCount가 생기기 전 사용자의 누적값을 driving_pattern 한 번의 집계로 채운다. (최초 1회)
+ *  - 누적값이 이미 있는 사용자(생성 시 0, 또는 UserService.addScore가 먼저 채움)는 건드리지 않는다 ($exists:false 조건)
+ *  - 집계 시작 전 RECENT_MILLIS 안에 기록이 들어온 사용자는 건너뛴다: 저장은 됐지만 addScore가 아직인 기록이
+ *    집계에도 들어가고 $inc로도 더해지는 것을 막기 위해서다. 이런 사용자는 그 addScore가 전체 이력으로 채운다.
+ */
+@Component
+public class UserScoreTotalsMigration implements DataMigration {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long RECENT_MILLIS = 60_000L;
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserScoreTotalsMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return "user-score-totals-v1";
+    }
+
+    @Override
+    public void migrate(Date deployedAt) {
+        Date recent = new Date(System.currentTimeMillis() - RECENT_MILLIS);
+        TypedAggregation<DrivingPattern> totals = Aggregation.newAggregation(DrivingPattern.class,
+                Aggregation.group("userId").sum("drivingScore").as("sum").count().as("count")
+                        .max("_id").as("lastId")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(BATCH_SIZE).build());
+
+        List<Object> skipped = new ArrayList<>();
+        BulkOperations bulk = newBulk();
+        int pending = 0;
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(totals, Document.class)) {
+            Iterator<Document> it = rows.iterator();
+            while (it.hasNext()) {
+                Document row = it.next();
+                Object userId = row.get("_id");
+                if (userId == null) continue;
+                Object lastId = row.get("lastId");
+                if (lastId instanceof ObjectId && ((ObjectId) lastId).getDate().after(recent)) {
+                    skipped.add(userId);
+                    continue;
+                }
+                double sum = ((Number) row.get("sum")).doubleValue();
+                long count = ((Number) row.get("count")).longValue();
+                bulk.updateOne(new Query(Criteria.where("_id").is(userId).and("scoreCount").exists(false)),
+                        new Update().set("scoreSum", sum)
+                                .set("scoreCount", count)
+                                .set("avgDrivingScore", (float) (sum / count)));
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = newBulk();
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) bulk.execute();
+
+        // 기록이 하나도 없는 사용자 (건너뛴 사용자는 0으로 채우면 이력이 빠지므로 제외)
+        mongoTemplate.updateMulti(new Query(Criteria.where("scoreCount").exists(false).and("_id").nin(skipped)),
+                new Update().set("scoreSum", 0.0).set("scoreCount", 0L).set("avgDrivingScore", 0f),
+                User.class);
+    }
+
+    private BulkOperations newBulk() {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+    }
+}
@@ -7,15 +7,29 @@ import com.gildong.gildongE.exception.ResourceNotFoundException;
 import com.gildong.gildongE.model.AuthProvider;
 import com.gildong.gildongE.model.DrivingPattern;
 import com.gildong.gildongE.model.User;
-import com.gildong.gildongE.repository.DrivingPatternRepository;
 import com.gildong.gildongE.repository.UserRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.gildong.gildongE.repository.UserRepository;
@@ -24,16 +38,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 @Service
 public class UserService {
     private final UserRepository userRepo;
-    private final DrivingPatternRepository patternRepo;
     private final PasswordEncoder passwordEncoder;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public UserService(UserRepository userRepo,
-                       DrivingPatternRepository patternRepo,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder,
+                       MongoTemplate mongoTemplate,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepo    = userRepo;
-        this.patternRepo = patternRepo;
         this.passwordEncoder = passwordEncoder;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /** 신규 사용자 생성 */
@@ -42,6 +59,8 @@ public class UserService {
         u.setLoginId(req.getLoginId());
         u.setUserName(req.getUserName());
         u.setAvgDrivingScore(0f);
+        u.setScoreSum(0.0);
+        u.setScoreCount(0L);
         u.setCreatedAt(LocalDateTime.now());
 
         // 소셜 로그인/일반 회원가입 구분
@@ -71,34 +90,106 @@ public class UserService {
         return userOpt.orElseThrow(() -> new ResourceNotFoundException("User", loginId));
     }
 
-    /** 사용자 이름/비밀번호 수정 */
+    /**
+     * 사용자 이름/비밀번호 수정
+     * 문서 전체를 다시 저장하지 않고 바뀐 필드만 $set 한다 (동시에 누적되는 운전 점수를 덮어쓰지 않도록)
+     */
     public UserResponse updateUser(String userId, UserUpdateRequest req) {
-        User u = userRepo.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        u.setUserName(req.getUserName());
+        Update update = new Update().set("userName", req.getUserName());
         if (req.getPassword() != null) {
-            u.setPassword(passwordEncoder.encode(req.getPassword()));
+            update.set("password", passwordEncoder.encode(req.getPassword()));
         }
-        User saved = userRepo.save(u);
+        if (req.getReminderHour() != null) {
+            int hour = req.getReminderHour();
+            if (hour < 0 || hour > 23) {
+                throw new IllegalArgumentException("reminderHour는 0~23 사이여야 합니다.");
+            }
+            update.set("reminderHour", hour);
+        }
+        User saved = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(userId)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (saved == null) throw new ResourceNotFoundException("User", userId);
         return toResponse(saved);
     }
 
-    /** 평균 운전점수 재계산 후 업데이트 */
-    public void updateAvgScore(String userId) {
-        List<Float> scores = patternRepo.findByUserId(userId)
-                .stream()
-                .map(DrivingPattern::getDrivingScore)
-                .collect(Collectors.toList());
+    /**
+     * 운전 점수 하나를 누적하고 평균을 갱신한다. (patternId = 방금 저장한 기록의 _id)
+     * scoreSum/scoreCount를 더한 뒤 그 값으로 avgDrivingScore를 구하는 한 번의 원자적 갱신이라,
+     * 이력 길이와 무관하게 왕복 1회이고 같은 사용자에게 동시에 기록돼도 빠지는 점수가 없다.
+     */
+    public void addScore(String userId, String patternId, float score) {
+        addScores(userId, patternId, patternId, score, 1);
+    }
 
-        float avg = (float) scores.stream()
-                .mapToDouble(Float::doubleValue)
-                .average()
-                .orElse(0.0);
+    /**
+     * 여러 점수(합계 sum, 건수 count)를 한 번에 누적한다. (일괄 기록용, 갱신 방식은 addScore와 같다)
+     * firstPatternId ~ lastPatternId는 이번에 저장한 기록들의 _id 범위다.
+     */
+    public void addScores(String userId, String firstPatternId, String lastPatternId, double sum, long count) {
+        if (incrementTotals(userId, firstPatternId, sum, count)) return;
 
-        User u = userRepo.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        u.setAvgDrivingScore(avg);
-        userRepo.save(u);
+        // 누적값이 없는 (도입 전) 사용자: 이번 기록까지의 이력으로 한 번 채운다
+        initScoreTotals(userId, firstPatternId, lastPatternId, sum, count);
+    }
+
+    /**
+     * 누적값이 있는 사용자에게 더한다. 누적값이 없거나, 이번 기록이 이미 초기 집계에 들어 있거나, 사용자가 없으면 false
+     */
+    private boolean incrementTotals(String userId, String firstPatternId, double sum, long count) {
+        // 파이프라인 갱신의 $set 단계는 순서대로 적용되므로 평균은 더해진 합계/건수로 계산된다
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("scoreSum").toValue(ArithmeticOperators.valueOf("scoreSum").add(sum))
+                .set("scoreCount").toValue(ArithmeticOperators.valueOf("scoreCount").add(count))
+                .set("avgDrivingScore").toValue(ArithmeticOperators.valueOf("scoreSum").divideBy("scoreCount"));
+        Query initialized = new Query(Criteria.where("_id").is(userId).and("scoreCount").exists(true)
+                .orOperator(Criteria.where("scoreTotalsThrough").exists(false),
+                        Criteria.where("scoreTotalsThrough").lt(firstPatternId)));
+        initialized.fields().include("avgDrivingScore", "scoreCount");
+        User updated = mongoTemplate.findAndModify(initialized, update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (updated == null) return false;
+        eventPublisher.publishEvent(new UserScoreChangedEvent(userId, updated.getAvgDrivingScore(),
+                updated.getScoreCount()));
+        return true;
+    }
+
+    /**
+     * 생성 시 0으로 채워지지 않은 (도입 전) 사용자만 탄다.
+     * 이번 기록(lastPatternId)까지의 이력만 집계해 $exists:false 조건으로 채우고, 집계 경계를 scoreTotalsThrough로 남긴다.
+     * 같은 사용자의 다른 기록이 동시에 들어와도
+     *  - 경계 뒤 기록은 집계에 없으므로 자기 점수만 $inc로 더하고
+     *  - 경계 이하 기록은 이미 집계에 들어 있으므로 incrementTotals 조건에 걸려 다시 더하지 않는다.
+     * 먼저 채운 쪽이 있으면 이번 기록도 위 규칙대로 더하거나 건너뛴다. (_id는 저장 순서대로 커진다고 본다)
+     */
+    private void initScoreTotals(String userId, String firstPatternId, String lastPatternId, double sum, long count) {
+        TypedAggregation<DrivingPattern> aggregation = Aggregation.newAggregation(DrivingPattern.class,
+                Aggregation.match(Criteria.where("userId").is(userId).and("_id").lte(new ObjectId(lastPatternId))),
+                Aggregation.group("userId").sum("drivingScore").as("sum").count().as("count"));
+        Document totals = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        double totalSum = totals != null ? ((Number) totals.get("sum")).doubleValue() : 0.0;
+        long totalCount = totals != null ? ((Number) totals.get("count")).longValue() : 0L;
+        float avg = totalCount > 0 ? (float) (totalSum / totalCount) : 0f;
+
+        Query uninitialized = new Query(Criteria.where("_id").is(userId).and("scoreCount").exists(false));
+        Update update = new Update()
+                .set("scoreSum", totalSum)
+                .set("scoreCount", totalCount)
+                .set("avgDrivingScore", avg)
+                .set("scoreTotalsThrough", lastPatternId);
+        if (mongoTemplate.updateFirst(uninitialized, update, User.class).getMatchedCount() > 0) {
+            eventPublisher.publishEvent(new UserScoreChangedEvent(userId, avg, totalCount));
+        } else if (!incrementTotals(userId, firstPatternId, sum, count)
+                && !mongoTemplate.exists(new Query(Criteria.where("_id").is(userId)), User.class)) {
+            // 채워져 있지도, 채울 수도 없으면 사용자가 없다 (있으면 이번 기록은 먼저 채운 쪽 집계에 들어 있다)
+            throw new ResourceNotFoundException("User", userId);
+        }
+    }
+
+    /** 주어진 userId 중 실제로 존재하는 사용자만 (한 번의 조회로) */
+    public Set<String> findExistingUserIds(Collection<String> userIds) {
+        Set<String> existing = new HashSet<>();
+        userRepo.findAllById(userIds).forEach(u -> existing.add(u.getId()));
+        return existing;
     }
 
     public UserResponse toResponse(User u) {
@@ -109,6 +200,7 @@ public class UserService {
         dto.setAvgDrivingScore(u.getAvgDrivingScore());
         dto.setCreatedAt(u.getCreatedAt());
         dto.setProvider(u.getProvider());
+        dto.setReminderHour(u.getReminderHour());
         return dto;
     }
 
@@ -122,15 +214,4 @@ public class UserService {
         return toResponse(user);
     }
 
-    /**
-     * 모든 사용자의 ID 목록 반환
-     * 스케줄러에서 각 userId별로 overview 조회 목적
-     */
-    public List<String> getAllUserIds() {
-        return userRepo.findAll()
-                .stream()
-                .map(User::getId)
-                .collect(Collectors.toList());
-    }
-
 }
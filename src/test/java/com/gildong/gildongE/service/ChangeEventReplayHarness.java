@@ -0,0 +1,280 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.NotificationRequest;
+import com.gildong.gildongE.dto.NotificationResponse;
+import com.gildong.gildongE.repository.AlertRuleRepository;
+import com.gildong.gildongE.repository.ConsumableDueRepository;
+import com.gildong.gildongE.repository.DrivingPatternRepository;
+import com.gildong.gildongE.repository.UserRepository;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDouble;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.types.ObjectId;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 라이브 레플리카셋 없이 Change Stream 리스너 → 알림 파이프라인을 측정하는 리플레이 하네스.
+ *
+ * 기록된 이벤트(NDJSON, 한 줄에 change event 하나 - Extended JSON) 또는 합성 이벤트
+ * (driving_pattern insert, consumables update)를 드라이버와 같은 코덱으로 디코딩한 뒤,
+ * 실제 리스너의 onChange()에 그대로 흘려보낸다. 알림 저장은 메모리 스텁으로 대체한다.
+ *
+ * 실행: ./gradlew replayBenchmark -PreplayArgs="events=200000 users=5000 rate=0"
+ *
+ *  - events       : 측정할 이벤트 수 (기본 100000)
+ *  - warmup       : 측정 전 워밍업 이벤트 수 (기본 20000)
+ *  - users        : 합성 이벤트의 사용자 수 (기본 1000)
+ *  - drivingRatio : 합성 이벤트 중 driving_pattern 비율 (기본 0.7)
+ *  - lowRatio     : 합성 운전 점수 중 50점 이하 비율 (기본 0.2)
+ *  - rate         : 초당 재생 이벤트 수, 0이면 최대 속도 (기본 0)
+ *  - file         : 기록된 이벤트 파일 경로 (지정 시 합성 이벤트 대신 사용)
+ */
+public class ChangeEventReplayHarness {
+
+    private static final Codec<ChangeStreamDocument<Document>> CODEC =
+            ChangeStreamDocument.createCodec(Document.class, MongoClientSettings.getDefaultCodecRegistry());
+
+    private static final String[] CHANGED_DATE_FIELDS = {
+            "engineOilChangedDate", "batteryChangedDate", "coolantChangedDate",
+            "transmissionOilChangedDate", "brakeOilChangedDate", "airconFilterChangedDate"
+    };
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = parseArgs(args);
+        int events = Integer.parseInt(opts.getOrDefault("events", "100000"));
+        int warmup = Integer.parseInt(opts.getOrDefault("warmup", "20000"));
+        int users = Integer.parseInt(opts.getOrDefault("users", "1000"));
+        double drivingRatio = Double.parseDouble(opts.getOrDefault("drivingRatio", "0.7"));
+        double lowRatio = Double.parseDouble(opts.getOrDefault("lowRatio", "0.2"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "0"));
+
+        // 알림마다 INFO 로그가 찍히므로 하네스 출력이 묻히지 않도록 낮춘다
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        List<ChangeStreamDocument<Document>> changes = opts.containsKey("file")
+                ? loadRecorded(Path.of(opts.get("file")))
+                : synthesize(events + warmup, users, drivingRatio, lowRatio);
+        if (changes.isEmpty()) {
+            System.out.println("No events to replay");
+            return;
+        }
+
+        // 스텁/인메모리 의존성으로 실제 리스너를 구성 (MongoClient/token 저장소는 커서를 열지 않으므로 불필요, 알림 방송은 mock)
+        AtomicLong persisted = new AtomicLong();
+        AlertService alertService = new AlertServiceImpl(new InMemoryNotificationService(persisted),
+                Mockito.mock(MongoTemplate.class));
+        AlertRuleEngine ruleEngine = new AlertRuleEngine(Mockito.mock(AlertRuleRepository.class));
+        DrivingScoreTrendDetector trendDetector = new DrivingScoreTrendDetector(
+                Mockito.mock(DrivingPatternRepository.class), 10, 60f, 3, 0.3, 100_000, 72);
+        ChangeStreamMetrics metrics = new ChangeStreamMetrics(new SimpleMeterRegistry());
+
+        DrivingPatternChangeStreamListener drivingListener =
+                new DrivingPatternChangeStreamListener(alertService, ruleEngine, trendDetector, metrics,
+                        new DrivingPatternStorage(null, "collection"), null, null);
+        ConsumableChangeStreamListener consumableListener =
+                new ConsumableChangeStreamListener(alertService, ruleEngine, metrics,
+                        Mockito.mock(ConsumableDueService.class), disabledReminderWheel(), null, null);
+
+        for (int i = 0; i < warmup; i++) {
+            dispatch(changes.get(i % changes.size()), drivingListener, consumableListener);
+        }
+        persisted.set(0);
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] latencies = new long[events];
+        long intervalNanos = rate > 0 ? (long) (1_000_000_000L / rate) : 0L;
+
+        long allocBefore = threadBean.getCurrentThreadAllocatedBytes();
+        long begin = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            if (intervalNanos > 0) {
+                long wait = begin + i * intervalNanos - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+            ChangeStreamDocument<Document> change = changes.get((warmup + i) % changes.size());
+            long start = System.nanoTime();
+            dispatch(change, drivingListener, consumableListener);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocBefore;
+
+        Arrays.sort(latencies);
+        double seconds = elapsed / 1e9;
+        System.out.printf("events          : %d (warmup %d, target rate %s)%n",
+                events, warmup, rate > 0 ? (long) rate + "/s" : "max");
+        System.out.printf("throughput      : %.0f events/s%n", events / seconds);
+        System.out.printf("handler latency : p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3,
+                latencies[latencies.length - 1] / 1e3);
+        System.out.printf("allocation      : %.0f bytes/event, %.1f MB/s%n",
+                (double) allocated / events, allocated / seconds / (1024 * 1024));
+        System.out.printf("alerts persisted: %d%n", persisted.get());
+    }
+
+    private static void dispatch(ChangeStreamDocument<Document> change,
+                                 DrivingPatternChangeStreamListener drivingListener,
+                                 ConsumableChangeStreamListener consumableListener) {
+        String coll = change.getNamespace() != null ? change.getNamespace().getCollectionName() : "";
+        if (coll.equals("consumables")) {
+            consumableListener.onChange(change);
+        } else {
+            drivingListener.onChange(change);
+        }
+    }
+
+    // 리더가 아니므로 휠은 시작되지 않고 변경 전달은 바로 반환된다
+    private static DueReminderWheel disabledReminderWheel() {
+        return new DueReminderWheel(Mockito.mock(ConsumableDueRepository.class), Mockito.mock(UserRepository.class),
+                null, null, null, new SimpleMeterRegistry(), false, 7, 9, 2, 1000);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    // --- 이벤트 준비 ---
+
+    private static List<ChangeStreamDocument<Document>> loadRecorded(Path file) throws IOException {
+        List<ChangeStreamDocument<Document>> changes = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) continue;
+            changes.add(decode(BsonDocument.parse(line)));
+        }
+        return changes;
+    }
+
+    private static List<ChangeStreamDocument<Document>> synthesize(int count, int users,
+                                                                   double drivingRatio, double lowRatio) {
+        Random random = new Random(42);
+        List<String> userIds = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userIds.add(new ObjectId().toHexString());
+        }
+
+        List<ChangeStreamDocument<Document>> changes = new ArrayList<>(count);
+        long millis = Instant.now().toEpochMilli();
+        for (int i = 0; i < count; i++) {
+            String userId = userIds.get(random.nextInt(users));
+            millis += 10;
+            BsonDocument event = random.nextDouble() < drivingRatio
+                    ? drivingInsert(i, userId, random.nextDouble() < lowRatio
+                            ? 20 + random.nextInt(31) : 51 + random.nextInt(50), millis)
+                    : consumableUpdate(i, userId, CHANGED_DATE_FIELDS[random.nextInt(CHANGED_DATE_FIELDS.length)], millis);
+            changes.add(decode(event));
+        }
+        return changes;
+    }
+
+    private static BsonDocument drivingInsert(long seq, String userId, double score, long millis) {
+        BsonObjectId id = new BsonObjectId(new ObjectId());
+        BsonDocument fullDocument = new BsonDocument("_id", id)
+                .append("userId", new BsonString(userId))
+                .append("drivingScore", new BsonDouble(score))
+                .append("recordedAt", new BsonDateTime(millis))
+                .append("_class", new BsonString("com.gildong.gildongE.model.DrivingPattern"));
+        return envelope(seq, "insert", "driving_pattern", id, millis)
+                .append("fullDocument", fullDocument);
+    }
+
+    private static BsonDocument consumableUpdate(long seq, String userId, String changedField, long millis) {
+        BsonObjectId id = new BsonObjectId(new ObjectId());
+        BsonDocument fullDocument = new BsonDocument("_id", id)
+                .append("userId", new BsonString(userId))
+                .append("carModel", new BsonString("Avante"))
+                .append("carNumber", new BsonString("12가3456"))
+                .append("engineOilDate", new BsonString("20251010"))
+                .append(changedField, new BsonString("20250510"));
+        BsonDocument updateDescription = new BsonDocument("updatedFields",
+                new BsonDocument(changedField, new BsonString("20250510")))
+                .append("removedFields", new BsonArray());
+        return envelope(seq, "update", "consumables", id, millis)
+                .append("fullDocument", fullDocument)
+                .append("updateDescription", updateDescription);
+    }
+
+    private static BsonDocument envelope(long seq, String operationType, String coll, BsonObjectId id, long millis) {
+        return new BsonDocument("_id", new BsonDocument("_data", new BsonString(Long.toHexString(seq))))
+                .append("operationType", new BsonString(operationType))
+                .append("clusterTime", new BsonTimestamp((int) (millis / 1000), (int) (seq & 0x7fffffff)))
+                .append("wallTime", new BsonDateTime(millis))
+                .append("ns", new BsonDocument("db", new BsonString("gildongE_db")).append("coll", new BsonString(coll)))
+                .append("documentKey", new BsonDocument("_id", id));
+    }
+
+    private static ChangeStreamDocument<Document> decode(BsonDocument event) {
+        return CODEC.decode(new BsonDocumentReader(event), DecoderContext.builder().build());
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+
+    /**
+     * 알림 저장 스텁: 건수만 센다.
+     */
+    private static final class InMemoryNotificationService implements NotificationService {
+        private final AtomicLong persisted;
+
+        InMemoryNotificationService(AtomicLong persisted) {
+            this.persisted = persisted;
+        }
+
+        @Override
+        public NotificationResponse create(NotificationRequest req) {
+            persisted.incrementAndGet();
+            NotificationResponse resp = new NotificationResponse();
+            resp.setUserId(req.getUserId());
+            resp.setTitle(req.getTitle());
+            resp.setMessage(req.getMessage());
+            return resp;
+        }
+
+        @Override
+        public int createAll(List<NotificationRequest> reqs) {
+            persisted.addAndGet(reqs.size());
+            return reqs.size();
+        }
+
+        @Override
+        public List<NotificationResponse> listForUser(String userId) {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.gildong.gildongE.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ChunkedJobRunner: 순서 없이 끝난 청크를 앞에서부터 연속 구간으로만 커밋, 실패 뒤 커밋 중단.
+ */
+class ChunkedJobRunnerTest {
+
+    @Test
+    void commitsOnlyWhenTheContiguousPrefixGrows() {
+        List<String> commits = new ArrayList<>();
+        ChunkedJobRunner.CommitTracker<String> tracker =
+                new ChunkedJobRunner.CommitTracker<>((last, delta) -> commits.add(last + ":" + delta));
+
+        tracker.completed(3, "c", 30);
+        assertTrue(commits.isEmpty());
+        tracker.completed(1, "a", 10);
+        assertEquals(List.of("a:10"), commits);
+        // 2가 끝나면 이미 끝난 3까지 한 번에
+        tracker.completed(2, "b", 20);
+        assertEquals(List.of("a:10", "c:50"), commits);
+        tracker.completed(4, "d", 0);
+        assertEquals(List.of("a:10", "c:50", "d:0"), commits);
+    }
+
+    @Test
+    void stopsCommittingAfterAFailure() {
+        List<String> commits = new ArrayList<>();
+        ChunkedJobRunner.CommitTracker<String> tracker =
+                new ChunkedJobRunner.CommitTracker<>((last, delta) -> commits.add(last + ":" + delta));
+
+        tracker.completed(1, "a", 10);
+        tracker.completed(3, "c", 30);
+        // 2번 청크 실패 → 이미 끝난 3번도, 뒤에 끝나는 청크도 커밋하지 않는다
+        tracker.failed();
+        tracker.completed(4, "d", 40);
+        tracker.completed(2, "b", 20);
+
+        assertEquals(List.of("a:10"), commits);
+    }
+
+    @Test
+    void runCommitsEveryItemInOrderDespiteOutOfOrderChunks() {
+        ChunkedJobRunner runner = new ChunkedJobRunner(new SimpleMeterRegistry(), 4, 2);
+        List<Integer> lasts = new ArrayList<>();
+        int[] committed = {0};
+
+        ChunkedJobRunner.JobSummary summary = runner.run("test",
+                IntStream.rangeClosed(1, 20).boxed().iterator(),
+                chunk -> {
+                    // 앞 청크일수록 늦게 끝나도록
+                    sleep(Math.max(0, 12 - chunk.get(0)) * 2L);
+                    return chunk.size();
+                },
+                () -> true,
+                (last, delta) -> {
+                    lasts.add(last);
+                    committed[0] += delta;
+                });
+
+        assertEquals(10, summary.chunks());
+        assertEquals(20, summary.items());
+        assertEquals(20, summary.processed());
+        assertEquals(0, summary.failedChunks());
+        assertFalse(summary.aborted());
+        assertEquals(20, committed[0]);
+        assertEquals(20, lasts.get(lasts.size() - 1).intValue());
+        for (int i = 1; i < lasts.size(); i++) {
+            assertTrue(lasts.get(i - 1) < lasts.get(i), "commits went backwards: " + lasts);
+        }
+    }
+
+    @Test
+    void runDoesNotCommitPastAFailedChunk() {
+        ChunkedJobRunner runner = new ChunkedJobRunner(new SimpleMeterRegistry(), 1, 2);
+        List<Integer> lasts = new ArrayList<>();
+
+        ChunkedJobRunner.JobSummary summary = runner.run("test",
+                IntStream.rangeClosed(1, 8).boxed().iterator(),
+                chunk -> {
+                    if (chunk.contains(5)) throw new IllegalStateException("boom");
+                    return chunk.size();
+                },
+                () -> true,
+                (last, delta) -> lasts.add(last));
+
+        assertEquals(1, summary.failedChunks());
+        assertEquals(6, summary.processed());
+        // 실패한 3번 청크(5, 6) 앞까지만
+        assertEquals(List.of(2, 4), lasts);
+    }
+
+    @Test
+    void runStopsWhenKeepGoingTurnsFalse() {
+        ChunkedJobRunner runner = new ChunkedJobRunner(new SimpleMeterRegistry(), 1, 2);
+        int[] checks = {0};
+
+        ChunkedJobRunner.JobSummary summary = runner.run("test",
+                IntStream.rangeClosed(1, 10).boxed().iterator(),
+                List::size,
+                () -> ++checks[0] <= 2);
+
+        assertTrue(summary.aborted());
+        assertEquals(2, summary.chunks());
+        assertEquals(4, summary.processed());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
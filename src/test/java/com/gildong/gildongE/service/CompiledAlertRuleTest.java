@@ -0,0 +1,194 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.dto.AlertDto;
+import com.gildong.gildongE.model.AlertRule;
+import com.gildong.gildongE.model.AlertRuleCondition;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CompiledAlertRule: 조건 트리(and/or/not, 비교, exists, 경로, $field/$value)와 메시지 템플릿 치환,
+ * 잘못된 규칙은 컴파일 시 거절.
+ */
+class CompiledAlertRuleTest {
+
+    @Test
+    void ruleWithoutConditionAlwaysMatches() {
+        AlertDto alert = evaluate(rule(null, "점수 {drivingScore}"), doc("drivingScore", 70), null);
+
+        assertNotNull(alert);
+        assertEquals("user-1", alert.getUserId());
+        assertEquals("SCORE", alert.getType());
+        assertEquals("제목", alert.getTitle());
+        assertEquals("점수 70", alert.getMessage());
+        assertNotNull(alert.getId());
+        assertNotNull(alert.getCreatedAt());
+    }
+
+    @Test
+    void comparesNumbersAsDoubles() {
+        Document d = doc("drivingScore", 60);
+
+        assertMatches(cmp("lt", "drivingScore", 60.5), d);
+        assertNoMatch(cmp("lt", "drivingScore", 60), d);
+        assertMatches(cmp("lte", "drivingScore", 60L), d);
+        assertMatches(cmp("gt", "drivingScore", 59.9f), d);
+        assertNoMatch(cmp("gt", "drivingScore", 60), d);
+        assertMatches(cmp("gte", "drivingScore", 60.0), d);
+        assertMatches(cmp("eq", "drivingScore", 60.0), d);
+        assertNoMatch(cmp("ne", "drivingScore", 60L), d);
+        // 숫자가 아니거나 없는 값은 비교가 거짓
+        assertNoMatch(cmp("gt", "drivingScore", 10), doc("drivingScore", "80"));
+        assertNoMatch(cmp("lt", "missing", 10), d);
+        assertMatches(cmp("ne", "missing", 10), d);
+    }
+
+    @Test
+    void comparesOtherValuesWithEquals() {
+        Document d = doc("status", "DONE");
+
+        assertMatches(cmp("eq", "status", "DONE"), d);
+        assertNoMatch(cmp("eq", "status", "done"), d);
+        assertMatches(cmp("ne", "status", "PENDING"), d);
+        assertMatches(cmp("eq", "missing", null), d);
+    }
+
+    @Test
+    void existsChecksForNonNullValue() {
+        Document d = doc("a", 1).append("b", null);
+
+        assertMatches(cmp("exists", "a", null), d);
+        assertNoMatch(cmp("exists", "b", null), d);
+        assertNoMatch(cmp("exists", "c", null), d);
+    }
+
+    @Test
+    void combinesChildrenWithAndOrNot() {
+        Document d = doc("a", 1).append("b", 2);
+        AlertRuleCondition aIsOne = cmp("eq", "a", 1);
+        AlertRuleCondition bIsThree = cmp("eq", "b", 3);
+
+        assertNoMatch(group("and", aIsOne, bIsThree), d);
+        assertMatches(group("or", aIsOne, bIsThree), d);
+        assertMatches(group("not", bIsThree), d);
+        assertMatches(group("and", aIsOne, group("not", bIsThree)), d);
+        // 빈 and는 참, 빈 or는 거짓
+        assertMatches(group("and"), d);
+        assertNoMatch(group("or"), d);
+        // 연산자는 대소문자를 가리지 않는다
+        assertMatches(group("AND", aIsOne), d);
+    }
+
+    @Test
+    void readsDottedPathsFromEmbeddedDocuments() {
+        Document d = doc("car", new Document("engine", new Document("temp", 105)));
+
+        assertMatches(cmp("gt", "car.engine.temp", 100), d);
+        assertNoMatch(cmp("exists", "car.wheel.size", null), d);
+    }
+
+    @Test
+    void readsChangedFieldAndValue() {
+        AlertRule rule = rule(group("and",
+                cmp("eq", "$field", "engineOilChangedDate"),
+                cmp("exists", "$value", null)), "{$field} 교체일 {$value|md}");
+        rule.setFieldLabels(Map.of("engineOilChangedDate", "엔진 오일"));
+        Document d = doc("engineOilChangedDate", "20250510");
+
+        AlertDto alert = evaluate(rule, d, "engineOilChangedDate");
+        assertNotNull(alert);
+        assertEquals("엔진 오일 교체일 05월 10일", alert.getMessage());
+
+        assertNull(evaluate(rule, d.append("tireChangedDate", "20250101"), "tireChangedDate"));
+    }
+
+    @Test
+    void fieldPlaceholderFallsBackToFieldName() {
+        AlertDto alert = evaluate(rule(null, "{$field}"), doc("tireChangedDate", "20250101"), "tireChangedDate");
+
+        assertEquals("tireChangedDate", alert.getMessage());
+    }
+
+    @Test
+    void formatsTemplatePlaceholders() {
+        Document d = doc("date", "20241231").append("score", 87).append("short", "2024")
+                .append("car", new Document("model", "아반떼"));
+        AlertRule rule = rule(null, "{date|md} / {score|float} / { car.model } / {short|md} / {none} / {none|float} / 끝{");
+
+        assertEquals("12월 31일 / 87.0 / 아반떼 / 2024 / null / null / 끝{", evaluate(rule, d, null).getMessage());
+    }
+
+    @Test
+    void usesConfiguredUserIdField() {
+        AlertRule rule = rule(null, "");
+        rule.setUserIdField("ownerId");
+
+        AlertDto alert = evaluate(rule, doc("ownerId", "owner-9"), null);
+        assertEquals("owner-9", alert.getUserId());
+        assertEquals("", alert.getMessage());
+    }
+
+    @Test
+    void rejectsInvalidRulesAtCompileTime() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlertRule.compile(rule(group("not"), "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlertRule.compile(rule(group("not", cmp("exists", "a", null), cmp("exists", "b", null)), "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlertRule.compile(rule(cmp("gt", "a", "10"), "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlertRule.compile(rule(cmp("between", "a", 1), "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlertRule.compile(rule(cmp("eq", null, 1), "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledAlertRule.compile(rule(null, "{score|pct}")));
+    }
+
+    private static void assertMatches(AlertRuleCondition condition, Document d) {
+        assertNotNull(evaluate(rule(condition, ""), d, null));
+    }
+
+    private static void assertNoMatch(AlertRuleCondition condition, Document d) {
+        assertNull(evaluate(rule(condition, ""), d, null));
+    }
+
+    private static AlertDto evaluate(AlertRule rule, Document d, String changedField) {
+        return CompiledAlertRule.compile(rule).evaluate(d, changedField);
+    }
+
+    private static Document doc(String key, Object value) {
+        return new Document("userId", "user-1").append(key, value);
+    }
+
+    private static AlertRule rule(AlertRuleCondition condition, String template) {
+        AlertRule rule = new AlertRule();
+        rule.setType("SCORE");
+        rule.setTitle("제목");
+        rule.setCondition(condition);
+        rule.setMessageTemplate(template);
+        return rule;
+    }
+
+    private static AlertRuleCondition cmp(String op, String field, Object value) {
+        AlertRuleCondition c = new AlertRuleCondition();
+        c.setOp(op);
+        c.setField(field);
+        c.setValue(value);
+        return c;
+    }
+
+    private static AlertRuleCondition group(String op, AlertRuleCondition... children) {
+        AlertRuleCondition c = new AlertRuleCondition();
+        c.setOp(op);
+        c.setConditions(List.of(children));
+        return c;
+    }
+}
@@ -0,0 +1,126 @@
+package com.gildong.gildongE.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * driving_pattern(일반) 과 driving_pattern_ts(시계열) 저장 크기와 사용자별 기간 조회 지연을 비교한다.
+ * DrivingPatternTimeSeriesCopier로 복사를 마친 DB에 대해 실행한다.
+ *
+ * 실행: ./gradlew storageBenchmark -PstorageArgs="uri=mongodb://localhost:27017 db=gildongE_db queries=500 days=30"
+ *
+ *  - uri     : MongoDB 접속 URI (기본 mongodb://localhost:27017)
+ *  - db      : DB 이름 (기본 gildongE_db)
+ *  - queries : 컬렉션별 조회 횟수 (기본 500)
+ *  - days    : 조회 기간, 사용자 최근 기록 기준 며칠 전까지 (기본 30)
+ */
+public class DrivingPatternStorageBenchmark {
+
+    public static void main(String[] args) {
+        Map<String, String> opts = parseArgs(args);
+        String uri = opts.getOrDefault("uri", "mongodb://localhost:27017");
+        String dbName = opts.getOrDefault("db", "gildongE_db");
+        int queries = Integer.parseInt(opts.getOrDefault("queries", "500"));
+        int days = Integer.parseInt(opts.getOrDefault("days", "30"));
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase db = client.getDatabase(dbName);
+            MongoCollection<Document> plain = db.getCollection(DrivingPatternStorage.COLLECTION);
+            MongoCollection<Document> series = db.getCollection(DrivingPatternStorage.TIME_SERIES_COLLECTION);
+
+            // 두 컬렉션에 같은 사용자 표본으로 조회한다
+            List<String> userIds = new ArrayList<>();
+            plain.aggregate(List.of(Aggregates.sample(queries), Aggregates.project(new Document("userId", 1))))
+                    .forEach(d -> {
+                        if (d.getString("userId") != null) userIds.add(d.getString("userId"));
+                    });
+            if (userIds.isEmpty()) {
+                System.out.println("No driving patterns to query");
+                return;
+            }
+
+            System.out.printf("%-20s %12s %14s %14s %14s%n", "collection", "count", "size(MB)", "storage(MB)", "index(MB)");
+            printStats(db, DrivingPatternStorage.COLLECTION);
+            printStats(db, DrivingPatternStorage.TIME_SERIES_COLLECTION);
+
+            System.out.println();
+            System.out.printf("range query (userId, last %d days, sorted by recordedAt), %d queries%n", days, userIds.size());
+            measure(DrivingPatternStorage.COLLECTION, plain, userIds, days);
+            measure(DrivingPatternStorage.TIME_SERIES_COLLECTION, series, userIds, days);
+        }
+    }
+
+    private static void printStats(MongoDatabase db, String collection) {
+        Document stats = db.runCommand(new Document("collStats", collection));
+        System.out.printf("%-20s %12d %14.1f %14.1f %14.1f%n", collection,
+                number(stats, "count"), mb(stats, "size"), mb(stats, "storageSize"), mb(stats, "totalIndexSize"));
+    }
+
+    private static void measure(String name, MongoCollection<Document> coll, List<String> userIds, int days) {
+        // 워밍업 한 바퀴 (캐시 상태를 맞춘다)
+        for (String userId : userIds) rangeQuery(coll, userId, days);
+
+        long[] latencies = new long[userIds.size()];
+        long docs = 0;
+        for (int i = 0; i < userIds.size(); i++) {
+            long start = System.nanoTime();
+            docs += rangeQuery(coll, userIds.get(i), days);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-20s p50 %.2f ms, p95 %.2f ms, max %.2f ms, avg docs %.1f%n", name,
+                percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.95) / 1e6,
+                latencies[latencies.length - 1] / 1e6, (double) docs / userIds.size());
+    }
+
+    private static int rangeQuery(MongoCollection<Document> coll, String userId, int days) {
+        Document latest = coll.find(Filters.eq("userId", userId)).sort(Sorts.descending("recordedAt")).first();
+        if (latest == null) return 0;
+        Date to = latest.getDate("recordedAt");
+        Date from = new Date(to.getTime() - TimeUnit.DAYS.toMillis(days));
+        int n = 0;
+        for (Document ignored : coll.find(Filters.and(Filters.eq("userId", userId),
+                        Filters.gte("recordedAt", from), Filters.lte("recordedAt", to)))
+                .sort(Sorts.ascending("recordedAt"))) {
+            n++;
+        }
+        return n;
+    }
+
+    private static long number(Document stats, String key) {
+        Object v = stats.get(key);
+        return v instanceof Number ? ((Number) v).longValue() : 0L;
+    }
+
+    private static double mb(Document stats, String key) {
+        return number(stats, key) / (1024.0 * 1024.0);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
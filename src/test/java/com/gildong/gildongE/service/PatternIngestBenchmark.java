@@ -0,0 +1,98 @@
+package com.gildong.gildongE.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 운전 점수 기록 처리량 비교: 단건(POST /api/patterns) vs 일괄(POST /api/patterns/bulk, JSON 배열/NDJSON).
+ * 실행 중인 서버와 실제 사용자 ID가 필요하다. (기록이 실제로 저장된다)
+ *
+ * 실행: ./gradlew ingestBenchmark -PingestArgs="base=http://localhost:8080 userId=... count=5000 batch=500"
+ *
+ *  - base   : 서버 주소 (기본 http://localhost:8080)
+ *  - userId : 기록할 사용자 ID (필수)
+ *  - count  : 방식별 기록 수 (기본 2000)
+ *  - batch  : JSON 배열 방식의 요청당 건수 (기본 500, 서버 bulk-max-items 이하)
+ */
+public class PatternIngestBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        String base = opts.getOrDefault("base", "http://localhost:8080");
+        String userId = opts.get("userId");
+        int count = Integer.parseInt(opts.getOrDefault("count", "2000"));
+        int batch = Integer.parseInt(opts.getOrDefault("batch", "500"));
+        if (userId == null) {
+            System.out.println("userId=... is required");
+            return;
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        Random random = new Random(42);
+        // 오프라인에 쌓인 기록처럼 지난 한 주에 걸친 기록 시각을 쓴다
+        LocalDateTime start = LocalDateTime.now().minusDays(7);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            send(client, base + "/api/patterns", "application/json", item(userId, random, start, i, count));
+        }
+        report("single", count, System.nanoTime() - begin);
+
+        begin = System.nanoTime();
+        for (int from = 0; from < count; from += batch) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < Math.min(from + batch, count); i++) {
+                if (i > from) body.append(',');
+                body.append(item(userId, random, start, i, count));
+            }
+            send(client, base + "/api/patterns/bulk", "application/json", body.append(']').toString());
+        }
+        report("bulk (json, " + batch + ")", count, System.nanoTime() - begin);
+
+        begin = System.nanoTime();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            ndjson.append(item(userId, random, start, i, count)).append('\n');
+        }
+        send(client, base + "/api/patterns/bulk", "application/x-ndjson", ndjson.toString());
+        report("bulk (ndjson)", count, System.nanoTime() - begin);
+    }
+
+    private static String item(String userId, Random random, LocalDateTime start, int i, int count) {
+        LocalDateTime at = start.plusSeconds(7L * 24 * 3600 * i / count);
+        return String.format(Locale.ROOT, "{\"userId\":\"%s\",\"drivingScore\":%.1f,\"recordedAt\":\"%s\"}",
+                userId, 40 + random.nextDouble() * 60, at);
+    }
+
+    private static void send(HttpClient client, String url, String contentType, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(url + " -> " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static void report(String name, int count, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-20s %8d records, %8.2f s, %10.0f records/s%n", name, count, seconds, count / seconds);
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
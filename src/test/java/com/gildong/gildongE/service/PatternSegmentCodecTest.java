@@ -0,0 +1,146 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PatternSegmentCodec: 시각/점수 차이의 zigzag varint, ObjectId가 아닌 id, 서머타임 전환일 왕복.
+ * 기록 시각은 시스템 시간대로 바뀌므로 시간대를 바꾸는 테스트는 끝나면 되돌린다.
+ */
+class PatternSegmentCodecTest {
+
+    private final TimeZone originalZone = TimeZone.getDefault();
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(originalZone);
+    }
+
+    @Test
+    void roundTripsObjectIdAndOtherIds() {
+        List<DrivingPattern> rows = List.of(
+                row("65f1c0ffee0000000000abcd", "2024-05-01T08:00:00", 71.3f),
+                row("legacy-42", "2024-05-01T08:00:00", 71.3f),
+                row("운행-기록-1", "2024-05-01T09:15:30.250", 88.8f),
+                row("", "2024-05-02T00:00:00", 60f),
+                // 24자지만 16진수가 아니면 문자열로
+                row("zzzzzzzzzzzzzzzzzzzzzzzz", "2024-05-03T23:59:59.999", 12.5f));
+
+        List<DrivingPattern> decoded = roundTrip(rows);
+
+        assertEquals(rows.size(), decoded.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i).getId(), decoded.get(i).getId());
+            assertEquals(rows.get(i).getRecordedAt(), decoded.get(i).getRecordedAt());
+            assertEquals(rows.get(i).getDrivingScore(), decoded.get(i).getDrivingScore(), 1e-4f);
+            assertEquals("user-1", decoded.get(i).getUserId());
+        }
+    }
+
+    @Test
+    void zigzagKeepsNegativeAndLargeDeltas() {
+        // 점수 차이는 음수/큰 값, 시각 차이는 몇십 년 (여러 바이트 varint)과 1970년 이전 (음수 millis)
+        List<DrivingPattern> rows = List.of(
+                row("a", "1965-03-01T12:00:00", 100f),
+                row("b", "1965-03-01T12:00:00", 0f),
+                row("c", "2024-01-01T00:00:00.001", 99.9f),
+                row("d", "2090-12-31T23:59:59", -12.3f),
+                row("e", "2090-12-31T23:59:59", 250f));
+
+        List<DrivingPattern> decoded = roundTrip(rows);
+
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i).getRecordedAt(), decoded.get(i).getRecordedAt());
+            assertEquals(rows.get(i).getDrivingScore(), decoded.get(i).getDrivingScore(), 1e-4f);
+        }
+    }
+
+    @Test
+    void quantizesScoresToTenths() {
+        assertEquals(725, PatternSegmentCodec.quantize(72.46f));
+        assertEquals(724, PatternSegmentCodec.quantize(72.44f));
+        assertEquals(-123, PatternSegmentCodec.quantize(-12.3f));
+
+        List<DrivingPattern> decoded = roundTrip(List.of(row("a", "2024-05-01T08:00:00", 72.46f)));
+        assertEquals(72.5f, decoded.get(0).getDrivingScore(), 1e-4f);
+    }
+
+    @Test
+    void roundTripsAroundDaylightSavingTransitions() {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        List<DrivingPattern> rows = List.of(
+                row("a", "2024-03-10T01:59:59", 70f),
+                row("b", "2024-03-10T03:00:00", 71f),
+                row("c", "2024-03-10T23:30:00", 72f),
+                row("d", "2024-11-03T00:30:00", 73f),
+                // 되풀이되는 1시대 (앞쪽 오프셋으로 저장된다)
+                row("e", "2024-11-03T01:30:00", 74f),
+                row("f", "2024-11-03T02:30:00", 75f));
+
+        List<DrivingPattern> decoded = roundTrip(rows);
+
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i).getRecordedAt(), decoded.get(i).getRecordedAt(), rows.get(i).getId());
+        }
+    }
+
+    @Test
+    void timeInASpringForwardGapMovesLikeStoredLocalDateTime() {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        // 없는 시각 02:30은 Spring 저장과 같이 03:30이 된다
+        List<DrivingPattern> decoded = roundTrip(List.of(row("a", "2024-03-10T02:30:00", 70f)));
+
+        assertEquals(LocalDateTime.parse("2024-03-10T03:30:00"), decoded.get(0).getRecordedAt());
+    }
+
+    @Test
+    void roundTripsAnEmptySegmentAndCompressesRepeats() {
+        assertTrue(roundTrip(List.of()).isEmpty());
+
+        List<DrivingPattern> rows = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.parse("2024-05-01T00:00:00");
+        for (int i = 0; i < 1_000; i++) {
+            rows.add(row("65f1c0ffee0000000000" + String.format("%04x", i), start.plusMinutes(i).toString(), 80f));
+        }
+        byte[] data = PatternSegmentCodec.encode(rows);
+        // 기록당 12바이트 ObjectId보다 작아야 한다 (시각/점수 열은 거의 0바이트)
+        assertTrue(data.length < rows.size() * 12, "segment size " + data.length);
+        assertEquals(rows.size(), PatternSegmentCodec.decode("user-1", data).size());
+    }
+
+    @Test
+    void rejectsUnknownVersion() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(new byte[]{2, 0});
+        }
+
+        assertThrows(IllegalStateException.class, () -> PatternSegmentCodec.decode("user-1", bytes.toByteArray()));
+    }
+
+    private static List<DrivingPattern> roundTrip(List<DrivingPattern> rows) {
+        return PatternSegmentCodec.decode("user-1", PatternSegmentCodec.encode(rows));
+    }
+
+    private static DrivingPattern row(String id, String recordedAt, float score) {
+        DrivingPattern p = new DrivingPattern();
+        p.setId(id);
+        p.setUserId("user-1");
+        p.setRecordedAt(LocalDateTime.parse(recordedAt));
+        p.setDrivingScore(score);
+        return p;
+    }
+}
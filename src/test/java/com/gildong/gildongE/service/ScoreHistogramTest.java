@@ -0,0 +1,122 @@
+package com.gildong.gildongE.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ScoreHistogram: 칸 계산, 저장 형식 합치기, 백분위 칸 안 보간과 최저/최고 자르기, 표시용 구간.
+ */
+class ScoreHistogramTest {
+
+    private static final double EPS = 1e-6;
+
+    @Test
+    void binsScoresByIntegerPartClampedToRange() {
+        assertEquals(0, ScoreHistogram.binOf(-3.5f));
+        assertEquals(0, ScoreHistogram.binOf(0.9f));
+        assertEquals(99, ScoreHistogram.binOf(99.99f));
+        assertEquals(100, ScoreHistogram.binOf(100f));
+        assertEquals(100, ScoreHistogram.binOf(250f));
+    }
+
+    @Test
+    void interpolatesWithinABin() {
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.merge(Map.of("50", 4L));
+
+        // 순위 p*4가 50점 칸 안에서 차지하는 비율만큼
+        assertEquals(50.25, hist.percentile(0.25), EPS);
+        assertEquals(50.5, hist.percentile(0.5), EPS);
+        assertEquals(51.0, hist.percentile(1.0), EPS);
+    }
+
+    @Test
+    void interpolatesAcrossBinsUsingCumulativeCounts() {
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.merge(Map.of("10", 2L, "20", 2L));
+
+        assertEquals(10.5, hist.percentile(0.25), EPS);
+        // 순위 2는 10점 칸의 끝
+        assertEquals(11.0, hist.percentile(0.5), EPS);
+        assertEquals(20.5, hist.percentile(0.75), EPS);
+    }
+
+    @Test
+    void clampsPercentileToKnownMinAndMax() {
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.merge(Map.of("10", 2L, "20", 2L));
+        hist.mergeTotals(61.0, 10.4f, 20.3f);
+
+        assertEquals(10.4f, hist.percentile(0.1), EPS);
+        assertEquals(20.3f, hist.percentile(0.75), EPS);
+        assertEquals(20.3f, hist.percentile(0.99), EPS);
+    }
+
+    @Test
+    void keepsTopBinAtOneHundred() {
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.merge(Map.of("100", 3L));
+
+        assertEquals(100.0, hist.percentile(0.5), EPS);
+    }
+
+    @Test
+    void returnsNullWithoutRecords() {
+        assertNull(new ScoreHistogram().percentile(0.5));
+    }
+
+    @Test
+    void addTracksTotalsAndExactBounds() {
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.add(72.5f);
+        hist.add(64.0f);
+        hist.add(88.25f);
+
+        assertEquals(3, hist.getCount());
+        assertEquals(224.75, hist.getSum(), EPS);
+        assertEquals(64.0f, hist.getMin());
+        assertEquals(88.25f, hist.getMax());
+        assertEquals(Map.of("64", 1L, "72", 1L, "88", 1L), hist.toMap());
+        // 중앙값은 72점 칸 안에서 보간된다
+        assertEquals(72.5, hist.percentile(0.5), EPS);
+    }
+
+    @Test
+    void mergeIgnoresMalformedBinsAndAddsCounts() {
+        Map<String, Number> stored = new HashMap<>();
+        stored.put("30", 2);
+        stored.put("x", 5);
+        stored.put("-1", 5);
+        stored.put("101", 5);
+        stored.put("40", 0);
+        stored.put("50", null);
+
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.merge(stored);
+        hist.merge(Map.of("30", 1L));
+        hist.merge(null);
+
+        assertEquals(3, hist.getCount());
+        assertEquals(Map.of("30", 3L), hist.toMap());
+    }
+
+    @Test
+    void foldsBinsForDisplayWithOneHundredInTheLastBucket() {
+        ScoreHistogram hist = new ScoreHistogram();
+        hist.add(0f);
+        hist.add(9.9f);
+        hist.add(10f);
+        hist.add(99f);
+        hist.add(100f);
+
+        assertEquals(List.of(2L, 1L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 2L), hist.bins(10));
+        assertEquals(34, hist.bins(3).size());
+        assertEquals(2L, hist.bins(3).get(33).longValue());
+    }
+}
@@ -0,0 +1,157 @@
+package com.gildong.gildongE.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ScoreRankIndex: 펜윅 트리 순위(위/아래 사용자 수)와 양 끝 칸, 같은 칸 동순위, 오래된 값 무시, 상위 K명.
+ */
+class ScoreRankIndexTest {
+
+    @Test
+    void emptyIndexHasNoRanks() {
+        ScoreRankIndex index = new ScoreRankIndex();
+
+        assertEquals(0, index.countAbove(0));
+        assertEquals(0, index.countBelow(0));
+        assertEquals(0, index.countAbove(ScoreRankIndex.SLOTS - 1));
+        assertEquals(0, index.countBelow(ScoreRankIndex.SLOTS - 1));
+        assertTrue(index.top(3).isEmpty());
+    }
+
+    @Test
+    void clampsScoresToTheEdgeSlots() {
+        assertEquals(0, ScoreRankIndex.slotOf(-5f));
+        assertEquals(0, ScoreRankIndex.slotOf(0.004f));
+        assertEquals(1, ScoreRankIndex.slotOf(0.006f));
+        assertEquals(ScoreRankIndex.SLOTS - 1, ScoreRankIndex.slotOf(100f));
+        assertEquals(ScoreRankIndex.SLOTS - 1, ScoreRankIndex.slotOf(150f));
+        assertEquals(87.65f, ScoreRankIndex.scoreOf(ScoreRankIndex.slotOf(87.65f)), 1e-4f);
+    }
+
+    @Test
+    void ranksUsersAtTheLowestAndHighestSlots() {
+        ScoreRankIndex index = new ScoreRankIndex();
+        index.put("low", 0f, 1);
+        index.put("mid", 50f, 1);
+        index.put("high", 100f, 1);
+
+        int low = index.slot("low");
+        int high = index.slot("high");
+        assertEquals(0, low);
+        assertEquals(ScoreRankIndex.SLOTS - 1, high);
+
+        // 1등: 위에 아무도 없고, 꼴찌: 아래에 아무도 없다
+        assertEquals(0, index.countAbove(high));
+        assertEquals(2, index.countBelow(high));
+        assertEquals(2, index.countAbove(low));
+        assertEquals(0, index.countBelow(low));
+        // 백분위 = 아래 사용자 수 / 전체
+        assertEquals(0.0, 100.0 * index.countBelow(low) / index.size(), 1e-9);
+        assertEquals(200.0 / 3, 100.0 * index.countBelow(high) / index.size(), 1e-9);
+    }
+
+    @Test
+    void usersInTheSameSlotShareARank() {
+        ScoreRankIndex index = new ScoreRankIndex();
+        index.put("a", 80f, 1);
+        index.put("b", 80.001f, 1);
+        index.put("c", 90f, 1);
+
+        int slot = index.slot("a");
+        assertEquals(slot, index.slot("b"));
+        assertEquals(1, index.countAbove(slot));
+        assertEquals(0, index.countBelow(slot));
+    }
+
+    @Test
+    void ignoresOlderValuesAndMovesOnNewerOnes() {
+        ScoreRankIndex index = new ScoreRankIndex();
+        assertTrue(index.put("u", 70f, 5));
+
+        assertFalse(index.put("u", 10f, 4));
+        assertEquals(ScoreRankIndex.slotOf(70f), index.slot("u"));
+
+        assertTrue(index.put("u", 90f, 6));
+        assertEquals(ScoreRankIndex.slotOf(90f), index.slot("u"));
+        assertEquals(1, index.size());
+        assertEquals(0, index.countBelow(ScoreRankIndex.slotOf(90f)));
+        assertEquals(1, index.countAbove(ScoreRankIndex.slotOf(70f)));
+
+        // 같은 기록 수는 다시 반영한다 (같은 값이 두 번 올 수 있다)
+        assertTrue(index.put("u", 90f, 6));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removeTakesUserOutOfRanks() {
+        ScoreRankIndex index = new ScoreRankIndex();
+        index.put("a", 40f, 1);
+        index.put("b", 60f, 1);
+
+        assertTrue(index.remove("b"));
+        assertFalse(index.remove("b"));
+        assertEquals(1, index.size());
+        assertEquals(-1, index.slot("b"));
+        assertEquals(0, index.countAbove(index.slot("a")));
+        assertEquals(List.of(Map.entry("a", ScoreRankIndex.slotOf(40f))), index.top(5));
+    }
+
+    @Test
+    void topReturnsHighestFirstUpToK() {
+        ScoreRankIndex index = new ScoreRankIndex();
+        index.put("a", 55f, 1);
+        index.put("b", 95f, 1);
+        index.put("c", 75f, 1);
+        index.put("d", 95f, 1);
+
+        List<Map.Entry<String, Integer>> top = index.top(3);
+        assertEquals(3, top.size());
+        // 같은 칸은 들어온 순서대로
+        assertEquals("b", top.get(0).getKey());
+        assertEquals("d", top.get(1).getKey());
+        assertEquals("c", top.get(2).getKey());
+        assertEquals(4, index.top(10).size());
+        assertTrue(index.top(0).isEmpty());
+    }
+
+    @Test
+    void matchesBruteForceCountsAfterRandomUpdates() {
+        ScoreRankIndex index = new ScoreRankIndex();
+        Map<String, Integer> slots = new HashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 2_000; i++) {
+            String user = "u" + random.nextInt(200);
+            if (random.nextInt(10) == 0) {
+                index.remove(user);
+                slots.remove(user);
+                counts.remove(user);
+                continue;
+            }
+            float score = random.nextInt(10_001) / 100f;
+            long count = counts.getOrDefault(user, 0L) + 1;
+            index.put(user, score, count);
+            slots.put(user, ScoreRankIndex.slotOf(score));
+            counts.put(user, count);
+        }
+
+        assertEquals(slots.size(), index.size());
+        int[] probes = {0, 1, 2_500, 5_000, 9_999, ScoreRankIndex.SLOTS - 1};
+        for (int probe : probes) {
+            long above = slots.values().stream().filter(s -> s > probe).count();
+            long below = slots.values().stream().filter(s -> s < probe).count();
+            assertEquals(above, index.countAbove(probe), "above " + probe);
+            assertEquals(below, index.countBelow(probe), "below " + probe);
+        }
+    }
+}
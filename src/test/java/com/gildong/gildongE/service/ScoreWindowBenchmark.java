@@ -0,0 +1,178 @@
+package com.gildong.gildongE.service;
+
+import com.gildong.gildongE.model.DrivingPattern;
+
+import java.lang.management.ManagementFactory;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 여러 창(일/주/월, 7일 이동 평균, EWMA) 계산 비교: 기존 방식(DrivingPattern 목록 + stream groupingBy, 창마다 한 번씩)
+ * vs ScoreWindowEngine(기본형 배열 한 번 순회). DB 없이 메모리의 합성 기록으로 돌린다.
+ * 시간과 함께 스레드 할당 바이트를 보여주고, 두 방식의 주간 평균이 같은지 확인한다.
+ *
+ * 실행: ./gradlew windowBenchmark -PwindowArgs="records=200000 days=730 rounds=20"
+ *
+ *  - records : 기록 수 (기본 100000)
+ *  - days    : 기록이 흩어진 기간 (기본 365)
+ *  - rounds  : 측정 반복 횟수 (기본 10, 같은 횟수만큼 먼저 예열)
+ */
+public class ScoreWindowBenchmark {
+
+    private static final int ROLLING_DAYS = 7;
+    private static final double ALPHA = 0.2;
+
+    public static void main(String[] args) {
+        Map<String, String> opts = parseArgs(args);
+        int records = Integer.parseInt(opts.getOrDefault("records", "100000"));
+        int days = Integer.parseInt(opts.getOrDefault("days", "365"));
+        int rounds = Integer.parseInt(opts.getOrDefault("rounds", "10"));
+        ZoneId zone = ZoneId.systemDefault();
+
+        // 같은 기록을 두 형태로: 엔티티 목록(기존 조회 결과) / 시각·점수 배열
+        Random random = new Random(42);
+        LocalDateTime start = LocalDate.now().minusDays(days).atStartOfDay();
+        List<DrivingPattern> list = new ArrayList<>(records);
+        long[] millis = new long[records];
+        float[] scores = new float[records];
+        for (int i = 0; i < records; i++) {
+            DrivingPattern p = new DrivingPattern();
+            p.setUserId("bench");
+            p.setRecordedAt(start.plusSeconds((long) days * 86400 * i / records));
+            p.setDrivingScore(Math.round((40 + random.nextFloat() * 60) * 10) / 10f);
+            list.add(p);
+            millis[i] = p.getRecordedAt().atZone(zone).toInstant().toEpochMilli();
+            scores[i] = p.getDrivingScore();
+        }
+
+        int windows = ScoreWindowEngine.DAY | ScoreWindowEngine.WEEK | ScoreWindowEngine.MONTH
+                | ScoreWindowEngine.ROLLING | ScoreWindowEngine.EWMA;
+        Map<LocalDate, Double> baselineWeeks = baseline(list);
+        ScoreWindowEngine.Series engineWeeks = engine(millis, scores, zone, windows).weekly;
+        check(baselineWeeks, engineWeeks);
+
+        for (int i = 0; i < rounds; i++) {
+            baseline(list);
+            engine(millis, scores, zone, windows);
+        }
+
+        long sink = 0;
+        Meter meter = new Meter();
+        for (int i = 0; i < rounds; i++) sink += baseline(list).size();
+        meter.report("stream/groupingBy", records, rounds);
+
+        meter = new Meter();
+        for (int i = 0; i < rounds; i++) sink += engine(millis, scores, zone, windows).daily.size;
+        meter.report("window engine", records, rounds);
+
+        meter = new Meter();
+        for (int i = 0; i < rounds; i++) {
+            sink += engine(millis, scores, zone, ScoreWindowEngine.WEEK).weekly.size;
+        }
+        meter.report("window engine (week)", records, rounds);
+        System.out.println("(" + sink + ")");
+    }
+
+    /** 기존 방식: 창마다 목록을 다시 훑어 groupingBy (주간은 원래 getWeeklyAverages 코드) */
+    private static Map<LocalDate, Double> baseline(List<DrivingPattern> list) {
+        Map<LocalDate, Double> avgByDay = list.stream()
+                .collect(Collectors.groupingBy(
+                        e -> e.getRecordedAt().toLocalDate(),
+                        Collectors.averagingDouble(DrivingPattern::getDrivingScore)));
+        Map<LocalDate, Double> avgByWeek = list.stream()
+                .collect(Collectors.groupingBy(
+                        e -> e.getRecordedAt()
+                                .toLocalDate()
+                                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                        Collectors.averagingDouble(DrivingPattern::getDrivingScore)));
+        Map<LocalDate, Double> avgByMonth = list.stream()
+                .collect(Collectors.groupingBy(
+                        e -> e.getRecordedAt().toLocalDate().withDayOfMonth(1),
+                        Collectors.averagingDouble(DrivingPattern::getDrivingScore)));
+
+        // 이동 평균: 날짜별 (합계, 건수) 후 날마다 앞 N일을 찾아 더한다
+        TreeMap<LocalDate, double[]> byDay = list.stream()
+                .collect(Collectors.groupingBy(e -> e.getRecordedAt().toLocalDate(), TreeMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), rows -> new double[]{
+                                rows.stream().mapToDouble(DrivingPattern::getDrivingScore).sum(), rows.size()})));
+        Map<LocalDate, Double> rolling = new HashMap<>();
+        for (LocalDate day : byDay.keySet()) {
+            double sum = 0;
+            double count = 0;
+            for (double[] v : byDay.subMap(day.minusDays(ROLLING_DAYS - 1), true, day, true).values()) {
+                sum += v[0];
+                count += v[1];
+            }
+            rolling.put(day, sum / count);
+        }
+
+        // EWMA: 점수 목록(Float)을 순서대로
+        List<Float> values = list.stream()
+                .sorted(Comparator.comparing(DrivingPattern::getRecordedAt))
+                .map(DrivingPattern::getDrivingScore)
+                .collect(Collectors.toList());
+        double ewma = Double.NaN;
+        for (Float v : values) ewma = Double.isNaN(ewma) ? v : (1 - ALPHA) * ewma + ALPHA * v;
+
+        if (avgByDay.isEmpty() || avgByMonth.isEmpty() || rolling.isEmpty() || Double.isNaN(ewma)) {
+            throw new IllegalStateException("empty result");
+        }
+        return avgByWeek;
+    }
+
+    private static ScoreWindowEngine engine(long[] millis, float[] scores, ZoneId zone, int windows) {
+        ScoreWindowEngine engine = new ScoreWindowEngine(zone, windows, DayOfWeek.MONDAY, ROLLING_DAYS, ALPHA);
+        for (int i = 0; i < millis.length; i++) engine.accept(millis[i], scores[i]);
+        return engine.finish();
+    }
+
+    private static void check(Map<LocalDate, Double> expected, ScoreWindowEngine.Series actual) {
+        if (expected.size() != actual.size) {
+            throw new IllegalStateException("week count " + expected.size() + " != " + actual.size);
+        }
+        for (int i = 0; i < actual.size; i++) {
+            LocalDate week = LocalDate.ofEpochDay(actual.start[i]);
+            double avg = actual.sum[i] / actual.count[i];
+            Double want = expected.get(week);
+            if (want == null || Math.abs(want - avg) > 1e-6) {
+                throw new IllegalStateException("week " + week + ": " + want + " != " + avg);
+            }
+        }
+        System.out.println("weekly averages match (" + actual.size + " weeks)");
+    }
+
+    /** 경과 시간과 현재 스레드 할당 바이트 */
+    private static final class Meter {
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final long startNanos = System.nanoTime();
+        private final long startBytes = threads.getCurrentThreadAllocatedBytes();
+
+        void report(String name, int records, int rounds) {
+            double ms = (System.nanoTime() - startNanos) / 1e6 / rounds;
+            double mb = (threads.getCurrentThreadAllocatedBytes() - startBytes) / 1048576.0 / rounds;
+            System.out.printf("%-22s %8d records, %9.2f ms/round, %8.1f ns/record, %9.2f MB allocated/round%n",
+                    name, records, ms, ms * 1e6 / records, mb);
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,216 @@
+package com.gildong.gildongE.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ScoreWindowEngine: 이동 평균 창의 빈 날(N일 이상 포함), 일/주/월 경계, EWMA, 서머타임 전환일의 날짜 계산.
+ */
+class ScoreWindowEngineTest {
+
+    private static final double EPS = 1e-9;
+    private static final LocalDate DAY0 = LocalDate.parse("2024-01-01");   // 월요일
+
+    @Test
+    void rollingWindowCoversTheLastNDays() {
+        ScoreWindowEngine engine = rolling(3);
+        feed(engine, 0, 10f);
+        feed(engine, 1, 20f);
+        feed(engine, 2, 30f);
+        feed(engine, 3, 40f);
+        engine.finish();
+
+        ScoreWindowEngine.Trend trend = engine.rolling;
+        assertEquals(4, trend.size);
+        assertEquals(10.0, trend.value[0], EPS);
+        assertEquals(15.0, trend.value[1], EPS);
+        assertEquals(20.0, trend.value[2], EPS);
+        // 0일째는 빠진다
+        assertEquals(30.0, trend.value[3], EPS);
+        assertEquals(3, trend.count[3]);
+    }
+
+    @Test
+    void rollingWindowKeepsDaysInsideAShortGap() {
+        ScoreWindowEngine engine = rolling(3);
+        feed(engine, 0, 10f);
+        feed(engine, 2, 30f);
+        engine.finish();
+
+        assertEquals(20.0, engine.rolling.value[1], EPS);
+        assertEquals(2, engine.rolling.count[1]);
+    }
+
+    @Test
+    void rollingWindowEmptiesOnAGapOfExactlyN() {
+        ScoreWindowEngine engine = rolling(3);
+        feed(engine, 0, 10f);
+        feed(engine, 1, 20f);
+        feed(engine, 4, 50f);
+        engine.finish();
+
+        assertEquals(50.0, engine.rolling.value[2], EPS);
+        assertEquals(1, engine.rolling.count[2]);
+    }
+
+    @Test
+    void rollingWindowEmptiesOnAGapLongerThanN() {
+        ScoreWindowEngine engine = rolling(3);
+        feed(engine, 0, 10f);
+        feed(engine, 1, 20f);
+        feed(engine, 40, 50f);
+        feed(engine, 41, 70f);
+        feed(engine, 41, 90f);
+        engine.finish();
+
+        ScoreWindowEngine.Trend trend = engine.rolling;
+        assertEquals(4, trend.size);
+        assertEquals(50.0, trend.value[2], EPS);
+        assertEquals(1, trend.count[2]);
+        // 링의 같은 칸을 다시 쓰더라도 이전 값이 남지 않는다
+        assertEquals(70.0, trend.value[3], EPS);
+        assertEquals(3, trend.count[3]);
+    }
+
+    @Test
+    void splitsDaysWeeksAndMonthsOnTheirBoundaries() {
+        ScoreWindowEngine engine = new ScoreWindowEngine(ZoneOffset.UTC,
+                ScoreWindowEngine.DAY | ScoreWindowEngine.WEEK | ScoreWindowEngine.MONTH,
+                DayOfWeek.MONDAY, 7, 0.5);
+        feed(engine, LocalDate.parse("2024-01-06"), 60f);   // 토
+        feed(engine, LocalDate.parse("2024-01-07"), 80f);   // 일
+        feed(engine, LocalDate.parse("2024-01-07"), 90f);
+        feed(engine, LocalDate.parse("2024-01-08"), 70f);   // 월
+        feed(engine, LocalDate.parse("2024-01-31"), 50f);
+        feed(engine, LocalDate.parse("2024-02-01"), 40f);
+        engine.finish();
+
+        ScoreWindowEngine.Series daily = engine.daily;
+        assertEquals(5, daily.size);
+        assertEquals(LocalDate.parse("2024-01-07").toEpochDay(), daily.start[1]);
+        assertEquals(170.0, daily.sum[1], EPS);
+        assertEquals(2, daily.count[1]);
+        assertEquals(80f, daily.min[1]);
+        assertEquals(90f, daily.max[1]);
+
+        ScoreWindowEngine.Series weekly = engine.weekly;
+        assertEquals(3, weekly.size);
+        assertEquals(LocalDate.parse("2024-01-01").toEpochDay(), weekly.start[0]);
+        assertEquals(3, weekly.count[0]);
+        assertEquals(LocalDate.parse("2024-01-08").toEpochDay(), weekly.start[1]);
+        assertEquals(LocalDate.parse("2024-01-29").toEpochDay(), weekly.start[2]);
+        // 주는 달이 바뀌어도 이어진다
+        assertEquals(2, weekly.count[2]);
+
+        ScoreWindowEngine.Series monthly = engine.monthly;
+        assertEquals(2, monthly.size);
+        assertEquals(LocalDate.parse("2024-01-01").toEpochDay(), monthly.start[0]);
+        assertEquals(5, monthly.count[0]);
+        assertEquals(50f, monthly.min[0]);
+        assertEquals(90f, monthly.max[0]);
+        assertEquals(LocalDate.parse("2024-02-01").toEpochDay(), monthly.start[1]);
+    }
+
+    @Test
+    void honoursTheWeekStartDay() {
+        ScoreWindowEngine engine = new ScoreWindowEngine(ZoneOffset.UTC, ScoreWindowEngine.WEEK,
+                DayOfWeek.SUNDAY, 7, 0.5);
+        feed(engine, LocalDate.parse("2024-01-06"), 60f);   // 토
+        feed(engine, LocalDate.parse("2024-01-07"), 80f);   // 일
+        engine.finish();
+
+        assertEquals(2, engine.weekly.size);
+        assertEquals(LocalDate.parse("2023-12-31").toEpochDay(), engine.weekly.start[0]);
+        assertEquals(LocalDate.parse("2024-01-07").toEpochDay(), engine.weekly.start[1]);
+    }
+
+    @Test
+    void ewmaMatchesPerRecordAndPerDayFeeds() {
+        ScoreWindowEngine perRecord = new ScoreWindowEngine(ZoneOffset.UTC, ScoreWindowEngine.EWMA,
+                DayOfWeek.MONDAY, 7, 0.5);
+        feed(perRecord, 0, 10f);
+        feed(perRecord, 0, 20f);
+        feed(perRecord, 1, 30f);
+        perRecord.finish();
+
+        assertEquals(2, perRecord.ewma.size);
+        assertEquals(15.0, perRecord.ewma.value[0], EPS);
+        assertEquals(22.5, perRecord.ewma.value[1], EPS);
+
+        // 하루치 묶음은 그날 평균이 건수만큼 들어온 것과 같다
+        ScoreWindowEngine perDay = new ScoreWindowEngine(ZoneOffset.UTC, ScoreWindowEngine.EWMA,
+                DayOfWeek.MONDAY, 7, 0.5);
+        perDay.acceptDay(DAY0.toEpochDay(), 40, 2, 20f, 20f);
+        perDay.acceptDay(DAY0.toEpochDay() + 1, 30, 1, 30f, 30f);
+        perDay.finish();
+
+        assertEquals(20.0, perDay.ewma.value[0], EPS);
+        assertEquals(25.0, perDay.ewma.value[1], EPS);
+    }
+
+    @Test
+    void acceptDayAddsTotalsLikeSingleRecords() {
+        ScoreWindowEngine engine = new ScoreWindowEngine(ZoneOffset.UTC,
+                ScoreWindowEngine.DAY | ScoreWindowEngine.ROLLING, DayOfWeek.MONDAY, 2, 0.5);
+        engine.acceptDay(DAY0.toEpochDay(), 150, 2, 70f, 80f);
+        feed(engine, 0, 60f);
+        engine.acceptDay(DAY0.toEpochDay() + 1, 0, 0, 0f, 0f);    // 건수 0은 무시
+        engine.finish();
+
+        assertEquals(1, engine.daily.size);
+        assertEquals(210.0, engine.daily.sum[0], EPS);
+        assertEquals(3, engine.daily.count[0]);
+        assertEquals(60f, engine.daily.min[0]);
+        assertEquals(80f, engine.daily.max[0]);
+        assertEquals(70.0, engine.rolling.value[0], EPS);
+    }
+
+    @Test
+    void rejectsRecordsOutOfTimeOrder() {
+        ScoreWindowEngine engine = rolling(3);
+        feed(engine, 5, 10f);
+
+        assertThrows(IllegalStateException.class, () -> feed(engine, 4, 10f));
+    }
+
+    @Test
+    void computesLocalDaysAcrossDaylightSavingTransitions() {
+        ZoneId zone = ZoneId.of("America/New_York");
+        ScoreWindowEngine engine = new ScoreWindowEngine(zone, ScoreWindowEngine.DAY, DayOfWeek.MONDAY, 7, 0.5);
+        String[] times = {
+                "2024-03-09T23:59:59", "2024-03-10T00:00:00", "2024-03-10T01:59:59", "2024-03-10T03:00:00",
+                "2024-03-10T23:59:59", "2024-11-02T23:30:00", "2024-11-03T01:30:00", "2024-11-03T23:59:59",
+                "2024-11-04T00:00:00"};
+        for (String time : times) {
+            LocalDateTime local = LocalDateTime.parse(time);
+            long millis = local.atZone(zone).toInstant().toEpochMilli();
+            assertEquals(local.toLocalDate().toEpochDay(), engine.dayOf(millis), time);
+            engine.accept(millis, 50f);
+        }
+        engine.finish();
+
+        assertEquals(5, engine.daily.size);
+        assertEquals(4, engine.daily.count[1]);
+        assertEquals(2, engine.daily.count[3]);
+    }
+
+    private static ScoreWindowEngine rolling(int days) {
+        return new ScoreWindowEngine(ZoneOffset.UTC, ScoreWindowEngine.ROLLING, DayOfWeek.MONDAY, days, 0.5);
+    }
+
+    private static void feed(ScoreWindowEngine engine, int day, float score) {
+        feed(engine, DAY0.plusDays(day), score);
+    }
+
+    private static void feed(ScoreWindowEngine engine, LocalDate day, float score) {
+        engine.accept(day.atTime(12, 0).toInstant(ZoneOffset.UTC).toEpochMilli(), score);
+    }
+}
@@ -0,0 +1,123 @@
+package com.gildong.gildongE.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TimingWheel: 단계 사이 cascade, 만료 순서, 취소, 범위 경계.
+ * (tick 10ms, 바퀴 8칸, 3단계 → 단계별 슬롯 1 / 8 / 64 tick)
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    @Test
+    void expiresEachDeadlineOnItsTickAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, 3, 0);
+        // 0단계(5 tick), 1단계 경계 전후(8, 9, 63 tick), 2단계(64, 100, 447 tick)
+        long[] deadlineTicks = {5, 8, 9, 63, 64, 100, 447};
+        for (long tick : deadlineTicks) {
+            wheel.schedule(tick * TICK, tick);
+        }
+        assertEquals(deadlineTicks.length, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = 1; now <= 500; now++) {
+            for (Long tick : wheel.advance(now * TICK)) {
+                assertEquals(now, tick.longValue(), "expired on the wrong tick");
+                expired.add(tick);
+            }
+        }
+        assertEquals(List.of(5L, 8L, 9L, 63L, 64L, 100L, 447L), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromANonAlignedStart() {
+        // 시작 tick이 상위 단계 슬롯 경계가 아니어도 늦거나 이르게 만료되지 않는다
+        long start = 61 * TICK + 3;
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, 3, start);
+        long[] deadlineTicks = {62, 64, 70, 128, 129, 300};
+        for (long tick : deadlineTicks) {
+            wheel.schedule(tick * TICK, tick);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = 62; now <= 310; now++) {
+            for (Long tick : wheel.advance(now * TICK)) {
+                assertEquals(now, tick.longValue());
+                expired.add(tick);
+            }
+        }
+        assertEquals(List.of(62L, 64L, 70L, 128L, 129L, 300L), expired);
+    }
+
+    @Test
+    void returnsEverythingInDeadlineOrderOnOneLongAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 3, 0);
+        wheel.schedule(300 * TICK, "c");
+        wheel.schedule(3 * TICK, "a");
+        wheel.schedule(40 * TICK, "b");
+
+        assertEquals(List.of("a", "b", "c"), wheel.advance(1_000 * TICK));
+        assertTrue(wheel.advance(2_000 * TICK).isEmpty());
+    }
+
+    @Test
+    void cancelRemovesPendingTimeoutOnly() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 3, 0);
+        TimingWheel.Timeout<String> low = wheel.schedule(5 * TICK, "low");
+        TimingWheel.Timeout<String> high = wheel.schedule(200 * TICK, "high");
+
+        assertTrue(high.cancel());
+        assertFalse(high.cancel());
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of("low"), wheel.advance(300 * TICK));
+        // 이미 만료된 항목은 취소되지 않는다
+        assertFalse(low.cancel());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void clearDropsAllTimeouts() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 3, 0);
+        TimingWheel.Timeout<String> timeout = wheel.schedule(5 * TICK, "a");
+        wheel.schedule(100 * TICK, "b");
+
+        wheel.clear();
+
+        assertEquals(0, wheel.size());
+        assertFalse(timeout.cancel());
+        assertTrue(wheel.advance(1_000 * TICK).isEmpty());
+    }
+
+    @Test
+    void rejectsPastAndOutOfRangeDeadlines() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 3, 100 * TICK);
+
+        assertNull(wheel.schedule(100 * TICK, "now"));
+        assertNull(wheel.schedule(50 * TICK, "past"));
+        assertEquals(0, wheel.size());
+
+        long limit = 100 * TICK + wheel.maxDelayMillis();
+        TimingWheel.Timeout<String> last = wheel.schedule(limit, "last");
+        assertEquals(limit, last.deadlineMillis());
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(limit + 64 * TICK, "beyond"));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(0, 8, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(TICK, 1, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(TICK, 8, 0, 0));
+    }
+}